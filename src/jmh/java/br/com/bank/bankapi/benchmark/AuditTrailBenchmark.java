@@ -0,0 +1,48 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Cost paid by a request thread to publish an audit event while the writer drains to disk with fsync
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditTrailBenchmark {
+
+    Path directory;
+    AuditTrail auditTrail;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        auditTrail = new AuditTrail(directory, 16384, 1024, DataSize.ofMegabytes(64), true, Duration.ofMillis(1),
+                new SimpleMeterRegistry());
+        auditTrail.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        auditTrail.stop();
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean record() {
+        return auditTrail.record(AuditEventType.LOGIN_SUCCEEDED, "leo", "");
+    }
+}
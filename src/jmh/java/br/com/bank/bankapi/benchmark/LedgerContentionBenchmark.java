@@ -0,0 +1,85 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+import br.com.bank.bankapi.account.ledger.LedgerAccount;
+import br.com.bank.bankapi.account.ledger.LedgerEngine;
+import br.com.bank.bankapi.account.ledger.LedgerStore;
+import br.com.bank.bankapi.account.ledger.PendingTransfer;
+import br.com.bank.bankapi.account.ledger.PostedTransfer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Transfer throughput with every thread waiting for its commit. accounts=2 puts all threads on the same two hot
+// accounts, accounts=10000 spreads them; lockStripes=1 is the single global lock the stripes replace. The store
+// takes commitMicros per batch whatever its size, standing in for a database round trip plus fsync, so the
+// batch size grows with load just as it does in production.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class LedgerContentionBenchmark {
+
+    @Param({"2", "10000"})
+    int accounts;
+
+    @Param({"1", "1024"})
+    int lockStripes;
+
+    @Param({"0", "200"})
+    long commitMicros;
+
+    LedgerEngine engine;
+    LedgerAccount[] ledgerAccounts;
+
+    @Setup
+    public void setUp() {
+        long commitNanos = TimeUnit.MICROSECONDS.toNanos(commitMicros);
+        LedgerStore store = new LedgerStore() {
+            @Override
+            public Optional<LedgerAccount> loadAccount(UUID accountId) {
+                // Internal accounts may go negative, so no transfer is ever rejected
+                return Optional.of(new LedgerAccount(accountId, AccountType.INTERNAL, null, 0));
+            }
+
+            @Override
+            public Instant write(List<PendingTransfer> batch, Instant postedAt) {
+                if (commitNanos > 0) {
+                    LockSupport.parkNanos(commitNanos);
+                }
+                return postedAt;
+            }
+        };
+        engine = new LedgerEngine(store, lockStripes, 100_000, 500, 1, 100_000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        engine.start();
+
+        ledgerAccounts = new LedgerAccount[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ledgerAccounts[i] = engine.account(UUID.randomUUID());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.stop();
+    }
+
+    @Benchmark
+    public PostedTransfer transfer() {
+        var random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        return engine.transfer(ledgerAccounts[from], ledgerAccounts[to], 1, null);
+    }
+}
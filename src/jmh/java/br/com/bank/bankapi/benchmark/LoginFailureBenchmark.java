@@ -0,0 +1,114 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
+import br.com.bank.bankapi.auth.exception.InvalidCredentialsException;
+import br.com.bank.bankapi.auth.security.UsernameFilter;
+import br.com.bank.bankapi.auth.service.UserService;
+import br.com.bank.bankapi.exception.GlobalExceptionHandler;
+import br.com.bank.bankapi.persistence.ReadYourWrites;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.exception.UserNotFoundException;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// A failed login from UserService through GlobalExceptionHandler to the response entity. The repository is stubbed in
+// memory and the password encoder rejects at once, so what remains is the failure path itself; its warn log is
+// switched off, since what it costs depends on the logging setup. The call is made stackDepth frames down, about
+// where a controller runs under Tomcat, Spring Security and Spring MVC, since a stack trace costs in proportion to
+// the depth. Run with -prof gc and compare gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginFailureBenchmark {
+
+    @Param({"INVALID_CREDENTIALS", "USER_NOT_FOUND"})
+    String failure;
+
+    @Param({"120"})
+    int stackDepth;
+
+    UserService userService;
+    GlobalExceptionHandler exceptionHandler;
+    AuditTrail auditTrail;
+    AuthenticationDTO request;
+
+    @Setup
+    public void setUp() throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(UserService.class)).setLevel(Level.ERROR);
+        var meterRegistry = new SimpleMeterRegistry();
+        var user = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+        var repository = stubRepository(user);
+
+        auditTrail = new AuditTrail(Files.createTempDirectory("audit-benchmark"), 16384, 1024,
+                DataSize.ofMegabytes(64), false, Duration.ofMillis(5), meterRegistry);
+        auditTrail.start();
+        userService = new UserService(repository, new RejectingPasswordEncoder(), null,
+                new UsernameFilter(repository, 1000, 0.01, meterRegistry), null, auditTrail,
+                new ReadYourWrites("", Duration.ofSeconds(1), Duration.ofSeconds(1), 100));
+        exceptionHandler = new GlobalExceptionHandler(meterRegistry);
+        request = new AuthenticationDTO(failure.equals("USER_NOT_FOUND") ? "ana" : "leo", "wrong-password");
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditTrail.stop();
+    }
+
+    @Benchmark
+    public Object failedLogin() {
+        return failedLogin(stackDepth);
+    }
+
+    private Object failedLogin(int depth) {
+        if (depth > 0) {
+            return failedLogin(depth - 1);
+        }
+        try {
+            return userService.login(request);
+        } catch (InvalidCredentialsException e) {
+            return exceptionHandler.handleInvalidCredentialsException(e);
+        } catch (UserNotFoundException e) {
+            return exceptionHandler.handleUserNotFoundException(e);
+        }
+    }
+
+    private static UserRepository stubRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUsername")) {
+                        return user.getUsername().equals(args[0]) ? user : null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class RejectingPasswordEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.auth.security.KeyedRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one rate limit check, on a spread of keys and on a single hot key shared by every thread
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class LoginRateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    KeyedRateLimiter limiter;
+    String[] keys;
+
+    @Setup
+    public void setUp() {
+        // One token per nanosecond keeps every call on the allowed path, which includes the CAS
+        limiter = new KeyedRateLimiter(Integer.MAX_VALUE, Duration.ofNanos(Integer.MAX_VALUE), 100_000);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public long spreadKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return limiter.tryAcquire(keys[0]);
+    }
+}
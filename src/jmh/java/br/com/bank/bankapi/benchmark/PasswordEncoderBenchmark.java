@@ -0,0 +1,38 @@
+package br.com.bank.bankapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// BCrypt cost per hash at several strengths; 10 is the BCryptPasswordEncoder default used in production
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    int strength;
+
+    BCryptPasswordEncoder encoder;
+    String encoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        encoded = encoder.encode("12345678");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("12345678");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("12345678", encoded);
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.persistence.QueryProfiler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Work the query profiler adds to every JDBC statement on the executing thread, outside and inside an HTTP request
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryProfilerBenchmark {
+
+    QueryProfiler profiler;
+    ExecutionInfo execution;
+    List<QueryInfo> queries;
+
+    @Setup
+    public void setUp() {
+        profiler = new QueryProfiler(Duration.ofSeconds(1), 10, 4096, new SimpleMeterRegistry());
+        execution = new ExecutionInfo();
+        execution.setElapsedTime(TimeUnit.MICROSECONDS.toNanos(500));
+        queries = List.of(new QueryInfo("select u1_0.id,u1_0.username,u1_0.password,u1_0.role from users u1_0 where u1_0.username=?"));
+    }
+
+    @Benchmark
+    public void statement() {
+        profiler.afterQuery(execution, queries);
+    }
+
+    // A request running ten statements, counted per statement and summarised at its end
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void statementsInRequest() {
+        profiler.beginRequest();
+        for (int i = 0; i < 10; i++) {
+            profiler.afterQuery(execution, queries);
+        }
+        profiler.endRequest("GET", "/customers");
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.auth.security.PrincipalCache;
+import br.com.bank.bankapi.auth.security.SecurityFilter;
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.auth.security.TokenRevocationList;
+import br.com.bank.bankapi.persistence.ReadYourWrites;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Full SecurityFilter pass for an authenticated request, with the user repository stubbed in memory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    // When false the principal is evicted before every request, so each pass goes through the repository
+    @Param({"true", "false"})
+    boolean principalCached;
+
+    SecurityFilter securityFilter;
+    PrincipalCache principalCache;
+    UserPrincipal principal;
+    String authorization;
+
+    @Setup
+    public void setUp() {
+        var meterRegistry = new SimpleMeterRegistry();
+        principal = new UserPrincipal(UUID.randomUUID(), "leo", Role.ROLE_CLIENT, true);
+
+        var tokenService = new TokenService("benchmark-secret", 10_000, meterRegistry);
+        principalCache = new PrincipalCache(stubRepository(principal), 10_000, Duration.ofMinutes(5),
+                new ReadYourWrites("", Duration.ofSeconds(1), Duration.ofSeconds(1), 100), meterRegistry);
+        securityFilter = new SecurityFilter(tokenService, principalCache, new TokenRevocationList(), meterRegistry);
+        authorization = "Bearer " + tokenService.generateToken(new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws Exception {
+        if (!principalCached) {
+            principalCache.invalidate(null, principal.username());
+        }
+        var request = new MockHttpServletRequest("GET", "/accounts");
+        request.addHeader("Authorization", authorization);
+        var response = new MockHttpServletResponse();
+
+        securityFilter.doFilter(request, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    // Repository stand-in answering only the principal projection used by the filter
+    private static UserRepository stubRepository(UserPrincipal principal) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findPrincipalByUsername")) {
+                        return principal.username().equals(args[0]) ? principal : null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
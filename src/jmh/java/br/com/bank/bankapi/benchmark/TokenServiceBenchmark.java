@@ -0,0 +1,55 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Token signing and verification, run once per login and once per authenticated request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    TokenService tokenService;
+    User user;
+    String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService(SECRET, 10_000, new SimpleMeterRegistry());
+        user = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+        token = tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(user);
+    }
+
+    // Steady state: the same bearer token is presented again and served from the verified-token cache
+    @Benchmark
+    public String validateTokenCached() {
+        return tokenService.validateToken(token);
+    }
+
+    // Previous implementation, building a new algorithm and verifier and verifying the signature on every call
+    @Benchmark
+    public String validateTokenUncached() {
+        return JWT.require(Algorithm.HMAC256(SECRET))
+                .withIssuer("auth-api")
+                .build()
+                .verify(token)
+                .getSubject();
+    }
+}
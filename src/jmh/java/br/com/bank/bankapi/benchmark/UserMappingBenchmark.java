@@ -0,0 +1,40 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.auth.dto.RegisterDTO;
+import br.com.bank.bankapi.auth.mapper.UserMapper;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+// Entity mapping and authority lookup, both executed on every registration or authentication
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    RegisterDTO registerDTO;
+    User user;
+
+    @Setup
+    public void setUp() {
+        registerDTO = new RegisterDTO("leo", "leo@email.com", "12345678", Role.ROLE_CLIENT);
+        user = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return UserMapper.toEntity(registerDTO, "hashed");
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.bank.bankapi.benchmark;
+
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Id generation cost, single-threaded and with 4 threads contending on the shared v7 counter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidGeneratorBenchmark {
+
+    @Benchmark
+    public UUID randomV4() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedV7() {
+        return TimeOrderedUuidGenerator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID randomV4Contended() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID timeOrderedV7Contended() {
+        return TimeOrderedUuidGenerator.next();
+    }
+}
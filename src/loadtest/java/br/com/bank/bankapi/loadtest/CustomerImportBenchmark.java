@@ -0,0 +1,79 @@
+package br.com.bank.bankapi.loadtest;
+
+import br.com.bank.bankapi.BankApiApplication;
+import br.com.bank.bankapi.customer.importer.CustomerImportFormat;
+import br.com.bank.bankapi.customer.importer.CustomerImportResult;
+import br.com.bank.bankapi.customer.importer.CustomerImportService;
+import br.com.bank.bankapi.customer.validation.Cpf;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+// Measures customer import throughput (rows per second) on a synthetic CSV, against an embedded PostgreSQL.
+// -Dimport.rows sets the dataset size (default 1,000,000); one row in a hundred is invalid to exercise rejects.
+public final class CustomerImportBenchmark {
+
+    private CustomerImportBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        long rows = Long.getLong("import.rows", 1_000_000);
+
+        Path dataset = Files.createTempFile("customers-", ".csv");
+        Path rejects = Files.createTempFile("customers-", ".rejects");
+        try (var database = EmbeddedPostgres.builder().start();
+             var application = SpringApplication.run(BankApiApplication.class,
+                     "--spring.main.web-application-type=none",
+                     "--spring.jpa.show-sql=false",
+                     "--spring.datasource.url=" + database.getJdbcUrl("postgres", "postgres"),
+                     "--spring.datasource.username=postgres",
+                     "--spring.datasource.password=postgres")) {
+
+            var userId = UUID.randomUUID();
+            application.getBean(JdbcTemplate.class).update(
+                    "INSERT INTO users (id, username, email, password, role) VALUES (?, 'import-owner', 'owner@load.test', 'x', 'ROLE_CLIENT')",
+                    userId);
+            writeDataset(dataset, rows, userId);
+            System.out.printf("Generated %d rows (%d MB)%n", rows, Files.size(dataset) >> 20);
+
+            var importService = application.getBean(CustomerImportService.class);
+            CustomerImportResult result;
+            try (var input = Files.newBufferedReader(dataset, StandardCharsets.UTF_8);
+                 Writer rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+                result = importService.importCustomers(input, CustomerImportFormat.CSV, rejectWriter);
+            }
+            System.out.printf("read=%d imported=%d rejected=%d elapsed=%.1fs rows/s=%.0f%n",
+                    result.read(), result.imported(), result.rejected(),
+                    result.elapsed().toMillis() / 1000.0, result.rowsPerSecond());
+        } finally {
+            Files.deleteIfExists(dataset);
+            Files.deleteIfExists(rejects);
+        }
+    }
+
+    // Writes rows with sequential, valid CPFs; every hundredth row gets a broken check digit
+    static void writeDataset(Path path, long rows, UUID userId) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("full_name,document,status,user_id\n");
+            var cpf = new StringBuilder(11);
+            for (long i = 0; i < rows; i++) {
+                cpf.setLength(0);
+                cpf.append(String.format("%09d", i + 100_000_000L));
+                cpf.append(Cpf.checkDigit(cpf, 9));
+                cpf.append(Cpf.checkDigit(cpf, 10));
+                if (i % 100 == 99) {
+                    cpf.setCharAt(10, (char) ('0' + (cpf.charAt(10) - '0' + 1) % 10));
+                }
+                out.write("\"Customer " + i + "\"," + cpf + ",ACTIVE," + userId + "\n");
+            }
+        }
+    }
+}
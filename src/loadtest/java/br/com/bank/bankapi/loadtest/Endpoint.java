@@ -0,0 +1,18 @@
+package br.com.bank.bankapi.loadtest;
+
+// Operations issued by the virtual users, each reported separately
+enum Endpoint {
+    REGISTER("POST /auth/register"),
+    LOGIN("POST /auth/login"),
+    AUTHENTICATED("authenticated request");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.bank.bankapi.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram and error count for one endpoint, safe for concurrent recording by all virtual users
+final class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long latencyNanos, boolean success) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    // Drops everything recorded so far, used when the warmup phase ends
+    void reset() {
+        recorder.reset();
+        errors.reset();
+    }
+
+    static void printHeader(PrintStream out) {
+        out.printf("%-24s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    void print(PrintStream out, Duration elapsed) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        long count = histogram.getTotalCount();
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%-24s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint.label(),
+                count,
+                errors.sum(),
+                count / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(95)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.bank.bankapi.loadtest;
+
+import br.com.bank.bankapi.BankApiApplication;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+// Looks up every one of -Dcache.users users (default 10,000) by username, in a new random order each round, for
+// -Dcache.rounds rounds (default 5), against an embedded PostgreSQL: once with the JPQL query the lookup used to run
+// and once through the natural-id load. The first natural-id round fills the second-level cache; the later ones are
+// served from it. Reports throughput, mean latency and the statements each round sent to the database.
+public final class EntityCacheBenchmark {
+
+    private EntityCacheBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int users = Integer.getInteger("cache.users", 10_000);
+        int rounds = Integer.getInteger("cache.rounds", 5);
+
+        try (var database = EmbeddedPostgres.builder().start();
+             var application = SpringApplication.run(BankApiApplication.class,
+                     "--server.port=0",
+                     "--management.server.port=",
+                     "--spring.jpa.show-sql=false",
+                     "--spring.datasource.url=" + database.getJdbcUrl("postgres", "postgres"),
+                     "--spring.datasource.username=postgres",
+                     "--spring.datasource.password=postgres",
+                     "--api.entity-cache.users.max-size=" + users)) {
+
+            // Inserted with plain SQL, so the cache starts empty
+            var jdbc = application.getBean(JdbcTemplate.class);
+            jdbc.update("""
+                    INSERT INTO users (id, username, email, password, role, active, created_at, updated_at)
+                    SELECT md5(i::text)::uuid, 'user-' || i, 'user-' || i || '@load.test', 'x', 'ROLE_CLIENT', true, now(), now()
+                    FROM generate_series(1, ?) i
+                    """, users);
+            jdbc.execute("VACUUM ANALYZE users");
+
+            List<String> usernames = new ArrayList<>(users);
+            for (int i = 1; i <= users; i++) {
+                usernames.add("user-" + i);
+            }
+
+            var entityManagerFactory = application.getBean(EntityManagerFactory.class);
+            var sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+            var statistics = sessionFactory.getStatistics();
+            var transactionTemplate = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+            transactionTemplate.setReadOnly(true);
+            var entityManager = application.getBean(EntityManager.class);
+            var userRepository = application.getBean(UserRepository.class);
+
+            run("jpql query", usernames, rounds, statistics, username -> transactionTemplate.execute(status ->
+                    entityManager.createQuery("select u from User u where u.username = :username", User.class)
+                            .setParameter("username", username)
+                            .getSingleResult()));
+            // Entities loaded by the query went into the cache too; the natural-id run starts from an empty one
+            sessionFactory.getCache().evictAllRegions();
+            run("natural id", usernames, rounds, statistics, userRepository::findByUsername);
+        }
+    }
+
+    private static void run(String name, List<String> usernames, int rounds, Statistics statistics,
+                            Function<String, User> lookup) {
+        var random = new Random(42);
+        for (int round = 1; round <= rounds; round++) {
+            Collections.shuffle(usernames, random);
+            statistics.clear();
+            long start = System.nanoTime();
+            for (String username : usernames) {
+                if (lookup.apply(username) == null) {
+                    throw new IllegalStateException("User not found: " + username);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-10s round %d: %,8.0f lookups/s, mean %6.1f us, %,d statements, natural-id cache hits %,d%n",
+                    name, round, usernames.size() / (elapsed / 1e9), elapsed / 1e3 / usernames.size(),
+                    statistics.getPrepareStatementCount(), statistics.getNaturalIdCacheHitCount());
+        }
+    }
+}
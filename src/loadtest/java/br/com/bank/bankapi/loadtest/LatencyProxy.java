@@ -0,0 +1,82 @@
+package br.com.bank.bankapi.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// TCP proxy in front of the database that holds back every chunk the server sends by a fixed delay, so each round
+// trip between the application and PostgreSQL costs at least that much, as it would over a slow network or with an
+// overloaded database. Each direction of each connection is pumped by its own virtual thread.
+final class LatencyProxy implements AutoCloseable {
+
+    private final ServerSocket server;
+    private final String targetHost;
+    private final int targetPort;
+    private final long delayNanos;
+
+    LatencyProxy(String targetHost, int targetPort, Duration delay) throws IOException {
+        this.server = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.delayNanos = delay.toNanos();
+        Thread.ofVirtual().name("latency-proxy").start(this::acceptLoop);
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                Socket target = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                Thread.ofVirtual().start(() -> pump(client, target, 0));
+                Thread.ofVirtual().start(() -> pump(target, client, delayNanos));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("Latency proxy could not connect: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void pump(Socket from, Socket to, long delayNanos) {
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (delayNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delayNanos);
+                }
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // Either side closed the connection
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+}
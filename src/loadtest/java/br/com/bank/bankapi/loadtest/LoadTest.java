@@ -0,0 +1,94 @@
+package br.com.bank.bankapi.loadtest;
+
+import br.com.bank.bankapi.BankApiApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Workload driver for the authentication endpoints.
+// Without -Dload.base-url the application is started in-process, against the configured PostgreSQL
+// or, with -Dload.embedded=true, against an embedded PostgreSQL instance created for the run.
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        var settings = LoadTestSettings.fromSystemProperties();
+        // DevTools would restart the context on a second classloader and boot everything twice
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        EmbeddedPostgres database = null;
+        ConfigurableApplicationContext application = null;
+        try {
+            if (settings.baseUrl() == null) {
+                // Every virtual user logs in from the same address, so the per-client login limit is lifted
+                List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--management.server.port=",
+                        "--spring.jpa.show-sql=false", "--api.security.login-rate-limit.client.capacity=1000000"));
+                if (settings.embeddedDatabase()) {
+                    database = EmbeddedPostgres.builder().start();
+                    appArgs.add("--spring.datasource.url=" + database.getJdbcUrl("postgres", "postgres"));
+                    appArgs.add("--spring.datasource.username=postgres");
+                    appArgs.add("--spring.datasource.password=postgres");
+                }
+                application = SpringApplication.run(BankApiApplication.class, appArgs.toArray(String[]::new));
+                String port = application.getEnvironment().getProperty("local.server.port");
+                settings = settings.withBaseUrl("http://localhost:" + port);
+            }
+            run(settings);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    static void run(LoadTestSettings settings) throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+
+        var client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        long start = System.nanoTime();
+        long measureStart = start + settings.warmup().toNanos();
+        long deadline = measureStart + settings.duration().toNanos();
+
+        System.out.printf("Load test against %s: %d virtual users, warmup %ds, duration %ds, mix %s%n",
+                settings.baseUrl(), settings.virtualUsers(), settings.warmup().toSeconds(),
+                settings.duration().toSeconds(), settings.mix());
+
+        List<Thread> users = new ArrayList<>();
+        for (int i = 0; i < settings.virtualUsers(); i++) {
+            var user = new VirtualUser(client, settings, stats, "lt-" + runId + "-" + i, deadline);
+            var thread = new Thread(user, "virtual-user-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            users.add(thread);
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, measureStart - System.nanoTime()));
+        stats.values().forEach(EndpointStats::reset);
+
+        for (Thread user : users) {
+            user.join(TimeUnit.NANOSECONDS.toMillis(Math.max(1, deadline - System.nanoTime())) + 30_000);
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - measureStart);
+
+        EndpointStats.printHeader(System.out);
+        stats.values().forEach(endpointStats -> endpointStats.print(System.out, elapsed));
+    }
+}
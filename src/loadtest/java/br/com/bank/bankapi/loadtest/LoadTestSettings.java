@@ -0,0 +1,68 @@
+package br.com.bank.bankapi.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Workload configuration, read from -Dload.* system properties
+record LoadTestSettings(String baseUrl,
+                        boolean embeddedDatabase,
+                        int virtualUsers,
+                        Duration warmup,
+                        Duration duration,
+                        double ratePerUser,
+                        String authenticatedPath,
+                        Map<Endpoint, Integer> mix) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("load.base-url"),
+                Boolean.getBoolean("load.embedded"),
+                Integer.getInteger("load.users", 50),
+                Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 10)),
+                Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 60)),
+                Double.parseDouble(System.getProperty("load.rate-per-user", "0")),
+                // A client can only read its own accounts, and a freshly registered one has none: the default looks up
+                // the balance of an account that does not exist, which goes through token verification, the principal
+                // and the account lookup before answering 404
+                System.getProperty("load.authenticated-path", "/accounts/00000000-0000-0000-0000-000000000000/balance"),
+                parseMix(System.getProperty("load.mix", "register=5,login=15,authenticated=80")));
+    }
+
+    LoadTestSettings withBaseUrl(String url) {
+        return new LoadTestSettings(url, embeddedDatabase, virtualUsers, warmup, duration, ratePerUser, authenticatedPath, mix);
+    }
+
+    // Parses a weighted mix such as "register=5,login=15,authenticated=80"
+    static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix must contain at least one positive weight");
+        }
+        return mix;
+    }
+
+    // Picks the next operation according to the configured weights
+    Endpoint nextEndpoint() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (var entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
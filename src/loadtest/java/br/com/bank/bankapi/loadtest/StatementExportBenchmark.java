@@ -0,0 +1,145 @@
+package br.com.bank.bankapi.loadtest;
+
+import br.com.bank.bankapi.BankApiApplication;
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Exports a statement of -Dstatement.rows postings (default 10,000,000) over HTTP, against an embedded PostgreSQL,
+// and reports time to first byte, total time, throughput and the peak heap of the JVM running both the API and the
+// client. Run with a small heap (e.g. -Xmx256m) to show the export does not grow with the statement.
+// -Dstatement.formats (default CSV,NDJSON) and -Dstatement.gzip (default false) choose the variants measured.
+public final class StatementExportBenchmark {
+
+    private static final int CHUNK = 1_000_000;
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private StatementExportBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        long rows = Long.getLong("statement.rows", 10_000_000);
+        List<String> formats = List.of(System.getProperty("statement.formats", "CSV,NDJSON").split(","));
+        boolean gzip = Boolean.getBoolean("statement.gzip");
+
+        try (var database = EmbeddedPostgres.builder().start();
+             var application = SpringApplication.run(BankApiApplication.class,
+                     "--server.port=0",
+                     "--management.server.port=",
+                     "--spring.jpa.show-sql=false",
+                     "--spring.datasource.url=" + database.getJdbcUrl("postgres", "postgres"),
+                     "--spring.datasource.username=postgres",
+                     "--spring.datasource.password=postgres")) {
+
+            var jdbc = application.getBean(JdbcTemplate.class);
+            var customerId = seed(jdbc, rows);
+            var admin = new User("statement-admin", "admin@load.test", "x", Role.ROLE_ADMIN);
+            jdbc.update("INSERT INTO users (id, username, email, password, role) VALUES (?, ?, ?, 'x', 'ROLE_ADMIN')",
+                    UUID.randomUUID(), admin.getUsername(), admin.getEmail());
+            String token = application.getBean(TokenService.class).generateToken(admin);
+            String base = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+
+            var client = HttpClient.newHttpClient();
+            for (String format : formats) {
+                var request = HttpRequest.newBuilder(URI.create(base + "/customers/" + customerId
+                                + "/statement?from=" + START + "&to=" + START.plusSeconds(rows + 1) + "&format=" + format))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Accept-Encoding", gzip ? "gzip" : "identity")
+                        .build();
+                export(client, request, format, gzip);
+            }
+        }
+    }
+
+    // One customer account with a posting per second from START, all against the same internal account
+    private static UUID seed(JdbcTemplate jdbc, long rows) {
+        long start = System.nanoTime();
+        var userId = UUID.randomUUID();
+        var customerId = UUID.randomUUID();
+        var accountId = UUID.randomUUID();
+        var cashId = UUID.randomUUID();
+        jdbc.update("INSERT INTO users (id, username, email, password, role) VALUES (?, 'statement-owner', 'owner@load.test', 'x', 'ROLE_CLIENT')",
+                userId);
+        jdbc.update("INSERT INTO customers (id, full_name, document, status, user_id) VALUES (?, 'Statement Owner', '52998224725', 'ACTIVE', ?)",
+                customerId, userId);
+        jdbc.update("INSERT INTO accounts (id, customer_id, type) VALUES (?, ?, 'CUSTOMER')", accountId, customerId);
+        jdbc.update("INSERT INTO accounts (id, type) VALUES (?, 'INTERNAL')", cashId);
+
+        jdbc.execute("SET synchronous_commit = off");
+        for (long first = 1; first <= rows; first += CHUNK) {
+            long last = Math.min(first + CHUNK - 1, rows);
+            jdbc.update("""
+                    INSERT INTO transfers (id, debit_account_id, credit_account_id, amount, reference, created_at)
+                    SELECT md5(i::text)::uuid, ?, ?, 1 + i % 1000, 'transfer ' || i, ?::timestamptz + i * interval '1 second'
+                    FROM generate_series(?::bigint, ?::bigint) i
+                    """, cashId, accountId, START.toString(), first, last);
+            jdbc.update("""
+                    INSERT INTO postings (id, transfer_id, account_id, amount, created_at)
+                    SELECT i, md5(i::text)::uuid, ?, 1 + i % 1000, ?::timestamptz + i * interval '1 second'
+                    FROM generate_series(?::bigint, ?::bigint) i
+                    """, accountId, START.toString(), first, last);
+            System.out.printf("Seeded %d/%d postings%n", last, rows);
+        }
+        jdbc.execute("SELECT setval('postings_id_seq', " + rows + ")");
+        jdbc.execute("VACUUM ANALYZE postings");
+        jdbc.execute("VACUUM ANALYZE transfers");
+        System.out.printf("Seeded in %.1fs%n", (System.nanoTime() - start) / 1e9);
+        return customerId;
+    }
+
+    private static void export(HttpClient client, HttpRequest request, String format, boolean gzip) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long heapBefore = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        long start = System.nanoTime();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long firstByte = 0;
+        long bytes = 0;
+        long lines = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream body = response.body()) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (firstByte == 0) {
+                    firstByte = System.nanoTime();
+                }
+                bytes += read;
+                if (!gzip) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                }
+            }
+        }
+        long end = System.nanoTime();
+        // Sum of the per-pool peaks: an upper bound of the heap in use at any moment of the export
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        double seconds = (end - start) / 1e9;
+        System.out.printf("format=%s gzip=%s status=%d lines=%s MB=%d ttfbMs=%.1f elapsed=%.1fs MB/s=%.1f heapBeforeMB=%d peakHeapMB=%d maxHeapMB=%d%n",
+                format, gzip, response.statusCode(), gzip ? "n/a" : lines, bytes >> 20, (firstByte - start) / 1e6,
+                seconds, (bytes >> 20) / seconds, heapBefore >> 20, peakHeap >> 20,
+                Runtime.getRuntime().maxMemory() >> 20);
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.bank.bankapi.loadtest;
+
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Compares insert throughput and primary-key index size for random (v4) and time-ordered (v7) UUIDs.
+// -Duuid.rows sets the table size (default 5,000,000). Runs against an embedded PostgreSQL, or against
+// -Duuid.jdbc-url (with -Duuid.user / -Duuid.password) when given.
+public final class UuidIndexBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private UuidIndexBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        long rows = Long.getLong("uuid.rows", 5_000_000);
+        String url = System.getProperty("uuid.jdbc-url");
+
+        EmbeddedPostgres database = null;
+        try {
+            Connection connection;
+            if (url == null) {
+                database = EmbeddedPostgres.builder().start();
+                connection = database.getPostgresDatabase().getConnection();
+            } else {
+                connection = java.sql.DriverManager.getConnection(url, System.getProperty("uuid.user"), System.getProperty("uuid.password"));
+            }
+            try (connection) {
+                run(connection, "uuid_v4", rows, UUID::randomUUID);
+                run(connection, "uuid_v7", rows, TimeOrderedUuidGenerator::next);
+            }
+        } finally {
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    private static void run(Connection connection, String table, long rows, Supplier<UUID> ids) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, payload VARCHAR(64) NOT NULL)");
+        }
+
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (var insert = connection.prepareStatement("INSERT INTO " + table + " (id, payload) VALUES (?, ?)")) {
+            for (long i = 0; i < rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "row " + i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        connection.setAutoCommit(true);
+
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery(
+                     "SELECT pg_relation_size('" + table + "_pkey'), pg_relation_size('" + table + "')")) {
+            result.next();
+            System.out.printf("%s: %d rows in %.1fs (%.0f rows/s), pkey index %d MB, table %d MB%n",
+                    table, rows, seconds, rows / seconds, result.getLong(1) >> 20, result.getLong(2) >> 20);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package br.com.bank.bankapi.loadtest;
+
+import br.com.bank.bankapi.BankApiApplication;
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.SpringApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs the same workload with platform and with virtual request threads while every database round trip is slowed
+// down by -Dvt.db-latency (default 20ms) through a TCP proxy. -Dvt.slow-clients (default 400) clients keep calling
+// the customer search, which queries the database on every call, and -Dvt.fast-clients (default 20) call the health
+// endpoint, which does not touch the database. With platform threads the slow requests take every Tomcat thread and
+// the fast ones queue behind them; with virtual threads the slow ones wait for a connection permit and the fast ones
+// go through. Each mode runs -Dvt.warmup (default 5s) and is then measured for -Dvt.duration (default 20s). Requests
+// shed by the concurrency limit are counted apart from errors, and their client waits out the Retry-After.
+public final class VirtualThreadBenchmark {
+
+    private VirtualThreadBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Duration latency = Duration.parse("PT" + System.getProperty("vt.db-latency", "0.020") + "S");
+        int slowClients = Integer.getInteger("vt.slow-clients", 400);
+        int fastClients = Integer.getInteger("vt.fast-clients", 20);
+        Duration warmup = Duration.ofSeconds(Long.getLong("vt.warmup", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("vt.duration", 20));
+
+        try (var database = EmbeddedPostgres.builder().start();
+             var proxy = new LatencyProxy("localhost", database.getPort(), latency)) {
+            // Schema and data go in directly; only the application pays the latency
+            Flyway.configure().dataSource(database.getPostgresDatabase()).load().migrate();
+            seed(new JdbcTemplate(database.getPostgresDatabase()));
+
+            System.out.printf("db latency %dms per round trip, %d slow clients, %d fast clients, %ds measured%n",
+                    latency.toMillis(), slowClients, fastClients, duration.toSeconds());
+            for (boolean virtual : new boolean[]{false, true}) {
+                run(virtual, proxy.port(), slowClients, fastClients, warmup, duration);
+            }
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO users (id, username, email, password, role) VALUES (?, 'vt-admin', 'admin@load.test', 'x', 'ROLE_ADMIN')",
+                UUID.randomUUID());
+        jdbc.update("""
+                INSERT INTO users (id, username, email, password, role)
+                SELECT md5(i::text)::uuid, 'vt-user-' || i, 'vt-user-' || i || '@load.test', 'x', 'ROLE_CLIENT'
+                FROM generate_series(1, 1000) i
+                """);
+        jdbc.update("""
+                INSERT INTO customers (id, full_name, document, status, user_id)
+                SELECT md5('c' || i)::uuid, 'Customer ' || i, lpad(i::text, 11, '0'), 'ACTIVE', md5(i::text)::uuid
+                FROM generate_series(1, 1000) i
+                """);
+    }
+
+    private static void run(boolean virtual, int databasePort, int slowClients, int fastClients,
+                            Duration warmup, Duration duration) throws Exception {
+        var threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        try (var application = SpringApplication.run(BankApiApplication.class,
+                "--server.port=0",
+                // Health is probed on the application port, next to the requests it competes with
+                "--management.server.port=",
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--management.health.db.enabled=false",
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + databasePort + "/postgres",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres")) {
+
+            var admin = new User("vt-admin", "admin@load.test", "x", Role.ROLE_ADMIN);
+            String token = application.getBean(TokenService.class).generateToken(admin);
+            String base = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            var search = HttpRequest.newBuilder(URI.create(base + "/customers?size=20&status=ACTIVE"))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+            var health = HttpRequest.newBuilder(URI.create(base + "/actuator/health")).build();
+
+            var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            var slow = new Load(search);
+            var fast = new Load(health);
+            var running = new AtomicBoolean(true);
+            List<Thread> clients = new ArrayList<>();
+            for (int i = 0; i < slowClients; i++) {
+                clients.add(Thread.ofVirtual().start(() -> slow.loop(client, running)));
+            }
+            for (int i = 0; i < fastClients; i++) {
+                clients.add(Thread.ofVirtual().start(() -> fast.loop(client, running)));
+            }
+
+            TimeUnit.MILLISECONDS.sleep(warmup.toMillis());
+            slow.reset();
+            fast.reset();
+            TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+            var slowResult = slow.recorder.getIntervalHistogram();
+            var fastResult = fast.recorder.getIntervalHistogram();
+            running.set(false);
+            for (Thread thread : clients) {
+                thread.join();
+            }
+
+            String mode = virtual ? "virtual" : "platform";
+            print(mode + " search", slowResult, slow, duration);
+            print(mode + " health", fastResult, fast, duration);
+            var meters = application.getBean(MeterRegistry.class);
+            System.out.printf("%-16s api concurrency limit %.0f%n", mode,
+                    meters.get("http.server.concurrency.limit").tag("traffic", "api").gauge().value());
+            System.out.printf("%-16s peak live platform threads %d%n", mode, threads.getPeakThreadCount());
+        }
+    }
+
+    // Latencies are of the requests served; shed ones are only counted
+    private static void print(String label, Histogram histogram, Load load, Duration duration) {
+        System.out.printf("%-16s %8.1f req/s  p50 %8.1fms  p99 %8.1fms  max %8.1fms  shed %d  errors %d%n",
+                label, histogram.getTotalCount() / (double) duration.toSeconds(),
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMaxValue() / 1000.0, load.shed.sum(), load.errors.sum());
+    }
+
+    // One kind of request sent in a closed loop by every client of that kind
+    private static final class Load {
+        final HttpRequest request;
+        final Recorder recorder = new Recorder(TimeUnit.MINUTES.toMicros(10), 3);
+        final LongAdder shed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Load(HttpRequest request) {
+            this.request = request;
+        }
+
+        void loop(HttpClient client, AtomicBoolean running) {
+            while (running.get()) {
+                long start = System.nanoTime();
+                HttpResponse<Void> response;
+                try {
+                    response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (Exception e) {
+                    errors.increment();
+                    continue;
+                }
+                if (response.statusCode() == 503 && response.headers().firstValue("Retry-After").isPresent()) {
+                    shed.increment();
+                    backOff(response.headers().firstValue("Retry-After").get());
+                    continue;
+                }
+                recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                        TimeUnit.MINUTES.toMicros(10)));
+                if (response.statusCode() != 200) {
+                    errors.increment();
+                }
+            }
+        }
+
+        private static void backOff(String retryAfter) {
+            try {
+                TimeUnit.SECONDS.sleep(Long.parseLong(retryAfter));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void reset() {
+            recorder.reset();
+            shed.reset();
+            errors.reset();
+        }
+    }
+}
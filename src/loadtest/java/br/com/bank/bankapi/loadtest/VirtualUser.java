@@ -0,0 +1,122 @@
+package br.com.bank.bankapi.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// One simulated client: registers its own account, logs in, then issues the configured mix until the deadline
+final class VirtualUser implements Runnable {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient client;
+    private final LoadTestSettings settings;
+    private final Map<Endpoint, EndpointStats> stats;
+    private final String username;
+    private final long deadlineNanos;
+    private int registrations;
+    private String token;
+
+    VirtualUser(HttpClient client, LoadTestSettings settings, Map<Endpoint, EndpointStats> stats,
+                String username, long deadlineNanos) {
+        this.client = client;
+        this.settings = settings;
+        this.stats = stats;
+        this.username = username;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+        try {
+            register(username);
+            login();
+
+            // With a target rate, latency is measured from the intended start time to avoid coordinated omission
+            long intervalNanos = settings.ratePerUser() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / settings.ratePerUser()) : 0;
+            long intendedStart = System.nanoTime();
+
+            while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+                if (intervalNanos > 0) {
+                    long wait = intendedStart - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                } else {
+                    intendedStart = System.nanoTime();
+                }
+
+                var endpoint = settings.nextEndpoint();
+                int status = execute(endpoint);
+                stats.get(endpoint).record(System.nanoTime() - intendedStart, succeeded(endpoint, status));
+
+                intendedStart += intervalNanos;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Virtual user " + username + " stopped: " + e.getMessage());
+        }
+    }
+
+    private int execute(Endpoint endpoint) throws IOException, InterruptedException {
+        return switch (endpoint) {
+            case REGISTER -> register(username + "-" + (++registrations));
+            case LOGIN -> login();
+            case AUTHENTICATED -> authenticated();
+        };
+    }
+
+    private int register(String name) throws IOException, InterruptedException {
+        String body = """
+                {"username":"%s","email":"%s@load.test","password":"%s","role":"ROLE_CLIENT"}"""
+                .formatted(name, name, PASSWORD);
+        return post("/auth/register", body).statusCode();
+    }
+
+    private int login() throws IOException, InterruptedException {
+        String body = """
+                {"username":"%s","password":"%s"}""".formatted(username, PASSWORD);
+        var response = post("/auth/login", body);
+        var matcher = TOKEN.matcher(response.body());
+        if (matcher.find()) {
+            token = matcher.group(1);
+        }
+        return response.statusCode();
+    }
+
+    private int authenticated() throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(settings.baseUrl() + settings.authenticatedPath()))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 401 || status == 403) {
+            // Token expired during a long run, get a new one for the next iteration
+            login();
+        }
+        return status;
+    }
+
+    // An authenticated request has done its work once it got past authentication, even when the resource is missing
+    private static boolean succeeded(Endpoint endpoint, int status) {
+        if (endpoint == Endpoint.AUTHENTICATED) {
+            return status >= 200 && status < 500 && status != 401 && status != 403;
+        }
+        return status >= 200 && status < 300;
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(settings.baseUrl() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
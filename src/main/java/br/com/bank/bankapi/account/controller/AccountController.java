@@ -0,0 +1,58 @@
+package br.com.bank.bankapi.account.controller;
+
+import br.com.bank.bankapi.account.dto.AccountDTO;
+import br.com.bank.bankapi.account.dto.BalanceDTO;
+import br.com.bank.bankapi.account.dto.CreateAccountDTO;
+import br.com.bank.bankapi.account.service.AccountService;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/accounts")
+public class AccountController {
+
+    private final AccountService accountService;
+
+    public AccountController(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    // Opens an account for a customer
+    @PostMapping
+    public ResponseEntity<AccountDTO> open(@RequestBody @Valid CreateAccountDTO data) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(accountService.openCustomerAccount(data));
+    }
+
+    // Opens an internal account of the bank
+    @PostMapping("/internal")
+    public ResponseEntity<AccountDTO> openInternal() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(accountService.openInternalAccount());
+    }
+
+    // Returns the account with its committed balance
+    @GetMapping("/{id}")
+    public ResponseEntity<AccountDTO> find(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(accountService.find(id, principal));
+    }
+
+    // Returns the current balance, or the balance as of a past instant
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceDTO> balance(@PathVariable UUID id,
+                                              @RequestParam(required = false) Instant asOf,
+                                              @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(accountService.balance(id, asOf, principal));
+    }
+}
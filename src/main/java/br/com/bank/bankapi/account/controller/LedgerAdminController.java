@@ -0,0 +1,40 @@
+package br.com.bank.bankapi.account.controller;
+
+import br.com.bank.bankapi.account.dto.LedgerConsistencyReportDTO;
+import br.com.bank.bankapi.account.dto.LedgerRebuildResultDTO;
+import br.com.bank.bankapi.account.service.LedgerMaintenanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/ledger")
+public class LedgerAdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerAdminController.class);
+
+    private final LedgerMaintenanceService maintenanceService;
+
+    public LedgerAdminController(LedgerMaintenanceService maintenanceService) {
+        this.maintenanceService = maintenanceService;
+    }
+
+    // Recomputes every balance and snapshot from the postings
+    @PostMapping("/rebuild")
+    public ResponseEntity<LedgerRebuildResultDTO> rebuild() {
+        log.info("Ledger rebuild requested");
+
+        return ResponseEntity.ok(maintenanceService.rebuild());
+    }
+
+    // Checks balances, snapshots and transfers against the postings
+    @PostMapping("/consistency-check")
+    public ResponseEntity<LedgerConsistencyReportDTO> check() {
+        log.info("Ledger consistency check requested");
+
+        return ResponseEntity.ok(maintenanceService.check());
+    }
+}
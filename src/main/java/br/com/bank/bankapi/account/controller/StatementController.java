@@ -0,0 +1,106 @@
+package br.com.bank.bankapi.account.controller;
+
+import br.com.bank.bankapi.account.enums.StatementFormat;
+import br.com.bank.bankapi.account.service.StatementService;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/customers/{customerId}/statement")
+public class StatementController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final StatementService statementService;
+
+    public StatementController(StatementService statementService) {
+        this.statementService = statementService;
+    }
+
+    // Streams the postings of every account of the customer in [from, to) as CSV or NDJSON, gzipped when the client
+    // accepts it. The body is written on an async thread while the rows are read, without building it in memory
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable UUID customerId,
+                                                        @RequestParam Instant from,
+                                                        @RequestParam(required = false) Instant to,
+                                                        @RequestParam(defaultValue = "CSV") StatementFormat format,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                        @AuthenticationPrincipal UserPrincipal principal) {
+        Instant until = to != null ? to : Instant.now();
+        var accountIds = statementService.accounts(customerId, from, until, principal);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                statementService.export(accountIds, from, until, format, out);
+                return;
+            }
+            // syncFlush lets the first flush reach the client instead of waiting for the deflater to fill a block
+            try (var compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true)) {
+                statementService.export(accountIds, from, until, format, compressed);
+            }
+        };
+
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + customerId + "." + format.getExtension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // An explicit gzip entry decides by its q-value (gzip;q=0 refuses it); without one, a wildcard decides
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].strip().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return quality(parts) > 0;
+            }
+            if (coding.equals("*")) {
+                wildcard = quality(parts) > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    // The q parameter of a coding, 1 when absent; an unreadable value counts as refused
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].strip();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).strip());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.bank.bankapi.account.controller;
+
+import br.com.bank.bankapi.account.dto.TransferDTO;
+import br.com.bank.bankapi.account.dto.TransferResultDTO;
+import br.com.bank.bankapi.account.service.AccountService;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/transfers")
+public class TransferController {
+
+    private final AccountService accountService;
+
+    public TransferController(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    // Moves money between two accounts, answering once the postings are committed
+    @PostMapping
+    public ResponseEntity<TransferResultDTO> transfer(@RequestBody @Valid TransferDTO data,
+                                                      @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(accountService.transfer(data, principal));
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.bank.bankapi.account.dto;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Balance in minor units (cents)
+public record AccountDTO(UUID id, UUID customerId, AccountType type, long balance, Instant createdAt) {
+}
@@ -0,0 +1,8 @@
+package br.com.bank.bankapi.account.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Balance in minor units (cents) including every posting up to asOf
+public record BalanceDTO(UUID accountId, long balance, Instant asOf) {
+}
@@ -0,0 +1,8 @@
+package br.com.bank.bankapi.account.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record CreateAccountDTO(@NotNull UUID customerId) {
+}
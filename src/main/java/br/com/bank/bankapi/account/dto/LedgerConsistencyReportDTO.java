@@ -0,0 +1,16 @@
+package br.com.bank.bankapi.account.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Outcome of a consistency check; each list holds at most the first ids found
+public record LedgerConsistencyReportDTO(long accountsChecked,
+                                         List<UUID> balanceMismatches,
+                                         List<UUID> snapshotMismatches,
+                                         List<UUID> unbalancedTransfers,
+                                         long elapsedMs) {
+
+    public boolean consistent() {
+        return balanceMismatches.isEmpty() && snapshotMismatches.isEmpty() && unbalancedTransfers.isEmpty();
+    }
+}
@@ -0,0 +1,4 @@
+package br.com.bank.bankapi.account.dto;
+
+public record LedgerRebuildResultDTO(long accounts, long correctedBalances, long snapshots, long elapsedMs) {
+}
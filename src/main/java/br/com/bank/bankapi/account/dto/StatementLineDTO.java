@@ -0,0 +1,15 @@
+package br.com.bank.bankapi.account.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One posting of a statement; amount and the running balance after it are in minor units (cents)
+public record StatementLineDTO(UUID accountId,
+                               long postingId,
+                               Instant postedAt,
+                               UUID transferId,
+                               UUID counterpartyAccountId,
+                               long amount,
+                               long balance,
+                               String reference) {
+}
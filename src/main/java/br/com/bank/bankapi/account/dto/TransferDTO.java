@@ -0,0 +1,14 @@
+package br.com.bank.bankapi.account.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+// Amount in minor units (cents)
+public record TransferDTO(@NotNull UUID fromAccountId,
+                          @NotNull UUID toAccountId,
+                          @Positive long amount,
+                          @Size(max = 140) String reference) {
+}
@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.account.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record TransferResultDTO(UUID id, UUID fromAccountId, UUID toAccountId, long amount, String reference, Instant createdAt) {
+}
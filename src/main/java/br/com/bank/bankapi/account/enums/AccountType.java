@@ -0,0 +1,6 @@
+package br.com.bank.bankapi.account.enums;
+
+public enum AccountType {
+    CUSTOMER,
+    INTERNAL
+}
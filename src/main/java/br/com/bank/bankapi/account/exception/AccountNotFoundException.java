@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.account.exception;
+
+public class AccountNotFoundException extends RuntimeException {
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+}
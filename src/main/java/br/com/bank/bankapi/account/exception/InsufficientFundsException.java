@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.account.exception;
+
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(String message) {
+        super(message);
+    }
+}
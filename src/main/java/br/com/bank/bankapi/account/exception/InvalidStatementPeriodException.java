@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.account.exception;
+
+public class InvalidStatementPeriodException extends RuntimeException {
+    public InvalidStatementPeriodException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.account.exception;
+
+public class InvalidTransferException extends RuntimeException {
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.bank.bankapi.account.exception;
+
+public class LedgerUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LedgerUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public LedgerUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
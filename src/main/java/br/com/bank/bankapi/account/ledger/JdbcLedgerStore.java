@@ -0,0 +1,265 @@
+package br.com.bank.bankapi.account.ledger;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+import br.com.bank.bankapi.account.exception.InsufficientFundsException;
+import org.postgresql.util.PSQLException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Writes ledger batches with plain JDBC batches: with reWriteBatchedInserts each batch becomes a few multi-row
+// statements, and the whole group shares a single commit. The balance projection and its snapshots are maintained in
+// the same transaction, so they can never disagree with the postings. Writers of every instance take the same
+// transaction-level advisory lock before allocating posting ids, so ids and posting times follow commit order and
+// snapshots, as-of reads and statements can bound their scans by posting id
+@Repository
+public class JdbcLedgerStore implements LedgerStore {
+
+    private static final String SELECT_ACCOUNT = """
+            SELECT a.type, a.balance, c.user_id
+            FROM accounts a
+            LEFT JOIN customers c ON c.id = a.customer_id
+            WHERE a.id = ?
+            """;
+
+    private static final String INSERT_TRANSFER = """
+            INSERT INTO transfers (id, debit_account_id, credit_account_id, amount, reference, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    // Held until commit; the key is shared by every instance writing to this ledger
+    private static final String LOCK_LEDGER = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final long LEDGER_LOCK_KEY = 0x6c6564676572L;
+
+    // Reads the latest posting through the primary key, so a clock running behind cannot post before it
+    private static final String LAST_POSTED_AT = "SELECT created_at FROM postings ORDER BY id DESC LIMIT 1";
+
+    // Committed balances of the customer accounts the batch debits, locked until commit
+    private static final String LOCK_DEBITED_BALANCES =
+            "SELECT id, balance FROM accounts WHERE id = ANY (?) ORDER BY id FOR UPDATE";
+
+    private static final String NEXT_POSTING_IDS =
+            "SELECT nextval('postings_id_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_POSTING =
+            "INSERT INTO postings (id, transfer_id, account_id, amount, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_BALANCE = """
+            UPDATE accounts
+            SET balance = balance + ?,
+                last_posting_id = GREATEST(last_posting_id, ?),
+                postings_since_snapshot = postings_since_snapshot + ?,
+                updated_at = ?
+            WHERE id = ?
+            """;
+
+    // Snapshots every account of the batch that received snapshot-interval postings since its last snapshot
+    private static final String TAKE_DUE_SNAPSHOTS = """
+            WITH due AS (
+                UPDATE accounts SET postings_since_snapshot = 0
+                WHERE id = ANY (?) AND postings_since_snapshot >= ?
+                RETURNING id, last_posting_id, balance
+            )
+            INSERT INTO balance_snapshots (account_id, posting_id, balance, posted_at)
+            SELECT id, last_posting_id, balance, ? FROM due
+            """;
+
+    // Refuses a negative balance on customer accounts
+    private static final String BALANCE_CONSTRAINT = "chk_accounts_balance";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotInterval;
+
+    public JdbcLedgerStore(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${api.ledger.snapshots.interval:100}") int snapshotInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public Optional<LedgerAccount> loadAccount(UUID accountId) {
+        return jdbcTemplate.query(SELECT_ACCOUNT, (rs, rowNum) -> new LedgerAccount(
+                        accountId,
+                        AccountType.valueOf(rs.getString(1)),
+                        rs.getObject(3, UUID.class),
+                        rs.getLong(2)), accountId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Instant write(List<PendingTransfer> batch, Instant postedAt) {
+        try {
+            return transactionTemplate.execute(status -> writeBatch(batch, postedAt));
+        } catch (DataIntegrityViolationException e) {
+            if (violatesBalanceCheck(e)) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            throw e;
+        }
+    }
+
+    private Instant writeBatch(List<PendingTransfer> batch, Instant postedAt) {
+        jdbcTemplate.query(LOCK_LEDGER, rs -> null, LEDGER_LOCK_KEY);
+        Instant lastPostedAt = jdbcTemplate.query(LAST_POSTED_AT, rs -> rs.next() ? rs.getTimestamp(1).toInstant() : null);
+        Instant writtenAt = lastPostedAt != null && lastPostedAt.isAfter(postedAt) ? lastPostedAt : postedAt;
+        Timestamp timestamp = Timestamp.from(writtenAt);
+        checkRunningBalances(batch);
+
+        // Two postings per transfer: even indexes debit, odd indexes credit, ids in the same order
+        long[] postingIds = jdbcTemplate.queryForList(NEXT_POSTING_IDS, Long.class, batch.size() * 2).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+
+        // Net change per account, in id order so concurrent writers always lock account rows in the same order
+        Map<UUID, AccountChange> changes = new TreeMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            var transfer = batch.get(i);
+            changes.computeIfAbsent(transfer.debit().id(), id -> new AccountChange())
+                    .add(-transfer.amount(), postingIds[2 * i]);
+            changes.computeIfAbsent(transfer.credit().id(), id -> new AccountChange())
+                    .add(transfer.amount(), postingIds[2 * i + 1]);
+        }
+        var updates = new ArrayList<>(changes.entrySet());
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSFER, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                var transfer = batch.get(i);
+                ps.setObject(1, transfer.id());
+                ps.setObject(2, transfer.debit().id());
+                ps.setObject(3, transfer.credit().id());
+                ps.setLong(4, transfer.amount());
+                ps.setString(5, transfer.reference());
+                ps.setTimestamp(6, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_POSTING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                var transfer = batch.get(i >> 1);
+                boolean debit = (i & 1) == 0;
+                ps.setLong(1, postingIds[i]);
+                ps.setObject(2, transfer.id());
+                ps.setObject(3, debit ? transfer.debit().id() : transfer.credit().id());
+                ps.setLong(4, debit ? -transfer.amount() : transfer.amount());
+                ps.setTimestamp(5, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size() * 2;
+            }
+        });
+
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                var update = updates.get(i);
+                ps.setLong(1, update.getValue().delta);
+                ps.setLong(2, update.getValue().lastPostingId);
+                ps.setInt(3, update.getValue().postings);
+                ps.setTimestamp(4, timestamp);
+                ps.setObject(5, update.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+
+        UUID[] accountIds = changes.keySet().toArray(UUID[]::new);
+        jdbcTemplate.update(connection -> {
+            var ps = connection.prepareStatement(TAKE_DUE_SNAPSHOTS);
+            ps.setArray(1, connection.createArrayOf("uuid", accountIds));
+            ps.setInt(2, snapshotInterval);
+            ps.setTimestamp(3, timestamp);
+            return ps;
+        });
+        return writtenAt;
+    }
+
+    // The balance constraint only sees each account's balance at the end of the batch, after its net change. A cached
+    // balance gone stale could still let a debit through that is only covered by a credit later in the same batch, so
+    // the balance of every debited customer account is followed transfer by transfer, in posting order
+    private void checkRunningBalances(List<PendingTransfer> batch) {
+        UUID[] debited = batch.stream()
+                .map(PendingTransfer::debit)
+                .filter(account -> account.type() == AccountType.CUSTOMER)
+                .map(LedgerAccount::id)
+                .distinct()
+                .toArray(UUID[]::new);
+        if (debited.length == 0) {
+            return;
+        }
+        Map<UUID, Long> balances = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(LOCK_DEBITED_BALANCES);
+            ps.setArray(1, connection.createArrayOf("uuid", debited));
+            return ps;
+        }, (RowCallbackHandler) rs -> balances.put(rs.getObject(1, UUID.class), rs.getLong(2)));
+        for (PendingTransfer transfer : batch) {
+            Long debitBalance = balances.computeIfPresent(transfer.debit().id(), (id, balance) -> balance - transfer.amount());
+            if (debitBalance != null && debitBalance < 0) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            balances.computeIfPresent(transfer.credit().id(), (id, balance) -> balance + transfer.amount());
+        }
+    }
+
+    private static boolean violatesBalanceCheck(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psql && psql.getServerErrorMessage() != null
+                    && BALANCE_CONSTRAINT.equals(psql.getServerErrorMessage().getConstraint())) {
+                return true;
+            }
+            // A failed JDBC batch carries the statement's error as its next exception
+            if (cause instanceof SQLException sql && sql.getNextException() != null
+                    && violatesBalanceCheck(sql.getNextException())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // What one batch does to one account
+    private static final class AccountChange {
+        private long delta;
+        private long lastPostingId;
+        private int postings;
+
+        void add(long amount, long postingId) {
+            delta += amount;
+            lastPostingId = Math.max(lastPostingId, postingId);
+            postings++;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.bank.bankapi.account.ledger;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+
+import java.util.UUID;
+
+// In-memory state of an account used by the ledger engine. The balance includes transfers that are queued but not yet
+// committed, so checks made against it already account for every accepted debit. It is only changed while the
+// account's lock stripe is held; reads without the lock see the latest written value but may be momentarily stale.
+public final class LedgerAccount {
+
+    private final UUID id;
+    private final AccountType type;
+    private final UUID ownerUserId;
+    private volatile long balance;
+
+    public LedgerAccount(UUID id, AccountType type, UUID ownerUserId, long balance) {
+        this.id = id;
+        this.type = type;
+        this.ownerUserId = ownerUserId;
+        this.balance = balance;
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public AccountType type() {
+        return type;
+    }
+
+    // User of the customer owning the account, or null for internal accounts
+    public UUID ownerUserId() {
+        return ownerUserId;
+    }
+
+    public long balance() {
+        return balance;
+    }
+
+    boolean canOverdraw() {
+        return type == AccountType.INTERNAL;
+    }
+
+    void balance(long balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,175 @@
+package br.com.bank.bankapi.account.ledger;
+
+import br.com.bank.bankapi.account.exception.AccountNotFoundException;
+import br.com.bank.bankapi.account.exception.InsufficientFundsException;
+import br.com.bank.bankapi.account.exception.InvalidTransferException;
+import br.com.bank.bankapi.account.exception.LedgerUnavailableException;
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Transfer engine. Balances are checked and updated in memory under striped locks, so transfers between disjoint
+// accounts never wait for each other, and both stripes of a transfer are always taken in index order, so two
+// transfers in opposite directions cannot deadlock. Accepted transfers are handed to the group-commit writer and the
+// caller is answered only once its postings are committed.
+// The in-memory balance is only a first check: another instance may have moved money since the account was loaded.
+// The database refuses a negative customer balance, the writer then retries the batch transfer by transfer so only
+// the refused ones fail, and the accounts of every failed transfer are evicted so the next transfer reloads them.
+// Cached accounts are also reloaded after ttl and bounded to max-size.
+@Component
+public class LedgerEngine implements SmartLifecycle {
+
+    private final LedgerStore store;
+    private final ReentrantLock[] locks;
+    private final int stripeMask;
+    private final Cache<UUID, LedgerAccount> accounts;
+    private final LedgerWriter writer;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+
+    public LedgerEngine(LedgerStore store,
+                        @Value("${api.ledger.lock-stripes:1024}") int lockStripes,
+                        @Value("${api.ledger.queue-capacity:10000}") int queueCapacity,
+                        @Value("${api.ledger.max-batch-size:500}") int maxBatchSize,
+                        @Value("${api.ledger.retry-after-seconds:1}") long retryAfterSeconds,
+                        @Value("${api.ledger.accounts.max-size:100000}") long maxAccounts,
+                        @Value("${api.ledger.accounts.ttl:1m}") Duration accountTtl,
+                        MeterRegistry meterRegistry) {
+        this.store = store;
+        // Rounded up to a power of two so the stripe is a mask of the hash
+        int stripes = lockStripes <= 1 ? 1 : Integer.highestOneBit(lockStripes - 1) << 1;
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.stripeMask = stripes - 1;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfterWrite(accountTtl)
+                .build();
+        this.rejected = Counter.builder("ledger.transfers")
+                .tag("outcome", "insufficient_funds")
+                .register(meterRegistry);
+        this.writer = new LedgerWriter(store, queueCapacity, maxBatchSize, retryAfterSeconds, this::forget, rejected,
+                meterRegistry);
+        Gauge.builder("ledger.accounts.cached", accounts, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    // Returns the account state, loading it from the database when it is not cached; concurrent callers share one load
+    public LedgerAccount account(UUID accountId) {
+        return accounts.get(accountId, id -> store.loadAccount(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found")));
+    }
+
+    // Moves amount from debit to credit and waits until the transfer is committed
+    public PostedTransfer transfer(LedgerAccount debit, LedgerAccount credit, long amount, String reference) {
+        try {
+            return submit(debit, credit, amount, reference).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Checks and applies the transfer to the in-memory balances; the future completes once it is committed
+    public CompletableFuture<PostedTransfer> submit(LedgerAccount debit, LedgerAccount credit, long amount, String reference) {
+        if (amount <= 0) {
+            throw new InvalidTransferException("Amount must be positive");
+        }
+        if (debit.id().equals(credit.id())) {
+            throw new InvalidTransferException("Cannot transfer to the same account");
+        }
+
+        var transfer = new PendingTransfer(TimeOrderedUuidGenerator.next(), debit, credit, amount, reference,
+                new CompletableFuture<>());
+        lock(debit, credit);
+        try {
+            if (!debit.canOverdraw() && debit.balance() < amount) {
+                rejected.increment();
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            long debitBalance = Math.subtractExact(debit.balance(), amount);
+            long creditBalance = Math.addExact(credit.balance(), amount);
+            // Queued while the locks are held, so batches reach the database in the order balances were checked
+            if (!writer.offer(transfer)) {
+                throw new LedgerUnavailableException("Ledger is busy, try again later", retryAfterSeconds);
+            }
+            debit.balance(debitBalance);
+            credit.balance(creditBalance);
+        } finally {
+            unlock(debit, credit);
+        }
+        return transfer.result();
+    }
+
+    // Drops the cached state of an account whose stored balance was corrected, so the next transfer reloads it
+    public void evict(UUID accountId) {
+        accounts.invalidate(accountId);
+    }
+
+    // A transfer that was not committed still counts in the cached balances, which may also have been stale; both
+    // accounts are reloaded from the database rather than adjusted back
+    private void forget(PendingTransfer transfer) {
+        evict(transfer.debit().id());
+        evict(transfer.credit().id());
+    }
+
+    private void lock(LedgerAccount first, LedgerAccount second) {
+        int a = stripe(first.id());
+        int b = stripe(second.id());
+        locks[Math.min(a, b)].lock();
+        if (a != b) {
+            locks[Math.max(a, b)].lock();
+        }
+    }
+
+    private void unlock(LedgerAccount first, LedgerAccount second) {
+        int a = stripe(first.id());
+        int b = stripe(second.id());
+        if (a != b) {
+            locks[Math.max(a, b)].unlock();
+        }
+        locks[Math.min(a, b)].unlock();
+    }
+
+    private int stripe(UUID accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+
+    @Override
+    public void start() {
+        writer.start();
+    }
+
+    // Stops after the web server, committing every transfer that was already accepted
+    @Override
+    public void stop() {
+        writer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer.isRunning();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.bank.bankapi.account.ledger;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Persistence used by the ledger engine: account state is read once per account, postings are written in batches
+public interface LedgerStore {
+
+    Optional<LedgerAccount> loadAccount(UUID accountId);
+
+    // Writes the transfers, their postings, the resulting balance changes and any snapshot that became due in a
+    // single transaction, and returns the time the postings were written with: postedAt, or the time of the latest
+    // posting when another instance posted later. Throws InsufficientFundsException, with nothing written, when any
+    // transfer of the batch, taken in order, would leave a customer account below zero
+    Instant write(List<PendingTransfer> batch, Instant postedAt);
+}
@@ -0,0 +1,184 @@
+package br.com.bank.bankapi.account.ledger;
+
+import br.com.bank.bankapi.account.exception.InsufficientFundsException;
+import br.com.bank.bankapi.account.exception.LedgerUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Group commit: a single thread takes whatever transfers queued up while the previous batch was being written and
+// commits them together, so under load many transfers share one round trip and one fsync. When idle a transfer is
+// written alone as soon as it arrives; no artificial delay is added to fill batches. A batch the database refuses
+// for a balance is retried transfer by transfer, so only the transfers that overdraw an account fail.
+final class LedgerWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriter.class);
+
+    private final LedgerStore store;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final int maxBatchSize;
+    private final long retryAfterSeconds;
+    private final Consumer<PendingTransfer> onFailure;
+    private final Counter posted;
+    private final Counter failed;
+    private final Counter refused;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private volatile boolean running;
+    private Thread thread;
+    private Instant lastPostedAt = Instant.EPOCH;
+
+    LedgerWriter(LedgerStore store, int queueCapacity, int maxBatchSize, long retryAfterSeconds,
+                 Consumer<PendingTransfer> onFailure, Counter refused, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.onFailure = onFailure;
+        this.refused = refused;
+
+        this.posted = Counter.builder("ledger.transfers")
+                .tag("outcome", "posted")
+                .register(meterRegistry);
+        this.failed = Counter.builder("ledger.transfers")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("ledger.batch.write").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("ledger.batch.size").register(meterRegistry);
+        Gauge.builder("ledger.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    // Queues the transfer without blocking; false when the queue is full or the writer is stopped
+    boolean offer(PendingTransfer transfer) {
+        return running && queue.offer(transfer);
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::writeLoop, "ledger-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stops accepting transfers and waits until the ones already queued are committed
+    void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<PendingTransfer> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        if (!leftovers.isEmpty()) {
+            fail(leftovers, new LedgerUnavailableException("Ledger is shutting down", retryAfterSeconds));
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingTransfer first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingTransfer> batch) {
+        long start = System.nanoTime();
+        // Every posting of the batch gets the same time, never earlier than the previous batch even if the wall
+        // clock steps back; the store raises it further to the latest posting written by another instance
+        Instant now = Instant.now();
+        Instant postedAt = now.isAfter(lastPostedAt) ? now : lastPostedAt;
+        try {
+            postedAt = store.write(batch, postedAt);
+        } catch (InsufficientFundsException e) {
+            if (batch.size() == 1) {
+                refuse(batch.getFirst(), e);
+                return;
+            }
+            log.warn("Ledger batch refused by the database, retrying transfer by transfer. transfers={}", batch.size());
+            writeEach(batch, postedAt, start);
+            return;
+        } catch (RuntimeException e) {
+            log.error("Could not commit ledger batch. transfers={}", batch.size(), e);
+            fail(batch, new LedgerUnavailableException("Transfer could not be committed", retryAfterSeconds, e));
+            return;
+        }
+        complete(batch, postedAt, start);
+    }
+
+    // Commits each transfer of a refused batch in its own transaction, with the batch's posting time
+    private void writeEach(List<PendingTransfer> batch, Instant postedAt, long start) {
+        List<PendingTransfer> committed = new ArrayList<>(batch.size());
+        for (PendingTransfer transfer : batch) {
+            try {
+                postedAt = store.write(List.of(transfer), postedAt);
+                committed.add(transfer);
+            } catch (InsufficientFundsException e) {
+                refuse(transfer, e);
+            } catch (RuntimeException e) {
+                log.error("Could not commit ledger transfer. id={}", transfer.id(), e);
+                fail(List.of(transfer), new LedgerUnavailableException("Transfer could not be committed", retryAfterSeconds, e));
+            }
+        }
+        if (!committed.isEmpty()) {
+            complete(committed, postedAt, start);
+        }
+    }
+
+    private void complete(List<PendingTransfer> batch, Instant postedAt, long start) {
+        lastPostedAt = postedAt;
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+        posted.increment(batch.size());
+        for (PendingTransfer transfer : batch) {
+            transfer.result().complete(transfer.posted(postedAt));
+        }
+    }
+
+    // The cached balance let through a debit the committed balance does not cover
+    private void refuse(PendingTransfer transfer, InsufficientFundsException exception) {
+        refused.increment();
+        onFailure.accept(transfer);
+        transfer.result().completeExceptionally(exception);
+    }
+
+    // Discards the in-memory effect of every transfer before telling its caller that it failed
+    private void fail(List<PendingTransfer> batch, LedgerUnavailableException exception) {
+        failed.increment(batch.size());
+        for (PendingTransfer transfer : batch) {
+            onFailure.accept(transfer);
+            transfer.result().completeExceptionally(exception);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.bank.bankapi.account.ledger;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// A transfer already applied to the in-memory balances and waiting in the queue for its group commit
+public record PendingTransfer(UUID id, LedgerAccount debit, LedgerAccount credit, long amount, String reference,
+                              CompletableFuture<PostedTransfer> result) {
+
+    PostedTransfer posted(Instant postedAt) {
+        return new PostedTransfer(id, debit.id(), credit.id(), amount, reference, postedAt);
+    }
+}
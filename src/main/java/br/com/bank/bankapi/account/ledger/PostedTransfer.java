@@ -0,0 +1,8 @@
+package br.com.bank.bankapi.account.ledger;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// A transfer whose postings are committed
+public record PostedTransfer(UUID id, UUID debitAccountId, UUID creditAccountId, long amount, String reference, Instant createdAt) {
+}
@@ -0,0 +1,73 @@
+package br.com.bank.bankapi.account.model;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "accounts")
+public class Account {
+
+    @Id
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    private UUID id;
+
+    @Column(updatable = false)
+    private UUID customerId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15, updatable = false)
+    private AccountType type;
+
+    // Maintained by the ledger together with the postings, never written through this entity
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long balance;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant updatedAt;
+
+    protected Account() {}
+
+    public Account(UUID customerId, AccountType type) {
+        this.customerId = customerId;
+        this.type = type;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getCustomerId() {
+        return customerId;
+    }
+
+    public AccountType getType() {
+        return type;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.account.repository;
+
+import java.util.UUID;
+
+// Whether the balance projection and the latest snapshot of an account agree with its postings
+public record AccountConsistency(UUID accountId, boolean balanceMismatch, boolean snapshotMismatch) {
+}
@@ -0,0 +1,142 @@
+package br.com.bank.bankapi.account.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Reads and maintenance of the balance projection (accounts.balance) and its snapshots, in plain SQL
+@Repository
+public class BalanceRepository {
+
+    // Latest snapshot at or before asOf, plus the postings after it up to asOf. The tail is bounded by the next
+    // snapshot, so at most one snapshot interval of postings is summed whatever the length of the history
+    private static final String BALANCE_AS_OF = """
+            WITH before AS (
+                SELECT posting_id, balance FROM balance_snapshots
+                WHERE account_id = ? AND posted_at <= ?
+                ORDER BY posted_at DESC, posting_id DESC
+                LIMIT 1
+            ), after AS (
+                SELECT posting_id FROM balance_snapshots
+                WHERE account_id = ? AND posted_at > ?
+                ORDER BY posted_at, posting_id
+                LIMIT 1
+            )
+            SELECT COALESCE((SELECT balance FROM before), 0) + COALESCE(sum(p.amount), 0)
+            FROM postings p
+            WHERE p.account_id = ?
+              AND p.id > COALESCE((SELECT posting_id FROM before), 0)
+              AND p.id <= COALESCE((SELECT posting_id FROM after), 9223372036854775807)
+              AND p.created_at <= ?
+            """;
+
+    private static final String ACCOUNT_IDS_AFTER =
+            "SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String LOCK_ACCOUNT =
+            "SELECT balance FROM accounts WHERE id = ? FOR UPDATE";
+
+    private static final String DELETE_SNAPSHOTS =
+            "DELETE FROM balance_snapshots WHERE account_id = ?";
+
+    private static final String INSERT_SNAPSHOTS = """
+            INSERT INTO balance_snapshots (account_id, posting_id, balance, posted_at)
+            SELECT account_id, id, running_balance, created_at
+            FROM (
+                SELECT account_id, id, created_at,
+                       sum(amount) OVER (ORDER BY id) AS running_balance,
+                       row_number() OVER (ORDER BY id) AS position
+                FROM postings
+                WHERE account_id = ?
+            ) p
+            WHERE position % ? = 0
+            """;
+
+    private static final String UPDATE_PROJECTION = """
+            UPDATE accounts a
+            SET balance = p.total,
+                last_posting_id = p.last_posting_id,
+                postings_since_snapshot = p.postings % ?
+            FROM (
+                SELECT COALESCE(sum(amount), 0) AS total, COALESCE(max(id), 0) AS last_posting_id, count(*) AS postings
+                FROM postings
+                WHERE account_id = ?
+            ) p
+            WHERE a.id = ?
+            RETURNING a.balance
+            """;
+
+    private static final String CHECK_ACCOUNTS = """
+            SELECT a.id,
+                   a.balance <> COALESCE(total.amount, 0) AS balance_mismatch,
+                   snapshot.posting_id IS NOT NULL AND snapshot.balance <> COALESCE(upto.amount, 0) AS snapshot_mismatch
+            FROM accounts a
+            LEFT JOIN LATERAL (
+                SELECT sum(amount) AS amount FROM postings WHERE account_id = a.id
+            ) total ON true
+            LEFT JOIN LATERAL (
+                SELECT posting_id, balance FROM balance_snapshots WHERE account_id = a.id
+                ORDER BY posting_id DESC LIMIT 1
+            ) snapshot ON true
+            LEFT JOIN LATERAL (
+                SELECT sum(amount) AS amount FROM postings WHERE account_id = a.id AND id <= snapshot.posting_id
+            ) upto ON true
+            WHERE a.id = ANY (?)
+            """;
+
+    // Transfers whose postings are missing, duplicated or do not cancel out
+    private static final String UNBALANCED_TRANSFERS = """
+            SELECT t.id
+            FROM transfers t
+            LEFT JOIN postings p ON p.transfer_id = t.id
+            GROUP BY t.id, t.amount
+            HAVING count(p.id) <> 2 OR COALESCE(sum(p.amount), 0) <> 0 OR COALESCE(max(p.amount), 0) <> t.amount
+            LIMIT ?
+            """;
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long balanceAsOf(UUID accountId, Instant asOf) {
+        var timestamp = Timestamp.from(asOf);
+        Long balance = jdbcTemplate.queryForObject(BALANCE_AS_OF, Long.class,
+                accountId, timestamp, accountId, timestamp, accountId, timestamp);
+        return balance == null ? 0 : balance;
+    }
+
+    // One keyset page of account ids; pass null for the first page
+    public List<UUID> findAccountIdsAfter(UUID after, int limit) {
+        return jdbcTemplate.queryForList(ACCOUNT_IDS_AFTER, UUID.class, after == null ? FIRST_ID : after, limit);
+    }
+
+    // Recomputes the balance and every snapshot of an account from its postings. Must run in a transaction: the
+    // account row stays locked until the end, so the ledger cannot post to the account halfway through
+    public RebuiltBalance rebuild(UUID accountId, int snapshotInterval) {
+        Long previous = jdbcTemplate.queryForObject(LOCK_ACCOUNT, Long.class, accountId);
+        jdbcTemplate.update(DELETE_SNAPSHOTS, accountId);
+        int snapshots = jdbcTemplate.update(INSERT_SNAPSHOTS, accountId, snapshotInterval);
+        Long balance = jdbcTemplate.queryForObject(UPDATE_PROJECTION, Long.class, snapshotInterval, accountId, accountId);
+        return new RebuiltBalance(previous == null ? 0 : previous, balance == null ? 0 : balance, snapshots);
+    }
+
+    public List<AccountConsistency> check(List<UUID> accountIds) {
+        return jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(CHECK_ACCOUNTS);
+            ps.setArray(1, connection.createArrayOf("uuid", accountIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new AccountConsistency(rs.getObject(1, UUID.class), rs.getBoolean(2), rs.getBoolean(3)));
+    }
+
+    public List<UUID> findUnbalancedTransfers(int limit) {
+        return jdbcTemplate.queryForList(UNBALANCED_TRANSFERS, UUID.class, limit);
+    }
+}
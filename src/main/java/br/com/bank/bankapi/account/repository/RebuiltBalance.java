@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.account.repository;
+
+// Stored balance of an account before and after it was recomputed from its postings
+public record RebuiltBalance(long previousBalance, long balance, int snapshots) {
+
+    public boolean corrected() {
+        return previousBalance != balance;
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.bank.bankapi.account.repository;
+
+import br.com.bank.bankapi.account.dto.StatementLineDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Streams the postings of an account row by row. Must run in a transaction: only then does the driver read through a
+// server-side cursor, fetch-size rows at a time, instead of loading the whole result.
+@Repository
+public class StatementRepository {
+
+    // The snapshots around the period bound the scan: it starts at the last snapshot before the period, whose balance
+    // is the opening balance once the few postings between it and the period start are added, and stops at the first
+    // snapshot after the period
+    private static final String ACCOUNT_POSTINGS = """
+            WITH before AS (
+                SELECT posting_id, balance FROM balance_snapshots
+                WHERE account_id = ? AND posted_at < ?
+                ORDER BY posted_at DESC, posting_id DESC
+                LIMIT 1
+            ), after AS (
+                SELECT posting_id FROM balance_snapshots
+                WHERE account_id = ? AND posted_at >= ?
+                ORDER BY posted_at, posting_id
+                LIMIT 1
+            )
+            SELECT p.id, p.created_at, p.amount, p.transfer_id,
+                   CASE WHEN p.amount < 0 THEN t.credit_account_id ELSE t.debit_account_id END,
+                   t.reference,
+                   COALESCE((SELECT balance FROM before), 0)
+            FROM postings p
+            JOIN transfers t ON t.id = p.transfer_id
+            WHERE p.account_id = ?
+              AND p.id > COALESCE((SELECT posting_id FROM before), 0)
+              AND p.id <= COALESCE((SELECT posting_id FROM after), 9223372036854775807)
+              AND p.created_at < ?
+            ORDER BY p.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StatementRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Hands every posting of the account in [from, to) to the consumer, with the running balance after it
+    public void streamAccount(UUID accountId, Instant from, Instant to, int fetchSize, Consumer<StatementLineDTO> consumer) {
+        var fromTimestamp = Timestamp.from(from);
+        var toTimestamp = Timestamp.from(to);
+        jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(ACCOUNT_POSTINGS);
+            ps.setFetchSize(fetchSize);
+            ps.setObject(1, accountId);
+            ps.setTimestamp(2, fromTimestamp);
+            ps.setObject(3, accountId);
+            ps.setTimestamp(4, toTimestamp);
+            ps.setObject(5, accountId);
+            ps.setTimestamp(6, toTimestamp);
+            return ps;
+        }, new RowCallbackHandler() {
+            private boolean first = true;
+            private long balance;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                if (first) {
+                    balance = rs.getLong(7);
+                    first = false;
+                }
+                long amount = rs.getLong(3);
+                balance += amount;
+                Instant postedAt = rs.getTimestamp(2).toInstant();
+                // Postings between the opening snapshot and the period start only count towards the opening balance
+                if (postedAt.isBefore(from)) {
+                    return;
+                }
+                consumer.accept(new StatementLineDTO(accountId, rs.getLong(1), postedAt, rs.getObject(4, UUID.class),
+                        rs.getObject(5, UUID.class), amount, balance, rs.getString(6)));
+            }
+        });
+    }
+}
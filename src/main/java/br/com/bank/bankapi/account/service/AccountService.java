@@ -0,0 +1,108 @@
+package br.com.bank.bankapi.account.service;
+
+import br.com.bank.bankapi.account.dto.AccountDTO;
+import br.com.bank.bankapi.account.dto.BalanceDTO;
+import br.com.bank.bankapi.account.dto.CreateAccountDTO;
+import br.com.bank.bankapi.account.dto.TransferDTO;
+import br.com.bank.bankapi.account.dto.TransferResultDTO;
+import br.com.bank.bankapi.account.enums.AccountType;
+import br.com.bank.bankapi.account.exception.AccountNotFoundException;
+import br.com.bank.bankapi.account.ledger.LedgerAccount;
+import br.com.bank.bankapi.account.ledger.LedgerEngine;
+import br.com.bank.bankapi.account.model.Account;
+import br.com.bank.bankapi.account.repository.AccountRepository;
+import br.com.bank.bankapi.account.repository.BalanceRepository;
+import br.com.bank.bankapi.customer.exception.CustomerNotFoundException;
+import br.com.bank.bankapi.customer.repository.CustomerRepository;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Service
+public class AccountService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountService.class);
+
+    private final AccountRepository repository;
+    private final BalanceRepository balanceRepository;
+    private final CustomerRepository customerRepository;
+    private final LedgerEngine ledger;
+
+    public AccountService(AccountRepository repository,
+                          BalanceRepository balanceRepository,
+                          CustomerRepository customerRepository,
+                          LedgerEngine ledger) {
+        this.repository = repository;
+        this.balanceRepository = balanceRepository;
+        this.customerRepository = customerRepository;
+        this.ledger = ledger;
+    }
+
+    // Opens an empty account for an existing customer
+    public AccountDTO openCustomerAccount(CreateAccountDTO data) {
+        if (!customerRepository.existsById(data.customerId())) {
+            throw new CustomerNotFoundException("Customer not found");
+        }
+        var account = repository.save(new Account(data.customerId(), AccountType.CUSTOMER));
+        log.info("Customer account opened. accountId={}, customerId={}", account.getId(), data.customerId());
+        return toDTO(account);
+    }
+
+    // Opens a bank-owned account (cash, settlement, fees), which may hold a negative balance
+    public AccountDTO openInternalAccount() {
+        var account = repository.save(new Account(null, AccountType.INTERNAL));
+        log.info("Internal account opened. accountId={}", account.getId());
+        return toDTO(account);
+    }
+
+    // Returns the committed state of an account visible to the caller
+    public AccountDTO find(UUID accountId, UserPrincipal caller) {
+        checkReadable(ledger.account(accountId), caller);
+        return repository.findById(accountId)
+                .map(AccountService::toDTO)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    // Returns the committed balance now, read from the projection, or as of a past instant, rebuilt from the nearest
+    // snapshot and the postings after it
+    public BalanceDTO balance(UUID accountId, Instant asOf, UserPrincipal caller) {
+        checkReadable(ledger.account(accountId), caller);
+        if (asOf == null) {
+            return repository.findById(accountId)
+                    .map(account -> new BalanceDTO(accountId, account.getBalance(), account.getUpdatedAt()))
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        }
+        return new BalanceDTO(accountId, balanceRepository.balanceAsOf(accountId, asOf), asOf);
+    }
+
+    // Moves money out of an account of the caller; admins may move money out of any account, internal ones included.
+    // Ownership is checked against the ledger's in-memory account state, so the hot path does not query the database
+    public TransferResultDTO transfer(TransferDTO data, UserPrincipal caller) {
+        var debit = ledger.account(data.fromAccountId());
+        if (caller.role() != Role.ROLE_ADMIN && !caller.id().equals(debit.ownerUserId())) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        var credit = ledger.account(data.toAccountId());
+
+        var posted = ledger.transfer(debit, credit, data.amount(), data.reference());
+        return new TransferResultDTO(posted.id(), posted.debitAccountId(), posted.creditAccountId(), posted.amount(),
+                posted.reference(), posted.createdAt());
+    }
+
+    // Clients only see their own accounts; an account of someone else is reported as missing
+    private static void checkReadable(LedgerAccount account, UserPrincipal caller) {
+        if (caller.role() == Role.ROLE_CLIENT && !caller.id().equals(account.ownerUserId())) {
+            throw new AccountNotFoundException("Account not found");
+        }
+    }
+
+    private static AccountDTO toDTO(Account account) {
+        return new AccountDTO(account.getId(), account.getCustomerId(), account.getType(), account.getBalance(),
+                account.getCreatedAt());
+    }
+}
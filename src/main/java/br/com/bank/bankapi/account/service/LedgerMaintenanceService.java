@@ -0,0 +1,194 @@
+package br.com.bank.bankapi.account.service;
+
+import br.com.bank.bankapi.account.dto.LedgerConsistencyReportDTO;
+import br.com.bank.bankapi.account.dto.LedgerRebuildResultDTO;
+import br.com.bank.bankapi.account.ledger.LedgerEngine;
+import br.com.bank.bankapi.account.repository.AccountConsistency;
+import br.com.bank.bankapi.account.repository.BalanceRepository;
+import br.com.bank.bankapi.account.repository.RebuiltBalance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rebuilds the balance projection and snapshots from the postings, and checks that they still agree. Both walk the
+// accounts in keyset pages and spread each page over a pool of threads, one database connection each; accounts are
+// independent, so the work parallelizes with no coordination beyond the row lock taken per account.
+@Service
+public class LedgerMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerMaintenanceService.class);
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int CHECK_CHUNK_SIZE = 100;
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private final BalanceRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerEngine ledger;
+    private final int snapshotInterval;
+    private final int threads;
+    private final AtomicLong lastMismatches = new AtomicLong();
+
+    public LedgerMaintenanceService(BalanceRepository repository,
+                                    TransactionTemplate transactionTemplate,
+                                    LedgerEngine ledger,
+                                    @Value("${api.ledger.snapshots.interval:100}") int snapshotInterval,
+                                    @Value("${api.ledger.maintenance.threads:4}") int threads,
+                                    MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.ledger = ledger;
+        this.snapshotInterval = snapshotInterval;
+        this.threads = threads;
+
+        Gauge.builder("ledger.consistency.mismatches", lastMismatches, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    // Recomputes every balance and snapshot from scratch, one transaction per account
+    public LedgerRebuildResultDTO rebuild() {
+        long start = System.nanoTime();
+        long accounts = 0;
+        long corrected = 0;
+        long snapshots = 0;
+        log.info("Ledger rebuild started. threads={}, snapshotInterval={}", threads, snapshotInterval);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            UUID after = null;
+            List<UUID> page;
+            do {
+                page = repository.findAccountIdsAfter(after, PAGE_SIZE);
+                List<Callable<RebuiltBalance>> tasks = new ArrayList<>(page.size());
+                for (UUID accountId : page) {
+                    tasks.add(() -> rebuild(accountId));
+                }
+                for (RebuiltBalance rebuilt : invokeAll(executor, tasks)) {
+                    accounts++;
+                    snapshots += rebuilt.snapshots();
+                    if (rebuilt.corrected()) {
+                        corrected++;
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == PAGE_SIZE);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var result = new LedgerRebuildResultDTO(accounts, corrected, snapshots, (System.nanoTime() - start) / 1_000_000);
+        log.info("Ledger rebuild finished. accounts={}, correctedBalances={}, snapshots={}, elapsedMs={}",
+                result.accounts(), result.correctedBalances(), result.snapshots(), result.elapsedMs());
+        return result;
+    }
+
+    // Compares every balance and latest snapshot with the sum of the postings, and every transfer with its postings
+    public LedgerConsistencyReportDTO check() {
+        long start = System.nanoTime();
+        long accounts = 0;
+        long mismatches = 0;
+        List<UUID> balanceMismatches = new ArrayList<>();
+        List<UUID> snapshotMismatches = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            UUID after = null;
+            List<UUID> page;
+            do {
+                page = repository.findAccountIdsAfter(after, PAGE_SIZE);
+                List<Callable<List<AccountConsistency>>> tasks = new ArrayList<>();
+                for (int i = 0; i < page.size(); i += CHECK_CHUNK_SIZE) {
+                    var chunk = page.subList(i, Math.min(i + CHECK_CHUNK_SIZE, page.size()));
+                    tasks.add(() -> repository.check(chunk));
+                }
+                for (List<AccountConsistency> checked : invokeAll(executor, tasks)) {
+                    for (AccountConsistency account : checked) {
+                        accounts++;
+                        if (account.balanceMismatch()) {
+                            addReported(balanceMismatches, account.accountId());
+                            mismatches++;
+                        }
+                        if (account.snapshotMismatch()) {
+                            addReported(snapshotMismatches, account.accountId());
+                            mismatches++;
+                        }
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == PAGE_SIZE);
+        } finally {
+            executor.shutdownNow();
+        }
+        List<UUID> unbalancedTransfers = repository.findUnbalancedTransfers(MAX_REPORTED_IDS);
+
+        var report = new LedgerConsistencyReportDTO(accounts, balanceMismatches, snapshotMismatches, unbalancedTransfers,
+                (System.nanoTime() - start) / 1_000_000);
+        lastMismatches.set(mismatches + unbalancedTransfers.size());
+        if (report.consistent()) {
+            log.info("Ledger consistency check passed. accounts={}, elapsedMs={}", accounts, report.elapsedMs());
+        } else {
+            log.error("Ledger consistency check failed. accounts={}, balanceMismatches={}, snapshotMismatches={}, unbalancedTransfers={}",
+                    accounts, balanceMismatches, snapshotMismatches, unbalancedTransfers);
+        }
+        return report;
+    }
+
+    // Nightly by default; the result is also exposed as the ledger.consistency.mismatches gauge
+    @Scheduled(cron = "${api.ledger.maintenance.check-cron:0 30 3 * * *}")
+    public void scheduledCheck() {
+        check();
+    }
+
+    private RebuiltBalance rebuild(UUID accountId) {
+        var rebuilt = transactionTemplate.execute(status -> repository.rebuild(accountId, snapshotInterval));
+        if (rebuilt.corrected()) {
+            ledger.evict(accountId);
+            log.warn("Account balance corrected by rebuild. accountId={}, previous={}, rebuilt={}",
+                    accountId, rebuilt.previousBalance(), rebuilt.balance());
+        }
+        return rebuilt;
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ledger maintenance interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private static void addReported(List<UUID> ids, UUID id) {
+        if (ids.size() < MAX_REPORTED_IDS) {
+            ids.add(id);
+        }
+    }
+}
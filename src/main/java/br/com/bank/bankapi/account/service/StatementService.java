@@ -0,0 +1,162 @@
+package br.com.bank.bankapi.account.service;
+
+import br.com.bank.bankapi.account.dto.StatementLineDTO;
+import br.com.bank.bankapi.account.enums.StatementFormat;
+import br.com.bank.bankapi.account.exception.InvalidStatementPeriodException;
+import br.com.bank.bankapi.account.model.Account;
+import br.com.bank.bankapi.account.repository.AccountRepository;
+import br.com.bank.bankapi.account.repository.StatementRepository;
+import br.com.bank.bankapi.customer.exception.CustomerNotFoundException;
+import br.com.bank.bankapi.customer.repository.CustomerRepository;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Writes account statements straight from a database cursor to the response. Only fetch-size rows and one output
+// buffer are held at a time, so memory stays flat whatever the size of the statement.
+@Service
+public class StatementService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "account_id,posting_id,posted_at,transfer_id,counterparty_account_id,amount,balance,reference\n";
+
+    private final AccountRepository accountRepository;
+    private final CustomerRepository customerRepository;
+    private final StatementRepository statementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter lineWriter;
+    private final int fetchSize;
+
+    public StatementService(AccountRepository accountRepository,
+                            CustomerRepository customerRepository,
+                            StatementRepository statementRepository,
+                            PlatformTransactionManager transactionManager,
+                            JsonMapper jsonMapper,
+                            @Value("${api.statements.fetch-size:1000}") int fetchSize) {
+        this.accountRepository = accountRepository;
+        this.customerRepository = customerRepository;
+        this.statementRepository = statementRepository;
+        this.fetchSize = fetchSize;
+        this.lineWriter = jsonMapper.writerFor(StatementLineDTO.class);
+
+        // One snapshot for the whole statement, so accounts exported last see the same ledger as the first ones
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Checks the request before anything is written, so errors still get a proper status, and returns the accounts
+    // to export. Clients only export their own statements; a customer of someone else is reported as missing
+    public List<UUID> accounts(UUID customerId, Instant from, Instant to, UserPrincipal caller) {
+        if (!from.isBefore(to)) {
+            throw new InvalidStatementPeriodException("Statement period must start before it ends");
+        }
+        var customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+        if (caller.role() == Role.ROLE_CLIENT && !caller.id().equals(customer.getUserId())) {
+            throw new CustomerNotFoundException("Customer not found");
+        }
+        return accountRepository.findByCustomerIdOrderByCreatedAt(customerId).stream()
+                .map(Account::getId)
+                .toList();
+    }
+
+    // Writes the postings of every account in [from, to), one account after the other, in posting order
+    public void export(List<UUID> accountIds, Instant from, Instant to, StatementFormat format, OutputStream out)
+            throws IOException {
+        long start = System.nanoTime();
+        var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        // The first bytes go out before the first query, so the client sees the response start right away
+        writer.flush();
+
+        long[] lines = new long[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (UUID accountId : accountIds) {
+                    statementRepository.streamAccount(accountId, from, to, fetchSize, line -> {
+                        write(writer, line, format);
+                        lines[0]++;
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // The client went away; the cursor is already closed and there is nobody left to answer
+            log.info("Statement export aborted. accounts={}, lines={}", accountIds.size(), lines[0]);
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Statement exported. accounts={}, lines={}, format={}, elapsedMs={}",
+                accountIds.size(), lines[0], format, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void write(Writer writer, StatementLineDTO line, StatementFormat format) {
+        try {
+            if (format == StatementFormat.NDJSON) {
+                writer.write(lineWriter.writeValueAsString(line));
+            } else {
+                writer.write(line.accountId().toString());
+                writer.write(',');
+                writer.write(Long.toString(line.postingId()));
+                writer.write(',');
+                writer.write(line.postedAt().toString());
+                writer.write(',');
+                writer.write(line.transferId().toString());
+                writer.write(',');
+                writer.write(line.counterpartyAccountId().toString());
+                writer.write(',');
+                writer.write(Long.toString(line.amount()));
+                writer.write(',');
+                writer.write(Long.toString(line.balance()));
+                writer.write(',');
+                writeCsvField(writer, line.reference());
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Quotes a free-text field only when it needs it, doubling embedded quotes (RFC 4180)
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
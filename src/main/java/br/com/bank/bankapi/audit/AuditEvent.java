@@ -0,0 +1,8 @@
+package br.com.bank.bankapi.audit;
+
+import java.time.Instant;
+
+// One audit record. sequence is assigned by the writer and increases without gaps across segments;
+// detail holds the outcome or reason (e.g. INVALID_CREDENTIALS) and may be empty
+public record AuditEvent(long sequence, Instant timestamp, AuditEventType type, String username, String detail) {
+}
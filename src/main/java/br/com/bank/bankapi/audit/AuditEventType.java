@@ -0,0 +1,15 @@
+package br.com.bank.bankapi.audit;
+
+public enum AuditEventType {
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    LOGIN_RATE_LIMITED,
+    LOGOUT,
+    TOKEN_REFRESHED,
+    REFRESH_TOKEN_REUSED,
+    TOKEN_REVOKED,
+    USER_REGISTERED,
+    REGISTRATION_REJECTED,
+    // Written by the audit writer itself when events were dropped because the buffer was full
+    EVENTS_DROPPED
+}
@@ -0,0 +1,75 @@
+package br.com.bank.bankapi.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Replays the audit trail written by AuditTrail, oldest record first. Each segment is read up to its first torn or
+// corrupt record, which can only be the tail of a segment that was being written when the process stopped.
+public class AuditLogReader {
+
+    private final Path directory;
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    // Hands every intact record with a sequence of at least fromSequence to the consumer and returns how many it read
+    public long replay(long fromSequence, Consumer<AuditEvent> consumer) throws IOException {
+        var segments = AuditSegments.list(directory);
+        long replayed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            // A segment ends where the next one starts, so earlier segments can be skipped by name alone
+            if (i + 1 < segments.size() && AuditSegments.firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            var counted = new long[1];
+            scan(segments.get(i), event -> {
+                if (event.sequence() >= fromSequence) {
+                    counted[0]++;
+                    consumer.accept(event);
+                }
+            });
+            replayed += counted[0];
+        }
+        return replayed;
+    }
+
+    // Reads the intact records of one segment; returns the last sequence read (-1 if none) and the bytes they span
+    static Scan scan(Path segment, Consumer<AuditEvent> consumer) throws IOException {
+        try (var channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new Scan(-1, 0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long lastSequence = -1;
+            while (buffer.remaining() >= AuditSegments.HEADER_BYTES) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int crc = buffer.getInt();
+                if (length <= 0 || length > AuditSegments.MAX_PAYLOAD_BYTES || length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                if (!AuditSegments.checksumMatches(payload, crc)) {
+                    buffer.position(start);
+                    break;
+                }
+                AuditEvent event = AuditSegments.decode(payload);
+                lastSequence = event.sequence();
+                consumer.accept(event);
+                buffer.position(buffer.position() + length);
+            }
+            return new Scan(lastSequence, buffer.position());
+        }
+    }
+
+    record Scan(long lastSequence, long validBytes) {
+    }
+}
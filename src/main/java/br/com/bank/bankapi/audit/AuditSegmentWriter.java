@@ -0,0 +1,129 @@
+package br.com.bank.bankapi.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends records to the current segment through a FileChannel, one write and at most one fsync per batch, and
+// starts a new segment once the current one passes the configured size. Used only by the audit writer thread.
+final class AuditSegmentWriter implements Closeable {
+
+    private static final int BATCH_BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BUFFER_BYTES);
+    private FileChannel channel;
+    private long segmentSize;
+    private long nextSequence;
+    // Records encoded in the batch, and records discarded by failed writes since takeDiscarded was last called
+    private int batchRecords;
+    private long discarded;
+
+    AuditSegmentWriter(Path directory, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    // Reopens the last segment after its last intact record, cutting off a torn tail, or starts the first segment
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        var segments = AuditSegments.list(directory);
+        if (segments.isEmpty()) {
+            startSegment(1);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        var scan = AuditLogReader.scan(last, event -> { });
+        channel = FileChannel.open(last, StandardOpenOption.WRITE);
+        channel.truncate(scan.validBytes());
+        channel.position(scan.validBytes());
+        segmentSize = scan.validBytes();
+        nextSequence = scan.lastSequence() >= 0 ? scan.lastSequence() + 1 : AuditSegments.firstSequence(last);
+    }
+
+    void append(PendingAuditEvent event) throws IOException {
+        if (batch.remaining() < AuditSegments.HEADER_BYTES + AuditSegments.MAX_PAYLOAD_BYTES) {
+            writeBatch();
+        }
+        AuditSegments.encode(batch, nextSequence++, event);
+        batchRecords++;
+    }
+
+    // Writes the pending batch and forces it to disk, making every record appended so far durable
+    void flush() throws IOException {
+        writeBatch();
+        if (fsync) {
+            channel.force(false);
+        }
+        if (segmentSize >= segmentBytes) {
+            channel.close();
+            startSegment(nextSequence);
+        }
+    }
+
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    long takeDiscarded() {
+        long count = discarded;
+        discarded = 0;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            flush();
+            channel.close();
+        }
+    }
+
+    // A batch is written whole or not at all: on failure the part that reached the file is cut off, so the segment
+    // still ends on a whole record, and the discarded records' sequence numbers are reused
+    private void writeBatch() throws IOException {
+        long committedSize = segmentSize;
+        batch.flip();
+        try {
+            while (batch.hasRemaining()) {
+                segmentSize += channel.write(batch);
+            }
+        } catch (IOException | RuntimeException e) {
+            discarded += batchRecords;
+            nextSequence -= batchRecords;
+            segmentSize = committedSize;
+            try {
+                channel.truncate(committedSize);
+                channel.position(committedSize);
+            } catch (IOException | RuntimeException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        } finally {
+            batch.clear();
+            batchRecords = 0;
+        }
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        channel = FileChannel.open(AuditSegments.segmentPath(directory, firstSequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSize = 0;
+        nextSequence = firstSequence;
+        if (fsync) {
+            // Makes the new file's directory entry durable as well
+            try (var dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+                dir.force(true);
+            } catch (IOException ignored) {
+                // Not supported on every platform; the records themselves are still forced
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.bank.bankapi.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// On-disk format shared by the writer and the reader. A segment is named after the sequence of its first record
+// and holds records framed as [int payload length][int CRC32C of payload][payload], the payload being
+// [long sequence][long epoch millis][type][username][detail], each string as [unsigned short length][UTF-8 bytes].
+final class AuditSegments {
+
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".log";
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+    static final int MAX_STRING_BYTES = 1024;
+    static final int MAX_PAYLOAD_BYTES = Long.BYTES * 2 + 3 * (Short.BYTES + MAX_STRING_BYTES);
+
+    private AuditSegments() {}
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Segments of the directory in sequence order; the zero-padded names sort like the numbers
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // Appends one framed record to the buffer, which must have room for MAX_PAYLOAD_BYTES plus the header
+    static void encode(ByteBuffer buffer, long sequence, PendingAuditEvent event) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(sequence);
+        buffer.putLong(event.timestamp().toEpochMilli());
+        putString(buffer, event.type().name());
+        putString(buffer, event.username());
+        putString(buffer, event.detail());
+        int end = buffer.position();
+
+        var crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_BYTES, end - start - HEADER_BYTES));
+        buffer.putInt(start, end - start - HEADER_BYTES);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    // Decodes the payload of a record whose checksum has already been verified
+    static AuditEvent decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        Instant timestamp = Instant.ofEpochMilli(payload.getLong());
+        AuditEventType type = AuditEventType.valueOf(getString(payload));
+        return new AuditEvent(sequence, timestamp, type, getString(payload), getString(payload));
+    }
+
+    static boolean checksumMatches(ByteBuffer payload, int expectedCrc) {
+        var crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == expectedCrc;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,183 @@
+package br.com.bank.bankapi.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Audit trail of authentication events. Request threads only publish to a bounded lock-free ring buffer; a single
+// writer thread drains it in batches into append-only segment files with one fsync per batch.
+// Overflow policy: when the buffer is full the event is dropped and counted rather than blocking the request, and
+// the writer records an EVENTS_DROPPED entry with the count, so every gap is visible in the trail itself.
+@Component
+public class AuditTrail implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+    private final MpscRingBuffer<PendingAuditEvent> buffer;
+    private final AuditSegmentWriter writer;
+    private final Path directory;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final LongAdder droppedSinceLastBatch = new LongAdder();
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter writeErrors;
+    private final Timer batchTimer;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditTrail(@Value("${api.audit.directory:${java.io.tmpdir}/bank-api/audit}") Path directory,
+                      @Value("${api.audit.buffer-capacity:16384}") int bufferCapacity,
+                      @Value("${api.audit.batch-size:1024}") int batchSize,
+                      @Value("${api.audit.segment-size:64MB}") DataSize segmentSize,
+                      @Value("${api.audit.fsync:true}") boolean fsync,
+                      @Value("${api.audit.idle-wait:5ms}") Duration idleWait,
+                      MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.writer = new AuditSegmentWriter(directory, segmentSize.toBytes(), fsync);
+        this.batchSize = batchSize;
+        this.idleWaitNanos = idleWait.toNanos();
+
+        this.dropped = Counter.builder("audit.events.dropped").register(meterRegistry);
+        this.written = Counter.builder("audit.events.written").register(meterRegistry);
+        this.writeErrors = Counter.builder("audit.write.errors").register(meterRegistry);
+        this.batchTimer = Timer.builder("audit.batch.write").register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, MpscRingBuffer::size).register(meterRegistry);
+    }
+
+    // Publishes an event without blocking; returns false when it was dropped because the buffer is full
+    public boolean record(AuditEventType type, String username, String detail) {
+        if (buffer.offer(new PendingAuditEvent(Instant.now(), type, username, detail))) {
+            return true;
+        }
+        droppedSinceLastBatch.increment();
+        dropped.increment();
+        return false;
+    }
+
+    public AuditLogReader reader() {
+        return new AuditLogReader(directory);
+    }
+
+    @Override
+    public void start() {
+        try {
+            writer.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the audit trail in " + directory.toAbsolutePath(), e);
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit trail started. directory={} nextSequence={}", directory.toAbsolutePath(), writer.nextSequence());
+    }
+
+    // Stops the writer loop once it has drained what was already published
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Could not close the audit trail", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server, so no request can publish into a stopped trail
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void writeLoop() {
+        while (running || buffer.size() > 0) {
+            int drained = writeBatch();
+            if (drained < 0 && !running) {
+                // Stopping while the file cannot be written; what is left in the buffer is lost
+                dropped.increment(buffer.size());
+                break;
+            }
+            if (drained <= 0) {
+                LockSupport.parkNanos(idleWaitNanos);
+            }
+        }
+    }
+
+    // Returns the number of events written, or -1 when the batch failed
+    private int writeBatch() {
+        long start = System.nanoTime();
+        int drained;
+        long droppedCount = 0;
+        boolean droppedAppended = false;
+        try {
+            drained = buffer.drain(this::append, batchSize);
+            droppedCount = droppedSinceLastBatch.sumThenReset();
+            if (droppedCount > 0) {
+                writer.append(new PendingAuditEvent(Instant.now(), AuditEventType.EVENTS_DROPPED, "", String.valueOf(droppedCount)));
+                droppedAppended = true;
+            }
+            if (drained == 0 && droppedCount == 0) {
+                return 0;
+            }
+            writer.flush();
+        } catch (IOException | RuntimeException e) {
+            writeErrors.increment();
+            log.error("Could not write audit events", e);
+            // Events whose batch could not be written count as dropped and go into the next EVENTS_DROPPED record,
+            // as does this round's count unless its EVENTS_DROPPED record reached the file
+            long lost = writer.takeDiscarded();
+            boolean droppedWritten = droppedAppended && lost == 0;
+            if (droppedAppended && lost > 0) {
+                lost--;
+            }
+            if (!droppedWritten) {
+                droppedSinceLastBatch.add(droppedCount);
+            }
+            droppedSinceLastBatch.add(lost);
+            dropped.increment(lost);
+            return -1;
+        }
+        written.increment(drained);
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return drained;
+    }
+
+    private void append(PendingAuditEvent event) {
+        try {
+            writer.append(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
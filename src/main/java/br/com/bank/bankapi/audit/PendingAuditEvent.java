@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.audit;
+
+import java.time.Instant;
+
+// Event published by a request thread, before the writer assigns its sequence number
+record PendingAuditEvent(Instant timestamp, AuditEventType type, String username, String detail) {
+}
@@ -1,14 +1,26 @@
 package br.com.bank.bankapi.auth.controller;
 
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
 import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterResponseDTO;
 import br.com.bank.bankapi.auth.dto.LoginResponseDTO;
+import br.com.bank.bankapi.auth.dto.RefreshTokenDTO;
 import br.com.bank.bankapi.auth.dto.RegisterDTO;
+import br.com.bank.bankapi.auth.dto.RevokeTokenDTO;
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.auth.security.VerifiedToken;
+import br.com.bank.bankapi.auth.service.BulkRegistrationService;
+import br.com.bank.bankapi.auth.service.RefreshTokenService;
+import br.com.bank.bankapi.auth.service.TokenRevocationService;
 import br.com.bank.bankapi.auth.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -21,9 +33,24 @@ public class AuthenticationController {
     private static final Logger log = LoggerFactory.getLogger(AuthenticationController.class);
 
     private final UserService userService;
+    private final BulkRegistrationService bulkRegistrationService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenService tokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuditTrail auditTrail;
 
-    public AuthenticationController(UserService userService) {
+    public AuthenticationController(UserService userService,
+                                    BulkRegistrationService bulkRegistrationService,
+                                    TokenRevocationService tokenRevocationService,
+                                    TokenService tokenService,
+                                    RefreshTokenService refreshTokenService,
+                                    AuditTrail auditTrail) {
         this.userService = userService;
+        this.bulkRegistrationService = bulkRegistrationService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.tokenService = tokenService;
+        this.refreshTokenService = refreshTokenService;
+        this.auditTrail = auditTrail;
     }
 
     // Authenticates the user and returns a JWT token
@@ -36,6 +63,14 @@ public class AuthenticationController {
         return ResponseEntity.ok(response);
     }
 
+    // Exchanges a refresh token for a new access token and a new refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody @Valid RefreshTokenDTO data){
+        var response = refreshTokenService.refresh(data.refreshToken());
+
+        return ResponseEntity.ok(response);
+    }
+
     // Registers a new user in the system
     @PostMapping("/register")
     public ResponseEntity<Void> register(@RequestBody @Valid RegisterDTO data){
@@ -45,4 +80,42 @@ public class AuthenticationController {
 
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
-}
\ No newline at end of file
+
+    // Registers a batch of users, returning the outcome of each row
+    @PostMapping("/register/bulk")
+    public ResponseEntity<BulkRegisterResponseDTO> registerBulk(@RequestBody @Valid BulkRegisterDTO data){
+        log.info("Bulk user registration requested. rows={}", data.users().size());
+
+        var response = bulkRegistrationService.register(data);
+
+        return ResponseEntity.ok(response);
+    }
+
+    // Revokes the token used to authenticate this request and, when given, the refresh token family
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(Authentication authentication,
+                                       @RequestBody(required = false) @Valid RefreshTokenDTO data){
+        var token = (VerifiedToken) authentication.getCredentials();
+        log.info("Logout requested. username={}", token.subject());
+        auditTrail.record(AuditEventType.LOGOUT, token.subject(), "");
+
+        tokenRevocationService.revoke(token);
+        if (data != null) {
+            refreshTokenService.revoke(data.refreshToken());
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+
+    // Revokes any still valid token, e.g. one that has leaked; invalid or expired tokens need no revocation
+    @PostMapping("/tokens/revoke")
+    public ResponseEntity<Void> revoke(@RequestBody @Valid RevokeTokenDTO data){
+        var token = tokenService.verify(data.token());
+        if (token != null) {
+            log.info("Token revocation requested. username={}", token.subject());
+            tokenRevocationService.revoke(token);
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+}
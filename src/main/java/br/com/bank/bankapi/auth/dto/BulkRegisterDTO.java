@@ -0,0 +1,11 @@
+package br.com.bank.bankapi.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Rows are validated one by one by the service, so that an invalid row does not reject the whole batch
+public record BulkRegisterDTO(
+        @NotEmpty @Size(max = 10000) List<RegisterDTO> users) {
+}
@@ -0,0 +1,6 @@
+package br.com.bank.bankapi.auth.dto;
+
+import java.util.List;
+
+public record BulkRegisterResponseDTO(int created, int rejected, List<BulkRegisterResultDTO> results) {
+}
@@ -0,0 +1,4 @@
+package br.com.bank.bankapi.auth.dto;
+
+public record BulkRegisterResultDTO(int index, String username, BulkRegisterStatus status, String message) {
+}
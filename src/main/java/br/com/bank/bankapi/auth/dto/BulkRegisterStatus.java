@@ -0,0 +1,8 @@
+package br.com.bank.bankapi.auth.dto;
+
+public enum BulkRegisterStatus {
+    CREATED,
+    INVALID,
+    DUPLICATE,
+    FAILED
+}
@@ -1,4 +1,4 @@
 package br.com.bank.bankapi.auth.dto;
 
-public record LoginResponseDTO(String token) {
-}
\ No newline at end of file
+public record LoginResponseDTO(String token, String refreshToken) {
+}
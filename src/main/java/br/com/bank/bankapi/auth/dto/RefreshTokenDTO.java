@@ -0,0 +1,6 @@
+package br.com.bank.bankapi.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenDTO(@NotBlank String refreshToken) {
+}
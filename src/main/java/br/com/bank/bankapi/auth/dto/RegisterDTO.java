@@ -7,8 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 public record RegisterDTO(
-        @NotBlank String username,
-        @NotBlank @Email String email,
+        @NotBlank @Size(min = 3, max = 50) String username,
+        @NotBlank @Email @Size(max = 120) String email,
         @NotBlank @Size(min = 8, max = 72) String password,
         @NotNull Role role) {
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package br.com.bank.bankapi.auth.exception;
 
-public class InvalidCredentialsException extends RuntimeException {
+import br.com.bank.bankapi.exception.StacklessException;
+
+public class InvalidCredentialsException extends StacklessException {
     public InvalidCredentialsException(String message) {
         super(message);
     }
@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.auth.exception;
+
+import br.com.bank.bankapi.exception.StacklessException;
+
+public class InvalidRefreshTokenException extends StacklessException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
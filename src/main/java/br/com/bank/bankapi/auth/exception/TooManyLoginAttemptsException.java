@@ -0,0 +1,16 @@
+package br.com.bank.bankapi.auth.exception;
+
+import br.com.bank.bankapi.exception.StacklessException;
+
+public class TooManyLoginAttemptsException extends StacklessException {
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.bank.bankapi.auth.model;
+
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
+import br.com.bank.bankapi.user.model.User;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    private UUID id;
+
+    @Column(nullable = false, unique = true, updatable = false)
+    private byte[] tokenHash;
+
+    @Column(nullable = false, updatable = false)
+    private UUID familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    private User user;
+
+    @Column(nullable = false, updatable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant usedAt;
+
+    private Instant revokedAt;
+
+    protected RefreshToken() {
+    }
+
+    public RefreshToken(byte[] tokenHash, UUID familyId, User user, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.user = user;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public byte[] getTokenHash() {
+        return tokenHash;
+    }
+
+    public UUID getFamilyId() {
+        return familyId;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.bank.bankapi.auth.repository;
+
+import br.com.bank.bankapi.auth.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    // Loads the token together with its user, in a single query by the unique hash
+    @Query("select r from RefreshToken r join fetch r.user where r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithUserByTokenHash(byte[] tokenHash);
+
+    // Marks the token as used only if nobody did it first; 0 means another request already rotated it
+    @Modifying
+    @Query("""
+            update RefreshToken r set r.usedAt = :now
+            where r.id = :id and r.usedAt is null and r.revokedAt is null
+            """)
+    int markUsed(UUID id, Instant now);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.familyId = :familyId and r.revokedAt is null")
+    int revokeFamily(UUID familyId, Instant now);
+
+    // Deletes one batch of expired rows; SKIP LOCKED lets several instances purge concurrently without waiting
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from refresh_tokens
+            where id in (
+                select id from refresh_tokens
+                where expires_at < :now
+                limit :batchSize
+                for update skip locked)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(Instant now, int batchSize);
+}
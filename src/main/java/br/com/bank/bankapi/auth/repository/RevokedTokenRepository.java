@@ -0,0 +1,41 @@
+package br.com.bank.bankapi.auth.repository;
+
+import br.com.bank.bankapi.auth.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+
+    // Revoking the same token twice is a no-op, so logout can be retried safely
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into revoked_tokens (token_id, username, expires_at)
+            values (:tokenId, :username, :expiresAt)
+            on conflict (token_id) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(UUID tokenId, String username, Instant expiresAt);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(Instant since);
+
+    // Deletes one batch of expired rows; SKIP LOCKED lets several instances purge concurrently without waiting
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from revoked_tokens
+            where token_id in (
+                select token_id from revoked_tokens
+                where expires_at < :now
+                limit :batchSize
+                for update skip locked)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(Instant now, int batchSize);
+}
@@ -0,0 +1,134 @@
+package br.com.bank.bankapi.auth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Concurrency limit for one class of traffic that follows the latency it observes, in the manner of TCP Vegas: while
+// requests complete about as fast as they usually do, the limit grows by its square root per window; when the recent
+// latency rises above tolerance times the long-term baseline, queueing has begun somewhere downstream (connection
+// pool, database) and the limit shrinks in proportion, down to half per window. Growth is skipped when less than half
+// of the limit was in use, since an idle limit says nothing about capacity. Requests above the limit are refused at
+// once, so the ones admitted keep their latency instead of everyone waiting in line.
+public class AdaptiveConcurrencyLimit {
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    // The baseline follows the recent latency slowly, over about this many windows, and drops faster after recovery
+    private static final double BASELINE_WINDOWS = 100;
+    private static final double RECOVERY_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final Counter rejected;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by lock: the window being collected and the estimates it updates
+    private final ReentrantLock lock = new ReentrantLock();
+    private double estimatedLimit;
+    private double baselineRttNanos;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimit(String traffic, int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    Duration window, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowStart = clock.getAsLong();
+
+        this.rejected = Counter.builder("http.server.concurrency.rejected")
+                .tag("traffic", traffic)
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .tag("traffic", traffic)
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .tag("traffic", traffic)
+                .register(meterRegistry);
+    }
+
+    // Admits the request when it fits under the current limit; null when it must be refused
+    public Permit tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return null;
+        }
+        return new Permit(clock.getAsLong(), current);
+    }
+
+    // Ends an admitted request; its latency feeds the limit only when it measures the work done for it
+    public void release(Permit permit, boolean sample) {
+        inFlight.decrementAndGet();
+        if (!sample) {
+            return;
+        }
+        long now = clock.getAsLong();
+        lock.lock();
+        try {
+            windowRttSum += now - permit.startNanos();
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, permit.inFlight());
+            if (now - windowStart >= windowNanos && windowSamples >= MIN_WINDOW_SAMPLES) {
+                update();
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        double recentRtt = (double) windowRttSum / windowSamples;
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = recentRtt;
+        } else {
+            baselineRttNanos += (recentRtt - baselineRttNanos) / BASELINE_WINDOWS;
+            if (baselineRttNanos > 2 * recentRtt) {
+                baselineRttNanos *= RECOVERY_DECAY;
+            }
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRttNanos / recentRtt));
+        if (gradient == 1.0 && windowMaxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    // When the request was admitted, and how many requests were in flight with it
+    public record Permit(long startNanos, int inFlight) {
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.bank.bankapi.auth.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// Sheds load before it queues: requests beyond the adaptive concurrency limit get 503 with Retry-After at once, ahead
+// of token verification and any database work. Login, registration and refresh spend their time hashing passwords and
+// are limited apart from the authenticated API, so a burst on one cannot starve the other. Actuator endpoints are
+// never limited, so health checks and the metrics scrape keep answering under overload.
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/auth/";
+    private static final String ACTUATOR_PATH = "/actuator/";
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final AdaptiveConcurrencyLimit authLimit;
+    private final AdaptiveConcurrencyLimit apiLimit;
+
+    public ConcurrencyLimitFilter(@Value("${api.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${api.concurrency-limit.tolerance:1.5}") double tolerance,
+                                  @Value("${api.concurrency-limit.window:1s}") Duration window,
+                                  @Value("${api.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Value("${api.concurrency-limit.auth.initial-limit:20}") int authInitialLimit,
+                                  @Value("${api.concurrency-limit.auth.min-limit:2}") int authMinLimit,
+                                  @Value("${api.concurrency-limit.auth.max-limit:200}") int authMaxLimit,
+                                  @Value("${api.concurrency-limit.api.initial-limit:100}") int apiInitialLimit,
+                                  @Value("${api.concurrency-limit.api.min-limit:10}") int apiMinLimit,
+                                  @Value("${api.concurrency-limit.api.max-limit:1000}") int apiMaxLimit,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.authLimit = new AdaptiveConcurrencyLimit("auth", authInitialLimit, authMinLimit, authMaxLimit,
+                tolerance, window, System::nanoTime, meterRegistry);
+        this.apiLimit = new AdaptiveConcurrencyLimit("api", apiInitialLimit, apiMinLimit, apiMaxLimit,
+                tolerance, window, System::nanoTime, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith(ACTUATOR_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var limit = request.getRequestURI().startsWith(AUTH_PATH) ? authLimit : apiLimit;
+        var permit = limit.tryAcquire();
+        if (permit == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Server is overloaded, try again later");
+            return;
+        }
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            // Only a request that did its work measures capacity: a streamed response is still being written when this
+            // returns, and errors, rejections (401, 429) and failures (5xx) return early or stall on a timeout
+            limit.release(permit, completed && !request.isAsyncStarted() && response.getStatus() < 400);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.bank.bankapi.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket per key implemented as GCRA (generic cell rate algorithm): the whole bucket is one AtomicLong holding
+// the theoretical arrival time of the next request, updated with a CAS, so no lock is taken on any path.
+// Idle keys are evicted after the time a full bucket needs to refill, when they carry no state worth keeping.
+public class KeyedRateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+
+    // capacity requests may arrive at once, after which one more is allowed every refillPeriod / capacity
+    public KeyedRateLimiter(int capacity, Duration refillPeriod, long maxKeys) {
+        this.emissionIntervalNanos = refillPeriod.toNanos() / capacity;
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillPeriod)
+                .build();
+    }
+
+    // Takes one token for the key; returns 0 when allowed, otherwise how many nanoseconds to wait before retrying
+    public long tryAcquire(String key) {
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + emissionIntervalNanos;
+            long waitNanos = next - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long estimatedKeys() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.bank.bankapi.auth.security;
+
+import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+// Applies the per-username login limit as soon as the login body is read, before the controller is invoked
+@ControllerAdvice
+public class LoginRateLimitBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    public LoginRateLimitBodyAdvice(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == AuthenticationDTO.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        var username = ((AuthenticationDTO) body).username();
+        if (username != null) {
+            loginRateLimiter.checkUsername(username);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.bank.bankapi.auth.security;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class LoginRateLimitConfiguration implements WebMvcConfigurer {
+
+    private final LoginRateLimitInterceptor loginRateLimitInterceptor;
+
+    public LoginRateLimitConfiguration(LoginRateLimitInterceptor loginRateLimitInterceptor) {
+        this.loginRateLimitInterceptor = loginRateLimitInterceptor;
+    }
+
+    // Registers the per-client login limit on the login route only
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(loginRateLimitInterceptor).addPathPatterns("/auth/login");
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.bank.bankapi.auth.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Applies the per-client login limit before the request body is even read. The client is the remote address as
+// resolved by Tomcat's RemoteIpValve (server.forward-headers-strategy), which trusts X-Forwarded-For only from the
+// configured internal proxies
+@Component
+public class LoginRateLimitInterceptor implements HandlerInterceptor {
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    public LoginRateLimitInterceptor(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if ("POST".equals(request.getMethod())) {
+            loginRateLimiter.checkClient(request.getRemoteAddr());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.bank.bankapi.auth.security;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.exception.TooManyLoginAttemptsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Login attempt limits per client IP and per username, checked before the controller so rejected attempts never
+// reach the database or BCrypt. The IP limit stops a single source, the username limit stops stuffing spread over
+// many addresses against one account. Every rejection is counted, but only the first one per key in each refill period
+// goes to the audit trail, so an attack cannot flood it.
+@Component
+public class LoginRateLimiter {
+
+    private final KeyedRateLimiter byClient;
+    private final KeyedRateLimiter byUsername;
+    private final Counter clientRejections;
+    private final Counter usernameRejections;
+    private final Cache<String, Boolean> auditedClients;
+    private final Cache<String, Boolean> auditedUsernames;
+    private final AuditTrail auditTrail;
+
+    public LoginRateLimiter(@Value("${api.security.login-rate-limit.client.capacity:30}") int clientCapacity,
+                            @Value("${api.security.login-rate-limit.client.refill-period:1m}") Duration clientRefillPeriod,
+                            @Value("${api.security.login-rate-limit.username.capacity:10}") int usernameCapacity,
+                            @Value("${api.security.login-rate-limit.username.refill-period:1m}") Duration usernameRefillPeriod,
+                            @Value("${api.security.login-rate-limit.max-keys:100000}") long maxKeys,
+                            MeterRegistry meterRegistry,
+                            AuditTrail auditTrail) {
+        this.auditTrail = auditTrail;
+        this.byClient = new KeyedRateLimiter(clientCapacity, clientRefillPeriod, maxKeys);
+        this.byUsername = new KeyedRateLimiter(usernameCapacity, usernameRefillPeriod, maxKeys);
+        this.auditedClients = auditedKeys(clientRefillPeriod, maxKeys);
+        this.auditedUsernames = auditedKeys(usernameRefillPeriod, maxKeys);
+
+        this.clientRejections = Counter.builder("security.login.rate-limited")
+                .tag("key", "client")
+                .register(meterRegistry);
+        this.usernameRejections = Counter.builder("security.login.rate-limited")
+                .tag("key", "username")
+                .register(meterRegistry);
+        Gauge.builder("security.login.rate-limit.keys", byClient, KeyedRateLimiter::estimatedKeys)
+                .tag("key", "client")
+                .register(meterRegistry);
+        Gauge.builder("security.login.rate-limit.keys", byUsername, KeyedRateLimiter::estimatedKeys)
+                .tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    // Throws TooManyLoginAttemptsException when the client address has used up its login attempts
+    public void checkClient(String clientAddress) {
+        long waitNanos = byClient.tryAcquire(clientAddress);
+        if (waitNanos > 0) {
+            clientRejections.increment();
+            if (auditedClients.asMap().putIfAbsent(clientAddress, Boolean.TRUE) == null) {
+                auditTrail.record(AuditEventType.LOGIN_RATE_LIMITED, "", "client=" + clientAddress);
+            }
+            throw tooManyAttempts(waitNanos);
+        }
+    }
+
+    // Throws TooManyLoginAttemptsException when the username has used up its login attempts
+    public void checkUsername(String username) {
+        // Usernames are keyed case-insensitively so that case variations do not get separate buckets
+        String key = username.toLowerCase(Locale.ROOT);
+        long waitNanos = byUsername.tryAcquire(key);
+        if (waitNanos > 0) {
+            usernameRejections.increment();
+            if (auditedUsernames.asMap().putIfAbsent(key, Boolean.TRUE) == null) {
+                auditTrail.record(AuditEventType.LOGIN_RATE_LIMITED, username, "username");
+            }
+            throw tooManyAttempts(waitNanos);
+        }
+    }
+
+    // Keys whose rejection was audited in the current refill period
+    private static Cache<String, Boolean> auditedKeys(Duration refillPeriod, long maxKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(refillPeriod)
+                .build();
+    }
+
+    private static TooManyLoginAttemptsException tooManyAttempts(long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new TooManyLoginAttemptsException("Too many login attempts, try again later", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.bank.bankapi.auth.security;
+
+import br.com.bank.bankapi.persistence.ReadYourWrites;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+
+    private final AsyncCache<String, UserPrincipal> principals;
+    private final Function<String, UserPrincipal> loader;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${api.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${api.security.principal-cache.ttl:${api.entity-cache.users.ttl:30s}}") Duration ttl,
+                          ReadYourWrites readYourWrites,
+                          MeterRegistry meterRegistry) {
+        // Only misses reach the database; their latency is what the filter pays on a cold or expired entry
+        Timer loadTimer = Timer.builder("security.principal.load")
+                .register(meterRegistry);
+        this.loader = username -> loadTimer.record(() ->
+                readYourWrites.read(username, () -> userRepository.findPrincipalByUsername(username)));
+
+        // Unknown usernames are not cached: a load completed with null is dropped and the next request queries again
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "security.principals");
+    }
+
+    // Returns the principal for the given username, loading it from the database only on a cache miss. The query runs
+    // on the calling thread once the entry is claimed, not inside the cache's compute, which would hold a map lock for
+    // the whole query and pin a virtual thread to its carrier. Concurrent misses for a user still share one load
+    public UserPrincipal get(String username) {
+        var claimed = new CompletableFuture<UserPrincipal>();
+        var principal = principals.get(username, (key, executor) -> claimed);
+        if (principal == claimed) {
+            try {
+                claimed.complete(loader.apply(username));
+            } catch (RuntimeException e) {
+                claimed.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return principal.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Drops the cached principal of a user, by username and by id in case the username has changed
+    public void invalidate(UUID id, String username) {
+        if (username != null) {
+            principals.synchronous().invalidate(username);
+        }
+        if (id != null) {
+            principals.synchronous().asMap().values().removeIf(principal -> id.equals(principal.id()));
+        }
+    }
+}
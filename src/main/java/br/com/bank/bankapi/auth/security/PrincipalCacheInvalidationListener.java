@@ -0,0 +1,54 @@
+package br.com.bank.bankapi.auth.security;
+
+import br.com.bank.bankapi.persistence.ReadYourWrites;
+import br.com.bank.bankapi.user.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA entity listener that keeps the principal cache consistent whenever a user is saved, deactivated or removed, and
+// sends the next lookups of that user to the primary until the replicas have caught up
+@Component
+public class PrincipalCacheInvalidationListener {
+
+    // Resolved lazily: the cache depends on UserRepository, which needs the EntityManagerFactory owning this listener
+    private final ObjectProvider<PrincipalCache> principalCacheProvider;
+    private final ReadYourWrites readYourWrites;
+
+    public PrincipalCacheInvalidationListener(ObjectProvider<PrincipalCache> principalCacheProvider,
+                                              ReadYourWrites readYourWrites) {
+        this.principalCacheProvider = principalCacheProvider;
+        this.readYourWrites = readYourWrites;
+    }
+
+    // A new user can only be cached as a miss, which is never stored, so only its username needs to be dropped
+    @PostPersist
+    public void onUserCreated(User user) {
+        readYourWrites.recordWrite(user.getUsername());
+        principalCacheProvider.getObject().invalidate(null, user.getUsername());
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        var id = user.getId();
+        var username = user.getUsername();
+        var principalCache = principalCacheProvider.getObject();
+        readYourWrites.recordWrite(username);
+        principalCache.invalidate(id, username);
+
+        // Invalidates again after commit, so a concurrent request cannot cache the row as it was before the change
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(id, username);
+                }
+            });
+        }
+    }
+}
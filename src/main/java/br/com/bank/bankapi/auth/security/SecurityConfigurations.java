@@ -1,17 +1,25 @@
 package br.com.bank.bankapi.auth.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.SingleResultAuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
@@ -20,19 +28,43 @@ public class SecurityConfigurations {
     @Autowired
     SecurityFilter securityFilter;
 
+    @Autowired
+    ConcurrencyLimitFilter concurrencyLimitFilter;
+
     // Configures the security filter chain, public routes and JWT-based authentication
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, Environment environment) throws Exception {
+        // Actuator endpoints are served on management.server.port, which is meant to be reachable only by the
+        // orchestrator and the Prometheus scraper; when it shares the application port the scrape requires ADMIN
+        AuthorizationManager<RequestAuthorizationContext> scrape =
+                ManagementPortType.get(environment) == ManagementPortType.DIFFERENT
+                        ? SingleResultAuthorizationManager.permitAll()
+                        : AuthorityAuthorizationManager.hasRole("ADMIN");
         return  httpSecurity
                 // Disables CSRF protection since the API is stateless and uses JWT instead of sessions
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
+                        // The request was authorized before it went async; the dispatch that completes a streamed
+                        // response carries no token and must not be rejected halfway through the body
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").access(scrape)
+                        .requestMatchers(HttpMethod.POST, "/auth/register/bulk").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/auth/tokens/revoke").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/refresh").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/customers/*/statement").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/customers/**").hasAnyRole("MANAGER", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/accounts/internal").hasRole("ADMIN")
+                        .requestMatchers("/ledger/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/accounts").hasAnyRole("MANAGER", "ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
+                // Excess requests are shed before their token is verified
+                .addFilterBefore(concurrencyLimitFilter, SecurityFilter.class)
                 .build();
     }
 
@@ -42,9 +74,13 @@ public class SecurityConfigurations {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
-    // Defines the password encoder using the BCrypt algorithm
+    // Defines the password encoder using the BCrypt algorithm, executed on a bounded hashing pool
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${api.security.password-hashing.threads:0}") int threads,
+                                           @Value("${api.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${api.security.password-hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                           MeterRegistry meterRegistry){
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 }
\ No newline at end of file
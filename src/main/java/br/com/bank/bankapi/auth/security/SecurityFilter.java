@@ -1,27 +1,41 @@
 package br.com.bank.bankapi.auth.security;
 
-import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
     TokenService tokenService;
-    UserRepository userRepository;
+    PrincipalCache principalCache;
+    TokenRevocationList revocationList;
+    Timer authenticatedTimer;
+    Timer rejectedTimer;
 
-    public SecurityFilter(TokenService tokenService, UserRepository userRepository) {
+    public SecurityFilter(TokenService tokenService,
+                          PrincipalCache principalCache,
+                          TokenRevocationList revocationList,
+                          MeterRegistry meterRegistry) {
         this.tokenService = tokenService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.authenticatedTimer = Timer.builder("security.filter.authentication")
+                .tag("outcome", "authenticated")
+                .register(meterRegistry);
+        this.rejectedTimer = Timer.builder("security.filter.authentication")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
     }
 
     // Executes the filter on each request, validating the JWT token and authenticating the user in the security context
@@ -29,11 +43,20 @@ public class SecurityFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var token = this.recoverToken(request);
         if(token != null){
-            var login = tokenService.validateToken(token);
-            UserDetails user = userRepository.findByUsername(login);
+            long start = System.nanoTime();
+            var verified = tokenService.verify(token);
+            var user = verified != null && !revocationList.isRevoked(verified.tokenId(), verified.expiresAt())
+                    ? principalCache.get(verified.subject())
+                    : null;
 
-            var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (user != null && user.active()) {
+                // The verified token is kept as credentials so that logout can revoke it without parsing it again
+                var authentication = new UsernamePasswordAuthenticationToken(user, verified, user.authorities());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                authenticatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         }
         filterChain.doFilter(request, response);
     }
@@ -44,4 +67,4 @@ public class SecurityFilter extends OncePerRequestFilter {
         if(authHeader == null) return null;
         return authHeader.replace("Bearer ", "");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package br.com.bank.bankapi.auth.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory mirror of the revoked token ids, grouped in buckets by the minute in which each token expires.
+// A lookup is two hash probes on concurrent maps, without locks; once a minute has passed, every token in that
+// bucket has expired on its own and the whole bucket is dropped at once.
+@Component
+public class TokenRevocationList {
+
+    private final ConcurrentHashMap<Long, Set<UUID>> bucketsByExpiryMinute = new ConcurrentHashMap<>();
+
+    // Returns true when the token was revoked; tokens issued without an id cannot be revoked
+    public boolean isRevoked(UUID tokenId, Instant expiresAt) {
+        if (tokenId == null || bucketsByExpiryMinute.isEmpty()) {
+            return false;
+        }
+        Set<UUID> bucket = bucketsByExpiryMinute.get(expiryMinute(expiresAt));
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    public void add(UUID tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        bucketsByExpiryMinute
+                .computeIfAbsent(expiryMinute(expiresAt), minute -> ConcurrentHashMap.newKeySet())
+                .add(tokenId);
+    }
+
+    public int size() {
+        return bucketsByExpiryMinute.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Drops the buckets of minutes that are over; a token expiring in the current minute is still checked
+    @Scheduled(fixedDelayString = "${api.security.token.revocation.cleanup-interval:1m}")
+    public void dropExpiredBuckets() {
+        long currentMinute = expiryMinute(Instant.now());
+        bucketsByExpiryMinute.keySet().removeIf(minute -> minute < currentMinute);
+    }
+
+    private static long expiryMinute(Instant expiresAt) {
+        return expiresAt.getEpochSecond() / 60;
+    }
+}
@@ -1,32 +1,84 @@
 package br.com.bank.bankapi.auth.security;
 
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
 import br.com.bank.bankapi.user.model.User;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import com.auth0.jwt.algorithms.Algorithm;
 
 
 @Service
 public class TokenService {
-    @Value("${api.security.token.secret}")
-    private String secret;
+    private static final String ISSUER = "auth-api";
 
-    // Generates a JWT token for the given user, containing the username as subject and an expiration date
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Cache<TokenDigest, VerifiedToken> verifiedTokens;
+    private final Timer signTimer;
+    private final Timer verifyValidTimer;
+    private final Timer verifyInvalidTimer;
+
+    public TokenService(@Value("${api.security.token.secret}") String secret,
+                        @Value("${api.security.token.cache.max-size:10000}") long cacheMaxSize,
+                        MeterRegistry meterRegistry) {
+        // Algorithm and verifier are immutable and thread-safe, so they are built once and shared by all requests
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.creating((TokenDigest digest, VerifiedToken verified) ->
+                        Duration.between(Instant.now(), verified.expiresAt())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+
+        // Timers are registered once so the hot path only records, without a meter lookup per request
+        this.signTimer = Timer.builder("security.jwt")
+                .tag("operation", "sign")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.verifyValidTimer = Timer.builder("security.jwt")
+                .tag("operation", "verify")
+                .tag("outcome", "valid")
+                .register(meterRegistry);
+        this.verifyInvalidTimer = Timer.builder("security.jwt")
+                .tag("operation", "verify")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+    }
+
+    // Generates a JWT token for the given user, containing the username as subject, a unique id and an expiration date
     public String generateToken(User user){
+        long start = System.nanoTime();
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.create()
-                    .withIssuer("auth-api")
+            String token = JWT.create()
+                    .withIssuer(ISSUER)
+                    .withJWTId(TimeOrderedUuidGenerator.next().toString())
                     .withSubject(user.getUsername())
                     .withExpiresAt(genExpirationDate())
                     .sign(algorithm);
+            signTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return token;
         } catch (JWTCreationException exception) {
             throw new RuntimeException("Error while generating token", exception);
         }
@@ -34,14 +86,42 @@ public class TokenService {
 
     // Validates the received JWT token and returns the subject (username) if it is valid
     public String validateToken(String token){
+        var verified = verify(token);
+        return verified != null ? verified.subject() : null;
+    }
+
+    // Validates the received JWT token and returns its subject, id and expiration date, or null if it is invalid
+    public VerifiedToken verify(String token){
+        // A token that was already verified is served from the cache until its own expiration date
+        var digest = TokenDigest.of(token);
+        var cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Only cache misses are timed, hits are already counted by the cache metrics
+        long start = System.nanoTime();
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT decoded = verifier.verify(token);
+            verifyValidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            var verified = new VerifiedToken(decoded.getSubject(), tokenId(decoded.getId()), decoded.getExpiresAtAsInstant());
+            if (verified.expiresAt() != null) {
+                verifiedTokens.put(digest, verified);
+            }
+            return verified;
         } catch (JWTVerificationException exception){
+            verifyInvalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
+
+    private static UUID tokenId(String jti) {
+        if (jti == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
             return null;
         }
     }
@@ -50,4 +130,4 @@ public class TokenService {
     private Instant genExpirationDate(){
         return LocalDateTime.now().plusMinutes(20).toInstant(ZoneOffset.of("-03:00"));
     }
-}
\ No newline at end of file
+}
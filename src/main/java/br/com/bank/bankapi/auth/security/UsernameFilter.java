@@ -0,0 +1,152 @@
+package br.com.bank.bankapi.auth.security;
+
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free Bloom filter of every existing username. A negative answer is definite, so login and registration can
+// skip the database for usernames that were never registered; a positive answer still has to be confirmed there.
+// Users created on other instances arrive through UsernameRegistrationListener as their insert commits, and through
+// the periodic resync. Until the startup warm-up completes every lookup answers "maybe", which keeps it correct meanwhile.
+@Component
+public class UsernameFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameFilter.class);
+
+    private static final int WARM_UP_PAGE_SIZE = 10_000;
+    private static final long RESYNC_OVERLAP_SECONDS = 5;
+
+    private final UserRepository repository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final Counter definiteMisses;
+    private volatile boolean ready;
+    private volatile Instant syncedUntil;
+
+    public UsernameFilter(UserRepository repository,
+                          @Value("${api.security.username-filter.expected-insertions:1000000}") long expectedInsertions,
+                          @Value("${api.security.username-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                          MeterRegistry meterRegistry) {
+        this.repository = repository;
+
+        // Standard sizing: m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hash functions, rounded up to whole words
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        this.definiteMisses = Counter.builder("security.username-filter.definite-misses")
+                .register(meterRegistry);
+        Gauge.builder("security.username-filter.ready", this, filter -> filter.ready ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    // Returns false only when the username is certainly not registered
+    public boolean mightContain(String username) {
+        if (!ready) {
+            return true;
+        }
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                definiteMisses.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Records a username; safe to call concurrently with lookups and before the warm-up has finished
+    public void put(String username) {
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.weakCompareAndSetVolatile(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Loads every username once the application is up, in keyset pages so no long transaction or cursor is held
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        Instant startedAt = Instant.now().minusSeconds(RESYNC_OVERLAP_SECONDS);
+        long loaded = 0;
+        String after = "";
+        List<String> page;
+        do {
+            page = repository.findUsernamesAfter(after, Limit.of(WARM_UP_PAGE_SIZE));
+            page.forEach(this::put);
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == WARM_UP_PAGE_SIZE);
+
+        syncedUntil = startedAt;
+        ready = true;
+        log.info("Username filter warmed up. usernames={} bits={} hashes={} elapsedMs={}",
+                loaded, bitCount, hashCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Picks up users inserted outside this instance (other nodes, scripts), which the entity listener never sees
+    @Scheduled(fixedDelayString = "${api.security.username-filter.resync-interval:30s}")
+    public void resync() {
+        var since = syncedUntil;
+        if (since == null) {
+            return;
+        }
+        // Windows overlap slightly so a row committed late with an earlier created_at is not missed
+        Instant startedAt = Instant.now().minusSeconds(RESYNC_OVERLAP_SECONDS);
+        repository.findUsernamesCreatedSince(since).forEach(this::put);
+        syncedUntil = startedAt;
+    }
+
+    private long index(int combinedHash) {
+        return Math.floorMod((long) combinedHash, bitCount);
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur3 mix so both 32-bit halves are well distributed
+    private static long hash(String username) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
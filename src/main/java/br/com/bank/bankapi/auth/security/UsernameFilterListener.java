@@ -0,0 +1,26 @@
+package br.com.bank.bankapi.auth.security;
+
+import br.com.bank.bankapi.user.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener that adds every inserted or renamed username to the username filter
+@Component
+public class UsernameFilterListener {
+
+    // Resolved lazily for the same reason as the principal cache: the filter depends on UserRepository
+    private final ObjectProvider<UsernameFilter> usernameFilterProvider;
+
+    public UsernameFilterListener(ObjectProvider<UsernameFilter> usernameFilterProvider) {
+        this.usernameFilterProvider = usernameFilterProvider;
+    }
+
+    // Added before commit: a rolled back insert only leaves a false positive, which the database then answers
+    @PostPersist
+    @PostUpdate
+    public void onUserSaved(User user) {
+        usernameFilterProvider.getObject().put(user.getUsername());
+    }
+}
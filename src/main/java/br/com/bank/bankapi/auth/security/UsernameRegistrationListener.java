@@ -0,0 +1,132 @@
+package br.com.bank.bankapi.auth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Adds usernames registered on other instances to the username filter as soon as their insert commits. A trigger on
+// users notifies the username_registered channel (V11); this instance listens on a dedicated connection to the
+// primary, outside the pool, since it is held for as long as the application runs. Notifications sent while it is
+// disconnected are lost, so every reconnect resyncs the filter, and the scheduled resync remains the backstop.
+@Component
+@ConditionalOnProperty(name = "api.security.username-filter.listen", havingValue = "true", matchIfMissing = true)
+public class UsernameRegistrationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameRegistrationListener.class);
+
+    static final String CHANNEL = "username_registered";
+
+    private final UsernameFilter usernameFilter;
+    private final DataSourceProperties dataSourceProperties;
+    private final int pollTimeoutMillis;
+    private final long retryDelayMillis;
+    private final Counter received;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public UsernameRegistrationListener(UsernameFilter usernameFilter,
+                                        DataSourceProperties dataSourceProperties,
+                                        @Value("${api.security.username-filter.listen-poll-timeout:1s}") Duration pollTimeout,
+                                        @Value("${api.security.username-filter.listen-retry-delay:5s}") Duration retryDelay,
+                                        MeterRegistry meterRegistry) {
+        this.usernameFilter = usernameFilter;
+        this.dataSourceProperties = dataSourceProperties;
+        this.pollTimeoutMillis = (int) pollTimeout.toMillis();
+        this.retryDelayMillis = retryDelay.toMillis();
+        this.received = Counter.builder("security.username-filter.notifications").register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "username-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    // Closing the connection wakes the listener out of a pending poll
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            try {
+                listenerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        boolean reconnecting = false;
+        while (running) {
+            try (var listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listening;
+                try (var statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    usernameFilter.resync();
+                    log.info("Username listener reconnected");
+                }
+                var notifications = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] batch = notifications.getNotifications(pollTimeoutMillis);
+                    if (batch != null) {
+                        for (PGNotification notification : batch) {
+                            usernameFilter.put(notification.getParameter());
+                        }
+                        received.increment(batch.length);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Username listener disconnected, retrying in {} ms", retryDelayMillis, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Already broken; the listener loop is stopping anyway
+        }
+    }
+}
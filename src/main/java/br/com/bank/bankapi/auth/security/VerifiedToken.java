@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.auth.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Result of a successful JWT verification, kept in memory until the token expires.
+// tokenId is the jti claim, absent on tokens issued before revocation support
+public record VerifiedToken(String subject, UUID tokenId, Instant expiresAt) {
+}
@@ -1,5 +1,6 @@
 package br.com.bank.bankapi.auth.service;
 
+import br.com.bank.bankapi.persistence.ReadYourWrites;
 import br.com.bank.bankapi.user.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,15 +11,17 @@ import org.springframework.stereotype.Service;
 public class AuthorizationService implements UserDetailsService {
 
     private final UserRepository repository;
+    private final ReadYourWrites readYourWrites;
 
-    public AuthorizationService(UserRepository repository) {
+    public AuthorizationService(UserRepository repository, ReadYourWrites readYourWrites) {
         this.repository = repository;
+        this.readYourWrites = readYourWrites;
     }
 
     // Loads user details by username for Spring Security authentication
     @Override
     public UserDetails loadUserByUsername(String username) {
-        var user = repository.findByUsername(username);
+        var user = readYourWrites.read(username, () -> repository.findByUsername(username));
         if (user == null) {
             throw new UsernameNotFoundException("User not found: " + username);
         }
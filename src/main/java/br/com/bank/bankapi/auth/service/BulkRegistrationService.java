@@ -0,0 +1,171 @@
+package br.com.bank.bankapi.auth.service;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.dto.BulkRegisterDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterResponseDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterResultDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterStatus;
+import br.com.bank.bankapi.auth.dto.RegisterDTO;
+import br.com.bank.bankapi.auth.mapper.UserMapper;
+import br.com.bank.bankapi.auth.security.BoundedPasswordEncoder;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class BulkRegistrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkRegistrationService.class);
+
+    private final UserRepository repository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final AuditTrail auditTrail;
+
+    public BulkRegistrationService(UserRepository repository,
+                                   BoundedPasswordEncoder passwordEncoder,
+                                   Validator validator,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${api.registration.bulk.chunk-size:500}") int chunkSize,
+                                   AuditTrail auditTrail) {
+        this.repository = repository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.auditTrail = auditTrail;
+    }
+
+    // Registers many users at once, reporting the outcome of every row instead of failing the whole batch
+    public BulkRegisterResponseDTO register(BulkRegisterDTO data) {
+        List<RegisterDTO> rows = data.users();
+        log.info("Starting bulk registration. rows={}", rows.size());
+
+        BulkRegisterResultDTO[] results = new BulkRegisterResultDTO[rows.size()];
+        List<Integer> candidates = selectCandidates(rows, results);
+        candidates = removeExistingUsernames(rows, candidates, results);
+
+        List<String> passwords = candidates.stream().map(i -> rows.get(i).password()).toList();
+        List<String> encryptedPasswords = passwordEncoder.encodeAll(passwords);
+
+        // Chunks commit on their own, so a chunk that fails stops the batch without losing the ones already written
+        for (int start = 0; start < candidates.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, candidates.size());
+            if (!insertChunk(rows, candidates.subList(start, end), encryptedPasswords.subList(start, end), results)) {
+                markFailed(rows, candidates.subList(end, candidates.size()), results);
+                break;
+            }
+        }
+
+        int created = 0;
+        for (BulkRegisterResultDTO result : results) {
+            if (result.status() == BulkRegisterStatus.CREATED) {
+                auditTrail.record(AuditEventType.USER_REGISTERED, result.username(), rows.get(result.index()).role().name());
+                created++;
+            }
+        }
+        log.info("Bulk registration finished. rows={}, created={}", rows.size(), created);
+        return new BulkRegisterResponseDTO(created, rows.size() - created, List.of(results));
+    }
+
+    // Validates each row and drops usernames repeated inside the batch, returning the indexes still eligible
+    private List<Integer> selectCandidates(List<RegisterDTO> rows, BulkRegisterResultDTO[] results) {
+        List<Integer> candidates = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            RegisterDTO row = rows.get(i);
+            if (row == null) {
+                results[i] = new BulkRegisterResultDTO(i, null, BulkRegisterStatus.INVALID, "Empty row");
+                continue;
+            }
+            var violation = validator.validate(row).stream().findFirst();
+            if (violation.isPresent()) {
+                var error = violation.get().getPropertyPath() + ": " + violation.get().getMessage();
+                results[i] = new BulkRegisterResultDTO(i, row.username(), BulkRegisterStatus.INVALID, error);
+            } else if (!seen.add(row.username())) {
+                results[i] = new BulkRegisterResultDTO(i, row.username(), BulkRegisterStatus.DUPLICATE, "Username repeated in batch");
+            } else {
+                candidates.add(i);
+            }
+        }
+        return candidates;
+    }
+
+    // Checks every candidate username against the database with one set-based query
+    private List<Integer> removeExistingUsernames(List<RegisterDTO> rows, List<Integer> candidates, BulkRegisterResultDTO[] results) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        String[] usernames = candidates.stream().map(i -> rows.get(i).username()).toArray(String[]::new);
+        Set<String> existing = new HashSet<>(repository.findExistingUsernames(usernames));
+
+        List<Integer> remaining = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            if (existing.contains(rows.get(i).username())) {
+                results[i] = new BulkRegisterResultDTO(i, rows.get(i).username(), BulkRegisterStatus.DUPLICATE, "Username already in use");
+            } else {
+                remaining.add(i);
+            }
+        }
+        return remaining;
+    }
+
+    // Inserts a chunk as one JDBC batch; if it hits a constraint (a concurrent registration), retries row by row. Any
+    // other failure marks the chunk FAILED and returns false
+    private boolean insertChunk(List<RegisterDTO> rows, List<Integer> chunk, List<String> encryptedPasswords, BulkRegisterResultDTO[] results) {
+        try {
+            List<User> users = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                users.add(UserMapper.toEntity(rows.get(chunk.get(i)), encryptedPasswords.get(i)));
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.saveAllAndFlush(users));
+            for (int i : chunk) {
+                results[i] = new BulkRegisterResultDTO(i, rows.get(i).username(), BulkRegisterStatus.CREATED, null);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk registration chunk rejected, retrying row by row. rows={}", chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                insertRow(rows, chunk.get(i), encryptedPasswords.get(i), results);
+            }
+        } catch (RuntimeException e) {
+            log.error("Bulk registration chunk failed, skipping the remaining rows. rows={}", chunk.size(), e);
+            markFailed(rows, chunk, results);
+            return false;
+        }
+        return true;
+    }
+
+    private static void markFailed(List<RegisterDTO> rows, List<Integer> indexes, BulkRegisterResultDTO[] results) {
+        for (int i : indexes) {
+            results[i] = new BulkRegisterResultDTO(i, rows.get(i).username(), BulkRegisterStatus.FAILED, "Could not register user");
+        }
+    }
+
+    private void insertRow(List<RegisterDTO> rows, int index, String encryptedPassword, BulkRegisterResultDTO[] results) {
+        RegisterDTO row = rows.get(index);
+        try {
+            User user = UserMapper.toEntity(row, encryptedPassword);
+            transactionTemplate.executeWithoutResult(status -> repository.saveAndFlush(user));
+            results[index] = new BulkRegisterResultDTO(index, row.username(), BulkRegisterStatus.CREATED, null);
+        } catch (DataIntegrityViolationException e) {
+            results[index] = new BulkRegisterResultDTO(index, row.username(), BulkRegisterStatus.DUPLICATE, "Username already in use");
+        } catch (RuntimeException e) {
+            log.error("Bulk registration row failed. username={}", row.username(), e);
+            results[index] = new BulkRegisterResultDTO(index, row.username(), BulkRegisterStatus.FAILED, "Could not register user");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.bank.bankapi.auth.service;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.dto.LoginResponseDTO;
+import br.com.bank.bankapi.auth.exception.InvalidRefreshTokenException;
+import br.com.bank.bankapi.auth.model.RefreshToken;
+import br.com.bank.bankapi.auth.repository.RefreshTokenRepository;
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.user.exception.UserInactiveException;
+import br.com.bank.bankapi.user.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Issues and rotates opaque refresh tokens. Only the SHA-256 of a token is stored, so a database leak does not
+// expose usable tokens, and a refresh is one indexed lookup instead of a BCrypt verification.
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    // Stackless and immutable, so one instance serves every failed refresh
+    private static final InvalidRefreshTokenException INVALID_REFRESH_TOKEN =
+            new InvalidRefreshTokenException("Invalid refresh token");
+
+    private final RefreshTokenRepository repository;
+    private final TokenService tokenService;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final AuditTrail auditTrail;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository repository,
+                               TokenService tokenService,
+                               @Value("${api.security.refresh-token.ttl:7d}") Duration ttl,
+                               @Value("${api.security.refresh-token.purge-batch-size:1000}") int purgeBatchSize,
+                               AuditTrail auditTrail) {
+        this.repository = repository;
+        this.tokenService = tokenService;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.auditTrail = auditTrail;
+    }
+
+    // Starts a new token family for a successful login and returns the raw token to hand to the client
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    // Exchanges a refresh token for a new access token and a new refresh token of the same family.
+    // A token presented a second time means it was stolen or replayed, so the whole family is revoked;
+    // that revocation must survive the exception, hence no rollback for it.
+    @Transactional(noRollbackFor = {InvalidRefreshTokenException.class, UserInactiveException.class})
+    public LoginResponseDTO refresh(String rawToken) {
+        var now = Instant.now();
+        var stored = repository.findWithUserByTokenHash(hash(rawToken))
+                .orElseThrow(() -> INVALID_REFRESH_TOKEN);
+
+        if (stored.getRevokedAt() != null || !stored.getExpiresAt().isAfter(now)) {
+            throw INVALID_REFRESH_TOKEN;
+        }
+
+        var user = stored.getUser();
+        if (stored.getUsedAt() != null || repository.markUsed(stored.getId(), now) == 0) {
+            repository.revokeFamily(stored.getFamilyId(), now);
+            auditTrail.record(AuditEventType.REFRESH_TOKEN_REUSED, user.getUsername(), stored.getFamilyId().toString());
+            log.warn("Refresh token reused, token family revoked. username={} familyId={}",
+                    user.getUsername(), stored.getFamilyId());
+            throw INVALID_REFRESH_TOKEN;
+        }
+
+        if (!user.isEnabled()) {
+            repository.revokeFamily(stored.getFamilyId(), now);
+            throw UserService.USER_INACTIVE;
+        }
+
+        var refreshToken = issue(user, stored.getFamilyId());
+        auditTrail.record(AuditEventType.TOKEN_REFRESHED, user.getUsername(), stored.getFamilyId().toString());
+        log.info("Access token refreshed. username={}", user.getUsername());
+        return new LoginResponseDTO(tokenService.generateToken(user), refreshToken);
+    }
+
+    // Revokes the family of the given token, e.g. on logout; unknown tokens are ignored
+    @Transactional
+    public void revoke(String rawToken) {
+        repository.findWithUserByTokenHash(hash(rawToken))
+                .ifPresent(stored -> repository.revokeFamily(stored.getFamilyId(), Instant.now()));
+    }
+
+    // Deletes expired tokens in small batches, so no long transaction holds locks on the table.
+    // Used tokens are kept until they expire, which is what makes reuse detectable.
+    @Scheduled(fixedDelayString = "${api.security.refresh-token.purge-interval:10m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted;
+        long total = 0;
+        do {
+            deleted = repository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Expired refresh tokens purged. deleted={}", total);
+        }
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        repository.save(new RefreshToken(hash(rawToken), familyId, user, Instant.now().plus(ttl)));
+        return rawToken;
+    }
+
+    private static byte[] hash(String rawToken) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.bank.bankapi.auth.service;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.repository.RevokedTokenRepository;
+import br.com.bank.bankapi.auth.security.TokenRevocationList;
+import br.com.bank.bankapi.auth.security.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+// Persists revocations in PostgreSQL and keeps the in-memory revocation list of this instance in step with it
+@Service
+public class TokenRevocationService implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final long SYNC_OVERLAP_SECONDS = 5;
+
+    private final RevokedTokenRepository repository;
+    private final TokenRevocationList revocationList;
+    private final int purgeBatchSize;
+    private final AuditTrail auditTrail;
+    private volatile Instant syncedUntil;
+
+    public TokenRevocationService(RevokedTokenRepository repository,
+                                  TokenRevocationList revocationList,
+                                  @Value("${api.security.token.revocation.purge-batch-size:1000}") int purgeBatchSize,
+                                  AuditTrail auditTrail) {
+        this.repository = repository;
+        this.revocationList = revocationList;
+        this.purgeBatchSize = purgeBatchSize;
+        this.auditTrail = auditTrail;
+    }
+
+    // Loads the revocations still in force before the application starts accepting requests
+    @Override
+    public void afterPropertiesSet() {
+        Instant startedAt = Instant.now().minusSeconds(SYNC_OVERLAP_SECONDS);
+        var revoked = repository.findByExpiresAtAfter(Instant.now());
+        revoked.forEach(token -> revocationList.add(token.getTokenId(), token.getExpiresAt()));
+        syncedUntil = startedAt;
+        log.info("Token revocation list loaded. revoked={}", revoked.size());
+    }
+
+    // Revokes the token for the rest of its lifetime, on this instance immediately and on the others at their next sync
+    public void revoke(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            log.warn("Token without id cannot be revoked. username={}", token.subject());
+            return;
+        }
+        repository.insertIfAbsent(token.tokenId(), token.subject(), token.expiresAt());
+        revocationList.add(token.tokenId(), token.expiresAt());
+        auditTrail.record(AuditEventType.TOKEN_REVOKED, token.subject(), token.tokenId().toString());
+        log.info("Token revoked. username={} tokenId={}", token.subject(), token.tokenId());
+    }
+
+    // Picks up revocations made on other instances
+    @Scheduled(fixedDelayString = "${api.security.token.revocation.sync-interval:5s}")
+    public void sync() {
+        var since = syncedUntil;
+        Instant startedAt = Instant.now().minusSeconds(SYNC_OVERLAP_SECONDS);
+        repository.findByRevokedAtGreaterThanEqual(since)
+                .forEach(token -> revocationList.add(token.getTokenId(), token.getExpiresAt()));
+        syncedUntil = startedAt;
+    }
+
+    // Deletes expired revocations in small batches, so no long transaction holds locks on the table
+    @Scheduled(fixedDelayString = "${api.security.token.revocation.purge-interval:10m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted;
+        long total = 0;
+        do {
+            deleted = repository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Expired token revocations purged. deleted={}", total);
+        }
+    }
+}
@@ -1,22 +1,25 @@
 package br.com.bank.bankapi.auth.service;
 
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
 import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
 import br.com.bank.bankapi.auth.dto.LoginResponseDTO;
 import br.com.bank.bankapi.auth.dto.RegisterDTO;
 import br.com.bank.bankapi.auth.exception.InvalidCredentialsException;
+import br.com.bank.bankapi.auth.security.UsernameFilter;
+import br.com.bank.bankapi.persistence.ReadYourWrites;
 import br.com.bank.bankapi.user.exception.UserAlreadyExistsException;
 import br.com.bank.bankapi.user.exception.UserInactiveException;
 import br.com.bank.bankapi.user.exception.UserNotFoundException;
 import br.com.bank.bankapi.auth.mapper.UserMapper;
 import br.com.bank.bankapi.user.model.User;
 import br.com.bank.bankapi.user.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import br.com.bank.bankapi.auth.security.TokenService;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,66 +28,108 @@ public class UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    // Stackless and immutable, so one instance of each serves every failed login (and refresh, for USER_INACTIVE)
+    private static final UserNotFoundException USER_NOT_FOUND = new UserNotFoundException("User not found");
+    static final UserInactiveException USER_INACTIVE = new UserInactiveException("User is inactive");
+    private static final InvalidCredentialsException INVALID_CREDENTIALS = new InvalidCredentialsException("Invalid username or password");
+
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
     private final TokenService tokenService;
+    private final UsernameFilter usernameFilter;
+    private final RefreshTokenService refreshTokenService;
+    private final AuditTrail auditTrail;
+    private final ReadYourWrites readYourWrites;
 
     public UserService(UserRepository repository,
                        PasswordEncoder passwordEncoder,
-                       AuthenticationManager authenticationManager,
-                       TokenService tokenService) {
+                       TokenService tokenService,
+                       UsernameFilter usernameFilter,
+                       RefreshTokenService refreshTokenService,
+                       AuditTrail auditTrail,
+                       ReadYourWrites readYourWrites) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
         this.tokenService = tokenService;
+        this.usernameFilter = usernameFilter;
+        this.refreshTokenService = refreshTokenService;
+        this.auditTrail = auditTrail;
+        this.readYourWrites = readYourWrites;
     }
 
     // Registers a new user ensuring a unique username and encrypted password
     public void register(RegisterDTO data) {
         log.info("Starting user registration. username={}", data.username());
 
-        if (repository.findByUsername(data.username()) != null) {
+        // A username the filter has never seen goes straight to the insert; a possible match is checked first
+        // so that a likely duplicate does not pay for hashing the password
+        if (usernameFilter.mightContain(data.username()) && repository.existsByUsername(data.username())) {
             log.warn("Registration failed: username already exists. username={}", data.username());
+            auditTrail.record(AuditEventType.REGISTRATION_REJECTED, data.username(), "USERNAME_TAKEN");
             throw new UserAlreadyExistsException("Username already in use");
         }
 
         String encryptedPassword = passwordEncoder.encode(data.password());
         User newUser = UserMapper.toEntity(data, encryptedPassword);
 
-        repository.save(newUser);
+        // The unique constraint on username decides concurrent registrations of the same name
+        try {
+            repository.saveAndFlush(newUser);
+        } catch (DataIntegrityViolationException e) {
+            if (!isUniqueViolation(e)) {
+                throw e;
+            }
+            log.warn("Registration failed: username already exists. username={}", data.username());
+            auditTrail.record(AuditEventType.REGISTRATION_REJECTED, data.username(), "USERNAME_TAKEN");
+            throw new UserAlreadyExistsException("Username already in use");
+        }
 
+        auditTrail.record(AuditEventType.USER_REGISTERED, data.username(), data.role().name());
         log.info("User registered successfully. username={}", data.username());
     }
 
-    // Authenticates the user and returns a JWT token, throwing an exception if credentials are invalid
+    // Authenticates the user and returns a JWT token with a refresh token, throwing an exception if credentials are invalid
     public LoginResponseDTO login(AuthenticationDTO data) {
         log.info("Starting authentication. username={}", data.username());
 
-        UserDetails user = repository.findByUsername(data.username());
+        if (!usernameFilter.mightContain(data.username())) {
+            log.warn("Authentication failed: user not found. username={}", data.username());
+            auditTrail.record(AuditEventType.LOGIN_FAILED, data.username(), "USER_NOT_FOUND");
+            throw USER_NOT_FOUND;
+        }
+
+        // The user is loaded once and the password checked here, instead of a second load by the AuthenticationManager
+        User user = readYourWrites.read(data.username(), () -> repository.findByUsername(data.username()));
 
         if (user == null) {
             log.warn("Authentication failed: user not found. username={}", data.username());
-            throw new UserNotFoundException("User not found with username: " + data.username());
+            auditTrail.record(AuditEventType.LOGIN_FAILED, data.username(), "USER_NOT_FOUND");
+            throw USER_NOT_FOUND;
         }
 
         if (!user.isEnabled()) {
             log.warn("Authentication failed: user inactive. username={}", data.username());
-            throw new UserInactiveException("User is inactive");
+            auditTrail.record(AuditEventType.LOGIN_FAILED, data.username(), "USER_INACTIVE");
+            throw USER_INACTIVE;
         }
 
-        try {
-            var usernamePassword =
-                    new UsernamePasswordAuthenticationToken(data.username(), data.password());
-            var auth = this.authenticationManager.authenticate(usernamePassword);
-            var token = tokenService.generateToken((User) auth.getPrincipal());
-
-            log.info("User authenticated successfully. username={}", data.username());
-            return new LoginResponseDTO(token);
-
-        }catch (BadCredentialsException e) {
+        if (!passwordEncoder.matches(data.password(), user.getPassword())) {
             log.warn("Authentication failed: invalid credentials. username={}", data.username());
-            throw new InvalidCredentialsException("Invalid username or password");
+            auditTrail.record(AuditEventType.LOGIN_FAILED, data.username(), "INVALID_CREDENTIALS");
+            throw INVALID_CREDENTIALS;
         }
+
+        var token = tokenService.generateToken(user);
+        var refreshToken = refreshTokenService.issue(user);
+
+        auditTrail.record(AuditEventType.LOGIN_SUCCEEDED, data.username(), "");
+        log.info("User authenticated successfully. username={}", data.username());
+        return new LoginResponseDTO(token, refreshToken);
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e instanceof DuplicateKeyException
+                || e.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
     }
-}
\ No newline at end of file
+}
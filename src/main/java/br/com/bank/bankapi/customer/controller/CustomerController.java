@@ -0,0 +1,37 @@
+package br.com.bank.bankapi.customer.controller;
+
+import br.com.bank.bankapi.customer.dto.CustomerPageDTO;
+import br.com.bank.bankapi.customer.dto.CustomerSearchFilter;
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.customer.service.CustomerSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/customers")
+public class CustomerController {
+
+    private final CustomerSearchService searchService;
+
+    public CustomerController(CustomerSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // Searches customers by status, name prefix and creation range, paginated with an opaque cursor
+    @GetMapping
+    public ResponseEntity<CustomerPageDTO> search(@RequestParam(required = false) CustomerStatus status,
+                                                  @RequestParam(required = false) String name,
+                                                  @RequestParam(required = false) Instant createdFrom,
+                                                  @RequestParam(required = false) Instant createdTo,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "" + CustomerSearchService.DEFAULT_PAGE_SIZE) int size) {
+        var filter = new CustomerSearchFilter(status, name, createdFrom, createdTo);
+
+        return ResponseEntity.ok(searchService.search(filter, cursor, size));
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.customer.dto;
+
+import java.util.List;
+
+// One page of a keyset search; nextCursor is null on the last page
+public record CustomerPageDTO(List<CustomerSummaryDTO> items, String nextCursor) {
+}
@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.customer.dto;
+
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+
+import java.time.Instant;
+
+// Optional search criteria; createdFrom is inclusive and createdTo exclusive
+public record CustomerSearchFilter(CustomerStatus status, String namePrefix, Instant createdFrom, Instant createdTo) {
+}
@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.customer.dto;
+
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CustomerSummaryDTO(UUID id, String fullName, String document, CustomerStatus status, Instant createdAt) {
+}
@@ -0,0 +1,7 @@
+package br.com.bank.bankapi.customer.exception;
+
+public class CustomerNotFoundException extends RuntimeException {
+    public CustomerNotFoundException(String message) {
+        super(message);
+    }
+}
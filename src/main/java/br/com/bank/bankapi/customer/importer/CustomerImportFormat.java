@@ -0,0 +1,12 @@
+package br.com.bank.bankapi.customer.importer;
+
+public enum CustomerImportFormat {
+    CSV,
+    NDJSON;
+
+    // Picks the format from the file extension, defaulting to CSV
+    public static CustomerImportFormat fromFileName(String fileName) {
+        var lower = fileName.toLowerCase();
+        return lower.endsWith(".ndjson") || lower.endsWith(".jsonl") ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.bank.bankapi.customer.importer;
+
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.customer.validation.Cpf;
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
+
+import java.util.UUID;
+
+// One validated input row, ready to be written to the COPY stream
+record CustomerImportRecord(String fullName, String document, CustomerStatus status, UUID userId) {
+
+    // Validates and normalizes raw field values, returning either a record or the reason for rejecting the row
+    static Parsed parse(String fullName, String document, String status, String userId) {
+        var name = fullName == null ? "" : fullName.strip();
+        if (name.length() < 3 || name.length() > 120) {
+            return Parsed.rejected("fullName: size must be between 3 and 120");
+        }
+        var cpf = Cpf.normalize(document);
+        if (!Cpf.isValid(cpf)) {
+            return Parsed.rejected("document: invalid CPF");
+        }
+        CustomerStatus customerStatus;
+        try {
+            customerStatus = status == null || status.isBlank() ? CustomerStatus.ACTIVE : CustomerStatus.valueOf(status.strip());
+        } catch (IllegalArgumentException e) {
+            return Parsed.rejected("status: unknown value");
+        }
+        UUID user;
+        try {
+            user = UUID.fromString(userId == null ? "" : userId.strip());
+        } catch (IllegalArgumentException e) {
+            return Parsed.rejected("userId: invalid UUID");
+        }
+        return new Parsed(new CustomerImportRecord(name, cpf, customerStatus, user), null);
+    }
+
+    // Appends the record as one CSV line in the format expected by the staging COPY
+    void appendCopyRow(StringBuilder out, long lineNumber) {
+        out.append(lineNumber).append(',').append(TimeOrderedUuidGenerator.next()).append(",\"");
+        for (int i = 0; i < fullName.length(); i++) {
+            char c = fullName.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append("\",").append(document)
+                .append(',').append(status.name())
+                .append(',').append(userId)
+                .append('\n');
+    }
+
+    record Parsed(CustomerImportRecord record, String error) {
+        static Parsed rejected(String error) {
+            return new Parsed(null, error);
+        }
+    }
+}
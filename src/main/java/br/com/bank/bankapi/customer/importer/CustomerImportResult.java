@@ -0,0 +1,11 @@
+package br.com.bank.bankapi.customer.importer;
+
+import java.time.Duration;
+
+public record CustomerImportResult(long read, long imported, long rejected, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? read / seconds : 0;
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.bank.bankapi.customer.importer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Imports customers from a file at startup when api.customers.import.file is set, e.g.
+// java -jar bank-api.jar --spring.main.web-application-type=none --api.customers.import.file=customers.csv
+@Component
+@ConditionalOnProperty("api.customers.import.file")
+public class CustomerImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportRunner.class);
+
+    private final CustomerImportService importService;
+    private final Path file;
+    private final Path rejectFile;
+
+    public CustomerImportRunner(CustomerImportService importService,
+                                @Value("${api.customers.import.file}") Path file,
+                                @Value("${api.customers.import.reject-file:}") String rejectFile) {
+        this.importService = importService;
+        this.file = file;
+        this.rejectFile = rejectFile.isBlank() ? Path.of(file + ".rejects") : Path.of(rejectFile);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        var format = CustomerImportFormat.fromFileName(file.getFileName().toString());
+        log.info("Starting customer import. file={}, format={}, rejectFile={}", file, format, rejectFile);
+
+        try (var input = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             var rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8)) {
+            importService.importCustomers(input, format, rejects);
+        }
+    }
+}
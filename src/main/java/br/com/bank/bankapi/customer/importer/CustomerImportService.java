@@ -0,0 +1,197 @@
+package br.com.bank.bankapi.customer.importer;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Streams customers from CSV or NDJSON into PostgreSQL with COPY, one chunk per transaction.
+// Memory is bounded by the chunk size whatever the input size. Invalid rows, unknown users and
+// duplicate documents are written to the reject writer instead of failing the import.
+@Service
+public class CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE IF NOT EXISTS customers_import (
+                line_no BIGINT NOT NULL,
+                id UUID NOT NULL,
+                full_name VARCHAR(120) NOT NULL,
+                document VARCHAR(11) NOT NULL,
+                status VARCHAR(15) NOT NULL,
+                user_id UUID NOT NULL
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_TO_STAGING =
+            "COPY customers_import (line_no, id, full_name, document, status, user_id) FROM STDIN WITH (FORMAT csv)";
+
+    // Moves the staged chunk into customers, keeping the first line of each document whose user exists,
+    // and returns the staged lines that were not inserted. Existing rows are never touched, so nothing held in the
+    // customer second-level cache can go stale
+    private static final String MOVE_STAGED_ROWS = """
+            WITH candidates AS (
+                SELECT DISTINCT ON (s.document) s.line_no, s.id, s.full_name, s.document, s.status, s.user_id
+                FROM customers_import s
+                JOIN users u ON u.id = s.user_id
+                ORDER BY s.document, s.line_no
+            ), inserted AS (
+                INSERT INTO customers (id, full_name, document, status, user_id, created_at, updated_at)
+                SELECT id, full_name, document, status, user_id, now(), now()
+                FROM candidates
+                ON CONFLICT (document) DO NOTHING
+                RETURNING document
+            )
+            SELECT s.line_no, EXISTS (SELECT 1 FROM users u WHERE u.id = s.user_id) AS user_exists
+            FROM customers_import s
+            WHERE NOT EXISTS (
+                SELECT 1 FROM candidates c JOIN inserted i ON i.document = c.document
+                WHERE c.line_no = s.line_no
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final int chunkSize;
+
+    public CustomerImportService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 JsonMapper jsonMapper,
+                                 @Value("${api.customers.import.chunk-size:10000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public CustomerImportResult importCustomers(Reader input, CustomerImportFormat format, Writer rejects) throws IOException {
+        long start = System.nanoTime();
+        var reader = new BufferedReader(input, 1 << 16);
+        var chunk = new Chunk();
+        long lineNumber = 0;
+        long read = 0;
+        long rejected = 0;
+
+        CustomerLineParser parser;
+        if (format == CustomerImportFormat.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new CustomerImportResult(0, 0, 0, Duration.ZERO);
+            }
+            lineNumber++;
+            parser = CustomerLineParser.csv(header);
+        } else {
+            parser = CustomerLineParser.ndjson(jsonMapper);
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            read++;
+            var parsed = parser.parse(line);
+            if (parsed.error() != null) {
+                writeReject(rejects, lineNumber, parsed.error(), line);
+                rejected++;
+                continue;
+            }
+            chunk.add(parsed.record(), lineNumber, line);
+            if (chunk.size() >= chunkSize) {
+                rejected += flush(chunk, rejects);
+                logProgress(read, rejected, start);
+            }
+        }
+        if (chunk.size() > 0) {
+            rejected += flush(chunk, rejects);
+        }
+        rejects.flush();
+
+        var result = new CustomerImportResult(read, read - rejected, rejected, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Customer import finished. read={}, imported={}, rejected={}, rowsPerSecond={}",
+                result.read(), result.imported(), result.rejected(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    // Copies the chunk into the staging table and moves it to customers in one transaction, returning the rejects
+    private long flush(Chunk chunk, Writer rejects) {
+        Long rejected = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+            try {
+                connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(COPY_TO_STAGING, new StringReader(chunk.copyData.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            long count = 0;
+            try (Statement statement = connection.createStatement();
+                 var rows = statement.executeQuery(MOVE_STAGED_ROWS)) {
+                while (rows.next()) {
+                    long lineNumber = rows.getLong(1);
+                    var reason = rows.getBoolean(2) ? "document: already registered" : "userId: unknown user";
+                    writeReject(rejects, lineNumber, reason, chunk.lines.get(lineNumber));
+                    count++;
+                }
+            }
+            return count;
+        }));
+        chunk.clear();
+        return rejected == null ? 0 : rejected;
+    }
+
+    private static void writeReject(Writer rejects, long lineNumber, String reason, String line) {
+        try {
+            rejects.write(lineNumber + "\t" + reason + "\t" + line + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void logProgress(long read, long rejected, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Customer import progress. read={}, rejected={}, rowsPerSecond={}", read, rejected, Math.round(read / seconds));
+    }
+
+    // Rows waiting to be copied, with their original lines kept only until the chunk is flushed
+    private static final class Chunk {
+        private final StringBuilder copyData = new StringBuilder();
+        private final Map<Long, String> lines = new HashMap<>();
+
+        void add(CustomerImportRecord record, long lineNumber, String line) {
+            record.appendCopyRow(copyData, lineNumber);
+            lines.put(lineNumber, line);
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        void clear() {
+            copyData.setLength(0);
+            lines.clear();
+        }
+    }
+}
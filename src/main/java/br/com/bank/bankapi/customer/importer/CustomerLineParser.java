@@ -0,0 +1,92 @@
+package br.com.bank.bankapi.customer.importer;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Turns one input line into a validated record. CSV files must start with a header naming
+// full_name, document, user_id and optionally status; NDJSON lines use fullName, document, userId and status.
+abstract class CustomerLineParser {
+
+    abstract CustomerImportRecord.Parsed parse(String line);
+
+    static CustomerLineParser csv(String header) {
+        List<String> columns = splitCsv(normalizeHeader(header));
+        int fullName = columns.indexOf("full_name");
+        int document = columns.indexOf("document");
+        int status = columns.indexOf("status");
+        int userId = columns.indexOf("user_id");
+        if (fullName < 0 || document < 0 || userId < 0) {
+            throw new IllegalArgumentException("CSV header must contain full_name, document and user_id");
+        }
+        return new CustomerLineParser() {
+            @Override
+            CustomerImportRecord.Parsed parse(String line) {
+                List<String> fields = splitCsv(line);
+                if (fields.size() != columns.size()) {
+                    return CustomerImportRecord.Parsed.rejected("expected " + columns.size() + " columns");
+                }
+                return CustomerImportRecord.parse(fields.get(fullName), fields.get(document),
+                        status >= 0 ? fields.get(status) : null, fields.get(userId));
+            }
+        };
+    }
+
+    static CustomerLineParser ndjson(JsonMapper jsonMapper) {
+        return new CustomerLineParser() {
+            @Override
+            CustomerImportRecord.Parsed parse(String line) {
+                try {
+                    JsonNode node = jsonMapper.readTree(line);
+                    return CustomerImportRecord.parse(text(node, "fullName"), text(node, "document"),
+                            text(node, "status"), text(node, "userId"));
+                } catch (JacksonException e) {
+                    return CustomerImportRecord.Parsed.rejected("malformed JSON");
+                }
+            }
+        };
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asString();
+    }
+
+    // Splits one RFC 4180 line; quoted fields may contain commas and doubled quotes, but not line breaks
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Lower-cases the header and drops a UTF-8 byte order mark left by spreadsheet exports
+    static String normalizeHeader(String header) {
+        return header.replace("\uFEFF", "").strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,10 +1,17 @@
 package br.com.bank.bankapi.customer.model;
 
 import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.persistence.CacheRegions;
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.validator.constraints.br.CPF;
 
 import java.time.Instant;
@@ -12,10 +19,12 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "customers")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CUSTOMERS)
+@NaturalIdCache(region = CacheRegions.CUSTOMERS_BY_DOCUMENT)
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @NotBlank
@@ -23,6 +32,7 @@ public class Customer {
     @Column(nullable = false, length = 120)
     private String fullName;
 
+    @NaturalId
     @NotBlank
     @CPF
     @Column(nullable = false, unique = true, length = 11)
@@ -63,4 +73,40 @@ public class Customer {
     protected void onUpdate() {
         this.updatedAt = Instant.now();
     }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public CustomerStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CustomerStatus status) {
+        this.status = status;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
 }
@@ -0,0 +1,11 @@
+package br.com.bank.bankapi.customer.repository;
+
+import br.com.bank.bankapi.customer.model.Customer;
+
+import java.util.Optional;
+
+public interface CustomerLookupRepository {
+
+    // Loads the customer by its natural id, served from the second-level cache when present
+    Optional<Customer> findByDocument(String document);
+}
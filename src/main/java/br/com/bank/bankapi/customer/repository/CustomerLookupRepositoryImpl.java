@@ -0,0 +1,24 @@
+package br.com.bank.bankapi.customer.repository;
+
+import br.com.bank.bankapi.customer.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Resolves the document through the natural-id cache and the customer through the entity cache
+class CustomerLookupRepositoryImpl implements CustomerLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> findByDocument(String document) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Customer.class)
+                .loadOptional(document);
+    }
+}
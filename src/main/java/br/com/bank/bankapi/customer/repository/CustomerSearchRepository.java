@@ -0,0 +1,14 @@
+package br.com.bank.bankapi.customer.repository;
+
+import br.com.bank.bankapi.customer.dto.CustomerSearchFilter;
+import br.com.bank.bankapi.customer.dto.CustomerSummaryDTO;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface CustomerSearchRepository {
+
+    // Returns up to limit customers ordered by (createdAt, id), strictly after the given position when present
+    List<CustomerSummaryDTO> search(CustomerSearchFilter filter, Instant afterCreatedAt, UUID afterId, int limit);
+}
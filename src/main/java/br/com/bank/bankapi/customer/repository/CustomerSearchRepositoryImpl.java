@@ -0,0 +1,63 @@
+package br.com.bank.bankapi.customer.repository;
+
+import br.com.bank.bankapi.customer.dto.CustomerSearchFilter;
+import br.com.bank.bankapi.customer.dto.CustomerSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+// Builds the query with only the filters that are present, so PostgreSQL plans each combination against
+// the matching index, and seeks with a row comparison on (created_at, id) instead of OFFSET
+class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CustomerSummaryDTO> search(CustomerSearchFilter filter, Instant afterCreatedAt, UUID afterId, int limit) {
+        var jpql = new StringBuilder("""
+                select new br.com.bank.bankapi.customer.dto.CustomerSummaryDTO(c.id, c.fullName, c.document, c.status, c.createdAt)
+                from Customer c
+                where 1 = 1
+                """);
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (filter.status() != null) {
+            jpql.append(" and c.status = :status");
+            parameters.put("status", filter.status());
+        }
+        if (filter.namePrefix() != null && !filter.namePrefix().isBlank()) {
+            jpql.append(" and lower(c.fullName) like :namePrefix escape '!'");
+            parameters.put("namePrefix", escapeLike(filter.namePrefix().strip().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (filter.createdFrom() != null) {
+            jpql.append(" and c.createdAt >= :createdFrom");
+            parameters.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            jpql.append(" and c.createdAt < :createdTo");
+            parameters.put("createdTo", filter.createdTo());
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            jpql.append(" and (c.createdAt, c.id) > (:afterCreatedAt, :afterId)");
+            parameters.put("afterCreatedAt", afterCreatedAt);
+            parameters.put("afterId", afterId);
+        }
+        jpql.append(" order by c.createdAt, c.id");
+
+        var query = entityManager.createQuery(jpql.toString(), CustomerSummaryDTO.class)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.bank.bankapi.customer.service;
+
+import br.com.bank.bankapi.customer.dto.CustomerPageDTO;
+import br.com.bank.bankapi.customer.dto.CustomerSearchFilter;
+import br.com.bank.bankapi.customer.dto.CustomerSummaryDTO;
+import br.com.bank.bankapi.customer.exception.InvalidCursorException;
+import br.com.bank.bankapi.customer.repository.CustomerRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class CustomerSearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final CustomerRepository repository;
+
+    public CustomerSearchService(CustomerRepository repository) {
+        this.repository = repository;
+    }
+
+    // Returns the page after the given cursor; the cursor encodes the (createdAt, id) of the last row already seen
+    @Transactional(readOnly = true)
+    public CustomerPageDTO search(CustomerSearchFilter filter, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Instant afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            var position = decodeCursor(cursor);
+            afterCreatedAt = position.createdAt();
+            afterId = position.id();
+        }
+
+        // Fetches one extra row to know whether there is a next page without a count query
+        List<CustomerSummaryDTO> rows = repository.search(filter, afterCreatedAt, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new CustomerPageDTO(rows, null);
+        }
+        List<CustomerSummaryDTO> page = rows.subList(0, pageSize);
+        var last = page.get(pageSize - 1);
+        return new CustomerPageDTO(List.copyOf(page), encodeCursor(last.createdAt(), last.id()));
+    }
+
+    static String encodeCursor(Instant createdAt, UUID id) {
+        var value = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static CursorPosition decodeCursor(String cursor) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            var createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new CursorPosition(createdAt, UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    record CursorPosition(Instant createdAt, UUID id) {
+    }
+}
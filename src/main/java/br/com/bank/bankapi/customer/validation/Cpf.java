@@ -0,0 +1,50 @@
+package br.com.bank.bankapi.customer.validation;
+
+// CPF helpers for bulk paths, where running Bean Validation for every row would be too expensive
+public final class Cpf {
+    private Cpf() {}
+
+    // Removes the usual punctuation (dots, dash, spaces), returning null if anything else is found
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        var digits = new StringBuilder(11);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != '.' && c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        return digits.toString();
+    }
+
+    // Checks length and both verification digits, rejecting sequences of a single repeated digit
+    public static boolean isValid(String digits) {
+        if (digits == null || digits.length() != 11) {
+            return false;
+        }
+        boolean repeated = true;
+        for (int i = 1; i < 11; i++) {
+            if (digits.charAt(i) != digits.charAt(0)) {
+                repeated = false;
+                break;
+            }
+        }
+        return !repeated
+                && checkDigit(digits, 9) == digits.charAt(9) - '0'
+                && checkDigit(digits, 10) == digits.charAt(10) - '0';
+    }
+
+    // Computes the verification digit at the given position from the digits before it
+    public static int checkDigit(CharSequence digits, int position) {
+        int sum = 0;
+        for (int i = 0; i < position; i++) {
+            sum += (digits.charAt(i) - '0') * (position + 1 - i);
+        }
+        int remainder = (sum * 10) % 11;
+        return remainder == 10 ? 0 : remainder;
+    }
+}
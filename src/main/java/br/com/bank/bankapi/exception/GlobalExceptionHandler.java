@@ -1,9 +1,23 @@
 package br.com.bank.bankapi.exception;
 
+import br.com.bank.bankapi.account.exception.AccountNotFoundException;
+import br.com.bank.bankapi.account.exception.InsufficientFundsException;
+import br.com.bank.bankapi.account.exception.InvalidStatementPeriodException;
+import br.com.bank.bankapi.account.exception.InvalidTransferException;
+import br.com.bank.bankapi.account.exception.LedgerUnavailableException;
 import br.com.bank.bankapi.auth.exception.InvalidCredentialsException;
+import br.com.bank.bankapi.auth.exception.InvalidRefreshTokenException;
+import br.com.bank.bankapi.auth.exception.PasswordHashingUnavailableException;
+import br.com.bank.bankapi.auth.exception.TooManyLoginAttemptsException;
+import br.com.bank.bankapi.customer.exception.CustomerNotFoundException;
+import br.com.bank.bankapi.customer.exception.InvalidCursorException;
 import br.com.bank.bankapi.user.exception.UserAlreadyExistsException;
 import br.com.bank.bankapi.user.exception.UserInactiveException;
 import br.com.bank.bankapi.user.exception.UserNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,6 +27,32 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String AUTH_PATH = "/auth/";
+
+    // Failed logins and refreshes are the most frequent errors; their responses never vary, so they are built once.
+    // A rate-limited login only adds its own Retry-After to the shared body
+    private static final ResponseEntity<byte[]> INVALID_CREDENTIALS =
+            ProblemResponses.of(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+    private static final ResponseEntity<byte[]> INVALID_REFRESH_TOKEN =
+            ProblemResponses.of(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    private static final ResponseEntity<byte[]> USER_NOT_FOUND =
+            ProblemResponses.of(HttpStatus.NOT_FOUND, "User not found");
+    private static final ResponseEntity<byte[]> USER_INACTIVE =
+            ProblemResponses.of(HttpStatus.FORBIDDEN, "User is inactive");
+    private static final ResponseEntity<byte[]> TOO_MANY_LOGIN_ATTEMPTS =
+            ProblemResponses.of(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later");
+
+    private final Counter invalidCredentialsLogins;
+    private final Counter userNotFoundLogins;
+    private final Counter userInactiveLogins;
+
+    // Failed logins are counted by exception type; successful ones show up as http.server.requests on /auth/login
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.invalidCredentialsLogins = loginFailures(meterRegistry, InvalidCredentialsException.class);
+        this.userNotFoundLogins = loginFailures(meterRegistry, UserNotFoundException.class);
+        this.userInactiveLogins = loginFailures(meterRegistry, UserInactiveException.class);
+    }
+
     // Handles the exception thrown when the username is already in use and returns HTTP 409 (CONFLICT)
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<String> handleUserAlreadyExistsException(UserAlreadyExistsException e) {
@@ -23,31 +63,105 @@ public class GlobalExceptionHandler {
 
     // Handles invalid login credentials and returns HTTP 401 (UNAUTHORIZED)
     @ExceptionHandler(InvalidCredentialsException.class)
-    public ResponseEntity<String> handleInvalidCredentialsException(InvalidCredentialsException e) {
-        return ResponseEntity
-                .status(HttpStatus.UNAUTHORIZED)
-                .body(e.getMessage());
+    public ResponseEntity<byte[]> handleInvalidCredentialsException(InvalidCredentialsException e) {
+        invalidCredentialsLogins.increment();
+        return INVALID_CREDENTIALS;
+    }
+
+    // Handles an unknown, expired, revoked or reused refresh token and returns HTTP 401 (UNAUTHORIZED)
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<byte[]> handleInvalidRefreshTokenException(InvalidRefreshTokenException e) {
+        return INVALID_REFRESH_TOKEN;
     }
 
     // Handles the case when the user is not found and returns HTTP 404 (NOT FOUND)
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException e) {
+    public ResponseEntity<byte[]> handleUserNotFoundException(UserNotFoundException e) {
+        userNotFoundLogins.increment();
+        return USER_NOT_FOUND;
+    }
+
+    // Handles the case when the user is inactive and returns HTTP 403 (FORBIDDEN)
+    @ExceptionHandler(UserInactiveException.class)
+    public ResponseEntity<byte[]> handleUserInactiveException(UserInactiveException e) {
+        userInactiveLogins.increment();
+        return USER_INACTIVE;
+    }
+
+    // Handles a saturated password hashing pool and returns HTTP 503 (SERVICE UNAVAILABLE) with Retry-After
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<byte[]> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException e) {
+        return ProblemResponses.withRetryAfter(
+                ProblemResponses.of(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()), e.getRetryAfterSeconds());
+    }
+
+    // Handles a rate-limited login attempt and returns HTTP 429 (TOO MANY REQUESTS) with Retry-After
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<byte[]> handleTooManyLoginAttemptsException(TooManyLoginAttemptsException e) {
+        return ProblemResponses.withRetryAfter(TOO_MANY_LOGIN_ATTEMPTS, e.getRetryAfterSeconds());
+    }
+
+    // Handles a malformed pagination cursor and returns HTTP 400 (BAD REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+    }
+
+    // Handles an unknown customer and returns HTTP 404 (NOT FOUND)
+    @ExceptionHandler(CustomerNotFoundException.class)
+    public ResponseEntity<String> handleCustomerNotFoundException(CustomerNotFoundException e) {
         return ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
                 .body(e.getMessage());
     }
 
-    // Handles the case when the user is inactive and returns HTTP 403 (FORBIDDEN)
-    @ExceptionHandler(UserInactiveException.class)
-    public ResponseEntity<String> handleUserInactiveException(UserInactiveException e) {
+    // Handles an unknown account, or one the caller may not use, and returns HTTP 404 (NOT FOUND)
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<String> handleAccountNotFoundException(AccountNotFoundException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(e.getMessage());
+    }
+
+    // Handles a transfer that would overdraw a customer account and returns HTTP 422 (UNPROCESSABLE CONTENT)
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<String> handleInsufficientFundsException(InsufficientFundsException e) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_CONTENT)
+                .body(e.getMessage());
+    }
+
+    // Handles a transfer that can never succeed, such as one to the same account, and returns HTTP 400 (BAD REQUEST)
+    @ExceptionHandler(InvalidTransferException.class)
+    public ResponseEntity<String> handleInvalidTransferException(InvalidTransferException e) {
         return ResponseEntity
-                .status(HttpStatus.FORBIDDEN)
+                .status(HttpStatus.BAD_REQUEST)
                 .body(e.getMessage());
     }
 
-    // Handles validation errors for data annotated with @Valid and returns HTTP 400 (BAD REQUEST)
+    // Handles a statement period that ends before it starts and returns HTTP 400 (BAD REQUEST)
+    @ExceptionHandler(InvalidStatementPeriodException.class)
+    public ResponseEntity<String> handleInvalidStatementPeriodException(InvalidStatementPeriodException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+    }
+
+    // Handles a full ledger queue or a failed commit and returns HTTP 503 (SERVICE UNAVAILABLE) with Retry-After
+    @ExceptionHandler(LedgerUnavailableException.class)
+    public ResponseEntity<String> handleLedgerUnavailableException(LedgerUnavailableException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    // Handles validation errors for data annotated with @Valid and returns HTTP 400 (BAD REQUEST). Authentication
+    // endpoints answer every failure as problem+json; the rest of the API still answers in plain text
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<String> handleMethodArgumentNotValid(MethodArgumentNotValidException e) {
+    public ResponseEntity<?> handleMethodArgumentNotValid(MethodArgumentNotValidException e, HttpServletRequest request) {
         String firstError = e.getBindingResult()
                 .getFieldErrors()
                 .stream()
@@ -55,8 +169,17 @@ public class GlobalExceptionHandler {
                 .map(error -> error.getField() + ": " + error.getDefaultMessage())
                 .orElse("Invalid request data");
 
+        if (request.getRequestURI().startsWith(AUTH_PATH)) {
+            return ProblemResponses.of(HttpStatus.BAD_REQUEST, firstError);
+        }
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(firstError);
     }
-}
\ No newline at end of file
+
+    private static Counter loginFailures(MeterRegistry meterRegistry, Class<? extends RuntimeException> exception) {
+        return Counter.builder("auth.login.failures")
+                .tag("exception", exception.getSimpleName())
+                .register(meterRegistry);
+    }
+}
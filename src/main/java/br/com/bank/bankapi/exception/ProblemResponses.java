@@ -0,0 +1,39 @@
+package br.com.bank.bankapi.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Error responses in the problem+json format (RFC 9457) serialized once and returned as they are. A ResponseEntity
+// has read-only headers and the byte[] body is written straight to the response, so a single instance can answer
+// every occurrence without building anything per request.
+final class ProblemResponses {
+
+    private ProblemResponses() {}
+
+    static ResponseEntity<byte[]> of(HttpStatus status, String detail) {
+        Map<String, Object> problem = new LinkedHashMap<>();
+        problem.put("type", "about:blank");
+        problem.put("title", status.getReasonPhrase());
+        problem.put("status", status.value());
+        problem.put("detail", detail);
+        return ResponseEntity
+                .status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(JsonMapper.shared().writeValueAsBytes(problem));
+    }
+
+    // The same response with a Retry-After header, sharing the already serialized body
+    static ResponseEntity<byte[]> withRetryAfter(ResponseEntity<byte[]> response, long retryAfterSeconds) {
+        return ResponseEntity
+                .status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response.getBody());
+    }
+}
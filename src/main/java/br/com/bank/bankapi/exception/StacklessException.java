@@ -0,0 +1,11 @@
+package br.com.bank.bankapi.exception;
+
+// Base for exceptions that report an expected outcome to the client, such as a failed login, and are always turned
+// into a response by GlobalExceptionHandler. Nobody reads their stack trace, so none is captured: filling it in walks
+// the whole request thread stack and is most of what throwing costs. Suppression is disabled for the same reason.
+public abstract class StacklessException extends RuntimeException {
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.idempotency;
+
+// A key as stored: the fingerprint of the request that first used it and its response, null while still executing
+record IdempotencyEntry(byte[] fingerprint, StoredResponse response) {
+
+    boolean completed() {
+        return response != null;
+    }
+}
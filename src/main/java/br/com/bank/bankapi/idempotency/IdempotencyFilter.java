@@ -0,0 +1,219 @@
+package br.com.bank.bankapi.idempotency;
+
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+// Makes mutating requests that carry an Idempotency-Key safe to retry: the first one executes, later ones with the
+// same key get its stored response back without reaching the controller. Keys are scoped per authenticated user, so
+// this filter runs after the security filter chain (default order, after Spring Security's). The body is buffered to
+// fingerprint it, so requests above max-request-size are refused with 413 before anything is claimed.
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    // Their responses carry credentials, which are never stored
+    private static final Set<String> EXCLUDED_PATHS = Set.of("/auth/login", "/auth/refresh");
+
+    private final IdempotencyService idempotencyService;
+    private final int maxRequestSize;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             @Value("${api.idempotency.max-request-size:4MB}") DataSize maxRequestSize) {
+        this.idempotencyService = idempotencyService;
+        this.maxRequestSize = Math.toIntExact(maxRequestSize.toBytes());
+    }
+
+    // Matched on the servlet path, which the container has already decoded and normalized, so a context path, path
+    // parameters or encoded characters in the URI cannot get a credential response stored
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IDEMPOTENCY_KEY) == null
+                || !METHODS.contains(request.getMethod())
+                || EXCLUDED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, IDEMPOTENCY_KEY + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        if (request.getContentLengthLong() > maxRequestSize) {
+            rejectTooLarge(response);
+            return;
+        }
+        // Reads at most one byte past the limit, which also caps a body sent without a Content-Length
+        byte[] body = request.getInputStream().readNBytes(maxRequestSize + 1);
+        if (body.length > maxRequestSize) {
+            rejectTooLarge(response);
+            return;
+        }
+
+        var cachedRequest = new CachedBodyRequest(request, body);
+        String scopeKey = scope() + ":" + key;
+        var claim = idempotencyService.claim(scopeKey, fingerprint(request, cachedRequest.body));
+        switch (claim.outcome()) {
+            case REPLAY -> replay(response, claim.response());
+            case MISMATCH -> reject(response, HttpStatus.UNPROCESSABLE_CONTENT,
+                    IDEMPOTENCY_KEY + " was already used for a different request");
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(idempotencyService.getLockTimeout().toSeconds()));
+                reject(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY + " is in progress");
+            }
+            case EXECUTE -> execute(cachedRequest, response, filterChain, scopeKey, claim);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String scopeKey, IdempotencyService.Claim claim) throws ServletException, IOException {
+        var capturing = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, capturing);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyService.fail(scopeKey, claim, e);
+            throw e;
+        }
+        idempotencyService.complete(scopeKey, claim,
+                new StoredResponse(capturing.getStatus(), capturing.getContentType(), capturing.getContentAsByteArray()));
+        capturing.copyBodyToResponse();
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        reject(response, HttpStatus.CONTENT_TOO_LARGE,
+                "Requests with an " + IDEMPOTENCY_KEY + " are limited to " + maxRequestSize + " bytes");
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    // Anonymous requests (registration) share one scope; their keys are random enough not to collide
+    private static String scope() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                ? principal.id().toString()
+                : "anonymous";
+    }
+
+    // Same key with another method, path or body is a client bug, answered 422 instead of a wrong replay
+    private static byte[] fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Serves the body that was read to fingerprint it again to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so the listener is told at once that it can read all of it
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            var charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(charset)));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package br.com.bank.bankapi.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Decides what a request carrying an Idempotency-Key does: execute, replay the stored response, or wait for the
+// identical request already running. Completed responses are served from a bounded in-memory cache, so a replay
+// costs no query; a miss falls back to the table shared by every instance. Duplicates arriving while the first
+// request runs on this instance wait for its response instead of executing again.
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public enum Outcome { EXECUTE, REPLAY, MISMATCH, IN_PROGRESS }
+
+    // The outcome, with the response to replay or, for EXECUTE, the slot waiting for the response and the lock time
+    // that fences its completion
+    public record Claim(Outcome outcome, StoredResponse response, InFlight inFlight, Instant lockedAt) {
+    }
+
+    // A request executing on this instance; duplicates wait on its result
+    record InFlight(byte[] fingerprint, CompletableFuture<StoredResponse> result) {
+    }
+
+    private final IdempotencyStore store;
+    private final Cache<String, IdempotencyEntry> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration lockTimeout;
+    private final long maxResponseSize;
+    private final int purgeBatchSize;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter coalesced;
+    private final Counter inProgress;
+    private final Counter mismatched;
+
+    public IdempotencyService(IdempotencyStore store,
+                              @Value("${api.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${api.idempotency.cache.max-size:10000}") long cacheMaxSize,
+                              @Value("${api.idempotency.lock-timeout:30s}") Duration lockTimeout,
+                              @Value("${api.idempotency.max-response-size:64KB}") DataSize maxResponseSize,
+                              @Value("${api.idempotency.purge-batch-size:1000}") int purgeBatchSize,
+                              MeterRegistry meterRegistry) {
+        this.store = store;
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+        this.maxResponseSize = maxResponseSize.toBytes();
+        this.purgeBatchSize = purgeBatchSize;
+
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency.responses");
+
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        this.inProgress = requests(meterRegistry, "in_progress");
+        this.mismatched = requests(meterRegistry, "mismatch");
+    }
+
+    // Claims the key for a request with the given fingerprint. An EXECUTE claim must be settled with complete or fail
+    public Claim claim(String scopeKey, byte[] fingerprint) {
+        var cached = completed.getIfPresent(scopeKey);
+        if (cached != null) {
+            return replay(cached, fingerprint, replayed);
+        }
+
+        var mine = new InFlight(fingerprint, new CompletableFuture<>());
+        var running = inFlight.putIfAbsent(scopeKey, mine);
+        if (running != null) {
+            return join(running, fingerprint);
+        }
+        try {
+            return claimStored(scopeKey, mine);
+        } catch (RuntimeException e) {
+            inFlight.remove(scopeKey, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Stores the response and hands it to the duplicates waiting for it. Server errors and oversized bodies are not
+    // stored, so a retry executes again
+    public void complete(String scopeKey, Claim claim, StoredResponse response) {
+        try {
+            if (response.status() >= 500 || response.body().length > maxResponseSize) {
+                store.release(scopeKey, claim.lockedAt());
+            } else if (store.complete(scopeKey, claim.lockedAt(), response, Instant.now().plus(ttl))) {
+                completed.put(scopeKey, new IdempotencyEntry(claim.inFlight().fingerprint(), response));
+            } else {
+                // Ran past lock-timeout and was taken over: the stored response will be the new owner's
+                log.warn("Idempotency key taken over before its response was stored. scopeKey={}", scopeKey);
+            }
+        } catch (RuntimeException e) {
+            // The key stays locked until lock-timeout, after which a retry takes it over and executes again
+            log.error("Could not store idempotent response. scopeKey={}", scopeKey, e);
+        } finally {
+            inFlight.remove(scopeKey, claim.inFlight());
+            claim.inFlight().result().complete(response);
+        }
+    }
+
+    // Releases the key of a request that failed without a response; waiting duplicates are told to retry
+    public void fail(String scopeKey, Claim claim, Throwable cause) {
+        try {
+            store.release(scopeKey, claim.lockedAt());
+        } catch (RuntimeException e) {
+            log.error("Could not release idempotency key. scopeKey={}", scopeKey, e);
+        } finally {
+            inFlight.remove(scopeKey, claim.inFlight());
+            claim.inFlight().result().completeExceptionally(cause);
+        }
+    }
+
+    public Duration getLockTimeout() {
+        return lockTimeout;
+    }
+
+    // Deletes expired keys in small batches, so no long transaction holds locks on the table
+    @Scheduled(fixedDelayString = "${api.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted;
+        long total = 0;
+        do {
+            deleted = store.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Expired idempotency keys purged. deleted={}", total);
+        }
+    }
+
+    private Claim claimStored(String scopeKey, InFlight mine) {
+        // Two attempts: the row seen by a failed insert may be released or purged before it can be read
+        for (int attempt = 0; attempt < 2; attempt++) {
+            // The lock time fences the completion, so it is kept at the precision of the column it is compared with
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            if (store.tryLock(scopeKey, mine.fingerprint(), now, now.plus(ttl))) {
+                executed.increment();
+                return new Claim(Outcome.EXECUTE, null, mine, now);
+            }
+            var stored = store.find(scopeKey).orElse(null);
+            if (stored == null) {
+                continue;
+            }
+            if (stored.completed()) {
+                completed.put(scopeKey, stored);
+                inFlight.remove(scopeKey, mine);
+                mine.result().complete(stored.response());
+                return replay(stored, mine.fingerprint(), replayed);
+            }
+            if (!Arrays.equals(stored.fingerprint(), mine.fingerprint())) {
+                // Claimed for a different request, which is still running: this one can never succeed with the key
+                inFlight.remove(scopeKey, mine);
+                mine.result().completeExceptionally(new IllegalStateException("Idempotency key used for another request"));
+                mismatched.increment();
+                return new Claim(Outcome.MISMATCH, null, null, null);
+            }
+            if (store.takeOver(scopeKey, now, now.minus(lockTimeout))) {
+                log.warn("Abandoned idempotency key taken over. scopeKey={}", scopeKey);
+                executed.increment();
+                return new Claim(Outcome.EXECUTE, null, mine, now);
+            }
+            break;
+        }
+        // Running on another instance: the duplicates of this one retry later
+        inFlight.remove(scopeKey, mine);
+        mine.result().completeExceptionally(new IllegalStateException("Idempotency key is in progress elsewhere"));
+        inProgress.increment();
+        return new Claim(Outcome.IN_PROGRESS, null, null, null);
+    }
+
+    private Claim join(InFlight running, byte[] fingerprint) {
+        if (!Arrays.equals(running.fingerprint(), fingerprint)) {
+            mismatched.increment();
+            return new Claim(Outcome.MISMATCH, null, null, null);
+        }
+        try {
+            var response = running.result().get(lockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            coalesced.increment();
+            return new Claim(Outcome.REPLAY, response, null, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // The first request failed or is still running; the client retries later
+        }
+        inProgress.increment();
+        return new Claim(Outcome.IN_PROGRESS, null, null, null);
+    }
+
+    private Claim replay(IdempotencyEntry entry, byte[] fingerprint, Counter counter) {
+        if (!Arrays.equals(entry.fingerprint(), fingerprint)) {
+            mismatched.increment();
+            return new Claim(Outcome.MISMATCH, null, null, null);
+        }
+        counter.increment();
+        return new Claim(Outcome.REPLAY, entry.response(), null, null);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.bank.bankapi.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+// Durable side of the idempotency keys, shared by every instance. Each call is its own short transaction, separate
+// from the one of the request it protects.
+@Repository
+public class IdempotencyStore {
+
+    private static final String INSERT = """
+            INSERT INTO idempotency_keys (scope_key, fingerprint, locked_at, expires_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (scope_key) DO NOTHING
+            """;
+
+    private static final String SELECT = """
+            SELECT fingerprint, status_code, content_type, body
+            FROM idempotency_keys
+            WHERE scope_key = ?
+            """;
+
+    // Only a row still in progress whose lock is older than the timeout can be taken over: its instance died
+    private static final String TAKE_OVER = """
+            UPDATE idempotency_keys SET locked_at = ?
+            WHERE scope_key = ? AND status_code IS NULL AND locked_at < ?
+            """;
+
+    // Completion and release are fenced on the locked_at the claim took: once a row is taken over, the slow original
+    // request can neither overwrite the new owner's response nor release its lock
+    private static final String COMPLETE = """
+            UPDATE idempotency_keys SET status_code = ?, content_type = ?, body = ?, expires_at = ?
+            WHERE scope_key = ? AND status_code IS NULL AND locked_at = ?
+            """;
+
+    private static final String RELEASE =
+            "DELETE FROM idempotency_keys WHERE scope_key = ? AND status_code IS NULL AND locked_at = ?";
+
+    // SKIP LOCKED lets several instances purge concurrently without waiting for each other
+    private static final String DELETE_EXPIRED_BATCH = """
+            DELETE FROM idempotency_keys
+            WHERE scope_key IN (
+                SELECT scope_key FROM idempotency_keys
+                WHERE expires_at < ?
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Records the key as in progress; false when it is already there, completed or not
+    public boolean tryLock(String scopeKey, byte[] fingerprint, Instant now, Instant expiresAt) {
+        return jdbcTemplate.update(INSERT, scopeKey, fingerprint, Timestamp.from(now), Timestamp.from(expiresAt)) == 1;
+    }
+
+    public Optional<IdempotencyEntry> find(String scopeKey) {
+        return jdbcTemplate.query(SELECT, (rs, rowNum) -> {
+                    int status = rs.getInt(2);
+                    var response = rs.wasNull() ? null : new StoredResponse(status, rs.getString(3), rs.getBytes(4));
+                    return new IdempotencyEntry(rs.getBytes(1), response);
+                }, scopeKey)
+                .stream()
+                .findFirst();
+    }
+
+    public boolean takeOver(String scopeKey, Instant now, Instant lockedBefore) {
+        return jdbcTemplate.update(TAKE_OVER, Timestamp.from(now), scopeKey, Timestamp.from(lockedBefore)) == 1;
+    }
+
+    // Stores the response of the claim locked at lockedAt; false when the key was taken over in the meantime
+    public boolean complete(String scopeKey, Instant lockedAt, StoredResponse response, Instant expiresAt) {
+        return jdbcTemplate.update(COMPLETE, response.status(), response.contentType(), response.body(),
+                Timestamp.from(expiresAt), scopeKey, Timestamp.from(lockedAt)) == 1;
+    }
+
+    // Forgets a key whose request failed, so that the next retry executes it again
+    public void release(String scopeKey, Instant lockedAt) {
+        jdbcTemplate.update(RELEASE, scopeKey, Timestamp.from(lockedAt));
+    }
+
+    public int deleteExpiredBatch(Instant now, int batchSize) {
+        return jdbcTemplate.update(DELETE_EXPIRED_BATCH, Timestamp.from(now), batchSize);
+    }
+}
@@ -0,0 +1,5 @@
+package br.com.bank.bankapi.idempotency;
+
+// The part of a response replayed to retries: status, content type and body
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,12 @@
+package br.com.bank.bankapi.persistence;
+
+// Names of the Hibernate second-level cache regions, shared by the entity mappings and EntityCacheConfiguration
+public final class CacheRegions {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_USERNAME = "users-by-username";
+    public static final String CUSTOMERS = "customers";
+    public static final String CUSTOMERS_BY_DOCUMENT = "customers-by-document";
+
+    private CacheRegions() {}
+}
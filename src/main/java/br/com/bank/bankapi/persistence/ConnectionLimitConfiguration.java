@@ -0,0 +1,53 @@
+package br.com.bank.bankapi.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// In virtual-thread mode every connection pool bean is put behind a semaphore with one permit per pooled connection,
+// so the number of requests waiting on the database is bounded and visible, whatever the number of threads
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConnectionLimitConfiguration {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionLimitingPostProcessor(meterRegistry);
+    }
+
+    // Runs ahead of any other wrapping, which would hide the pool behind a proxy
+    private static final class ConnectionLimitingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        ConnectionLimitingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource pool) {
+                // An unnamed pool is named after its bean, so its hikaricp.* meters carry the same pool tag
+                if (pool.getPoolName() == null) {
+                    pool.setPoolName(beanName);
+                }
+                return new ConnectionLimitingDataSource(pool, pool.getPoolName(), pool.getMaximumPoolSize(),
+                        Duration.ofMillis(pool.getConnectionTimeout()), meterRegistry.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
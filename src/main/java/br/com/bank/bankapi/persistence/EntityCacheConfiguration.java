@@ -0,0 +1,58 @@
+package br.com.bank.bankapi.persistence;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+// In-process second-level cache for users and customers. Every region is a bounded Caffeine cache whose entries also
+// expire after a ttl, which caps how long a row changed outside Hibernate (plain SQL, another instance) can be served
+// stale. Regions are created here rather than on demand, so a mapping that names an unknown region fails at startup
+@Configuration
+public class EntityCacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${api.entity-cache.users.max-size:100000}") long userMaxSize,
+                                           @Value("${api.entity-cache.users.ttl:30s}") Duration userTtl,
+                                           @Value("${api.entity-cache.customers.max-size:100000}") long customerMaxSize,
+                                           @Value("${api.entity-cache.customers.ttl:10m}") Duration customerTtl) {
+        var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        var cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        createRegion(cacheManager, CacheRegions.USERS, userMaxSize, userTtl);
+        createRegion(cacheManager, CacheRegions.USERS_BY_USERNAME, userMaxSize, userTtl);
+        createRegion(cacheManager, CacheRegions.CUSTOMERS, customerMaxSize, customerTtl);
+        createRegion(cacheManager, CacheRegions.CUSTOMERS_BY_DOCUMENT, customerMaxSize, customerTtl);
+        return cacheManager;
+    }
+
+    // Statistics feed the hibernate.* meters, including hits, misses and puts per region
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    // Entries are kept by reference: Hibernate already stores a disassembled copy of the state, so the JCache default
+    // of copying every value on get and put would only add a serialization round trip
+    private static void createRegion(CacheManager cacheManager, String region, long maxSize, Duration ttl) {
+        var configuration = new CaffeineConfiguration<Object, Object>()
+                .setStoreByValue(false)
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        cacheManager.createCache(region, configuration);
+    }
+}
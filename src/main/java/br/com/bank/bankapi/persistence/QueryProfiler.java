@@ -0,0 +1,241 @@
+package br.com.bank.bankapi.persistence;
+
+import br.com.bank.bankapi.audit.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Profiles every JDBC statement in place of show-sql. On the executing thread it only records the statement's time in
+// jdbc.statements (tagged by operation and table) and, inside an HTTP request, counts it against that request; slow
+// statements and statements repeated within one request (the N+1 pattern) are queued and logged by the reporter, once
+// per statement and interval. Slow samples show the shape of their bind parameters (type and length), never values.
+public class QueryProfiler implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    private static final Pattern OPERATION = Pattern.compile("^\\s*(\\w+)");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+([\\w.\"]+)", Pattern.CASE_INSENSITIVE);
+    // Statements are generated by Hibernate from a bounded set of queries; the cache stops growing past this
+    private static final int MAX_CACHED_STATEMENTS = 2000;
+    private static final int MAX_REPORTS_PER_DRAIN = 100_000;
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final int repeatedThreshold;
+    private final MpscRingBuffer<Report> reports;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ThreadLocal<RequestStatements> currentRequest = new ThreadLocal<>();
+    private final Counter slow;
+    private final Counter droppedReports;
+
+    public QueryProfiler(Duration slowThreshold, int repeatedThreshold, int reportBufferCapacity,
+                         MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.repeatedThreshold = repeatedThreshold;
+        this.reports = new MpscRingBuffer<>(reportBufferCapacity);
+
+        this.slow = Counter.builder("jdbc.statements.slow")
+                .register(meterRegistry);
+        this.droppedReports = Counter.builder("jdbc.profiler.reports.dropped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // A batch of plain statements runs in one round trip; its time is attributed to the first one
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsed = execInfo.getElapsedTime();
+        QueryInfo query = queryInfoList.getFirst();
+        String sql = query.getQuery();
+        timer(sql).record(elapsed, TimeUnit.NANOSECONDS);
+
+        var request = currentRequest.get();
+        if (request != null) {
+            request.record(sql);
+        }
+        if (elapsed >= slowThresholdNanos) {
+            slow.increment();
+            publish(new SlowStatement(sql, parameterShapes(query), elapsed));
+        }
+    }
+
+    // Starts counting the statements the current thread runs for an HTTP request
+    public void beginRequest() {
+        currentRequest.set(new RequestStatements());
+    }
+
+    // Publishes the statement count of the request that just ended on this thread, and reports the statements it
+    // repeated at least repeated-threshold times
+    public void endRequest(String method, String uri) {
+        var request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+        DistributionSummary.builder("http.server.requests.statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(request.total);
+        request.executions.forEach((sql, count) -> {
+            if (count[0] >= repeatedThreshold) {
+                meterRegistry.counter("jdbc.statements.repeated", "method", method, "uri", uri).increment();
+                publish(new RepeatedStatement(method + " " + uri, sql, count[0]));
+            }
+        });
+    }
+
+    // Logs what was reported since the last run, grouped so that each statement appears once per interval
+    @Scheduled(fixedDelayString = "${api.query-profiling.report-interval:10s}")
+    public void report() {
+        Map<String, SlowSummary> slowStatements = new LinkedHashMap<>();
+        Map<String, RepeatedSummary> repeatedStatements = new LinkedHashMap<>();
+        reports.drain(report -> {
+            switch (report) {
+                case SlowStatement statement -> slowStatements
+                        .computeIfAbsent(statement.sql(), sql -> new SlowSummary())
+                        .add(statement);
+                case RepeatedStatement statement -> repeatedStatements
+                        .computeIfAbsent(statement.route() + "\n" + statement.sql(), key -> new RepeatedSummary(statement))
+                        .add(statement);
+            }
+        }, MAX_REPORTS_PER_DRAIN);
+
+        slowStatements.forEach((sql, summary) -> log.warn("Slow SQL statement. count={} maxMs={} parameters={} sql={}",
+                summary.count, TimeUnit.NANOSECONDS.toMillis(summary.slowest.elapsedNanos()),
+                summary.slowest.parameters(), sql));
+        repeatedStatements.values().forEach(summary -> log.warn(
+                "Likely N+1 queries: one statement repeated within a request. route={} requests={} maxExecutions={} sql={}",
+                summary.first.route(), summary.requests, summary.maxExecutions, summary.first.sql()));
+    }
+
+    private void publish(Report report) {
+        if (!reports.offer(report)) {
+            droppedReports.increment();
+        }
+    }
+
+    private Timer timer(String sql) {
+        var timer = timers.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        timer = Timer.builder("jdbc.statements")
+                .tag("operation", operation(sql))
+                .tag("table", table(sql))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        if (timers.size() < MAX_CACHED_STATEMENTS) {
+            timers.put(sql, timer);
+        }
+        return timer;
+    }
+
+    static String operation(String sql) {
+        Matcher matcher = OPERATION.matcher(sql);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : "unknown";
+    }
+
+    static String table(String sql) {
+        Matcher matcher = TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1).replace("\"", "").toLowerCase(Locale.ROOT) : "none";
+    }
+
+    // Type of each bind parameter of the first parameter set, with the length of strings and byte arrays
+    static String parameterShapes(QueryInfo query) {
+        if (query.getParametersList().isEmpty()) {
+            return "[]";
+        }
+        return query.getParametersList().getFirst().stream()
+                .map(QueryProfiler::shape)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String shape(ParameterSetOperation operation) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+            return "null";
+        }
+        Object[] args = operation.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        return switch (value) {
+            case null -> "null";
+            case String string -> "String(" + string.length() + ")";
+            case byte[] bytes -> "byte[" + bytes.length + "]";
+            default -> value.getClass().getSimpleName();
+        };
+    }
+
+    // Only ever touched by the thread serving the request
+    private static final class RequestStatements {
+        final Map<String, int[]> executions = new HashMap<>();
+        int total;
+
+        void record(String sql) {
+            total++;
+            executions.computeIfAbsent(sql, key -> new int[1])[0]++;
+        }
+    }
+
+    private sealed interface Report permits SlowStatement, RepeatedStatement {
+    }
+
+    private record SlowStatement(String sql, String parameters, long elapsedNanos) implements Report {
+    }
+
+    private record RepeatedStatement(String route, String sql, int executions) implements Report {
+    }
+
+    private static final class SlowSummary {
+        int count;
+        SlowStatement slowest;
+
+        void add(SlowStatement statement) {
+            count++;
+            if (slowest == null || statement.elapsedNanos() > slowest.elapsedNanos()) {
+                slowest = statement;
+            }
+        }
+    }
+
+    private static final class RepeatedSummary {
+        final RepeatedStatement first;
+        int requests;
+        int maxExecutions;
+
+        RepeatedSummary(RepeatedStatement first) {
+            this.first = first;
+        }
+
+        void add(RepeatedStatement statement) {
+            requests++;
+            maxExecutions = Math.max(maxExecutions, statement.executions());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.bank.bankapi.persistence;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Puts the data source the application uses (the single pool, or the read/write router when replicas are configured)
+// behind a datasource-proxy that reports every statement to the query profiler. The proxy is applied last, after any
+// other wrapping of the pool, and times statements with System.nanoTime.
+@Configuration
+@ConditionalOnProperty(name = "api.query-profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryProfilingConfiguration {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public QueryProfiler queryProfiler(@Value("${api.query-profiling.slow-threshold:200ms}") Duration slowThreshold,
+                                       @Value("${api.query-profiling.repeated-threshold:10}") int repeatedThreshold,
+                                       @Value("${api.query-profiling.report-buffer-capacity:4096}") int reportBufferCapacity,
+                                       MeterRegistry meterRegistry) {
+        return new QueryProfiler(slowThreshold, repeatedThreshold, reportBufferCapacity, meterRegistry);
+    }
+
+    @Bean
+    public QueryProfilingFilter queryProfilingFilter(QueryProfiler queryProfiler) {
+        return new QueryProfilingFilter(queryProfiler);
+    }
+
+    @Bean
+    public static BeanPostProcessor queryProfilingPostProcessor(ObjectProvider<QueryProfiler> queryProfiler) {
+        return new ProfilingPostProcessor(queryProfiler);
+    }
+
+    private static final class ProfilingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<QueryProfiler> queryProfiler;
+
+        ProfilingPostProcessor(ObjectProvider<QueryProfiler> queryProfiler) {
+            this.queryProfiler = queryProfiler;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                    || bean instanceof ProxyDataSource) {
+                return bean;
+            }
+            ProxyDataSource proxy = ProxyDataSourceBuilder.create(beanName, dataSource)
+                    .listener(queryProfiler.getObject())
+                    .build();
+            proxy.setProxyConfig(ProxyConfig.Builder.from(proxy.getProxyConfig())
+                    .stopwatchFactory(new NanoTimeStopwatchFactory())
+                    .build());
+            return proxy;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.bank.bankapi.persistence;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Scopes the query profiler's statement count to each HTTP request. It runs ahead of Spring Security, so the
+// lookups made while authenticating count too; the request is reported under its route pattern, as in
+// http.server.requests, to keep the uri tag bounded.
+public class QueryProfilingFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final QueryProfiler profiler;
+
+    public QueryProfilingFilter(QueryProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        profiler.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            profiler.endRequest(request.getMethod(), route != null ? route.toString() : UNKNOWN_ROUTE);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
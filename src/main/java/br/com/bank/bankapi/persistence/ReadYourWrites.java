@@ -0,0 +1,50 @@
+package br.com.bank.bankapi.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Keeps lookups by key (a username) consistent with writes despite replica lag. A key written on this instance is
+// read from the primary until every replica in rotation must have replayed the write: max-lag plus one lag check.
+// A lookup that finds nothing on a replica is repeated on the primary, which covers writes made by other instances,
+// such as a login routed elsewhere right after registration. Without replicas both are a plain call.
+@Component
+public class ReadYourWrites {
+
+    private final boolean replicated;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWrites(@Value("${api.datasource.replicas.urls:}") String replicaUrls,
+                          @Value("${api.datasource.replicas.max-lag:1s}") Duration maxLag,
+                          @Value("${api.datasource.replicas.lag-check-interval:1s}") Duration lagCheckInterval,
+                          @Value("${api.datasource.replicas.read-your-writes.max-keys:100000}") long maxKeys) {
+        this.replicated = StringUtils.hasText(replicaUrls);
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(maxLag.plus(lagCheckInterval))
+                .build();
+    }
+
+    public void recordWrite(String key) {
+        if (replicated && key != null) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    // Runs a lookup that returns null when nothing is found
+    public <T> T read(String key, Supplier<T> lookup) {
+        if (!replicated) {
+            return lookup.get();
+        }
+        if (recentWrites.getIfPresent(key) != null) {
+            return ReplicaRoutingDataSource.onPrimary(lookup);
+        }
+        T result = lookup.get();
+        return result != null ? result : ReplicaRoutingDataSource.onPrimary(lookup);
+    }
+}
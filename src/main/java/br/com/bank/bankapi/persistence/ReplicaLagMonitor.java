@@ -0,0 +1,91 @@
+package br.com.bank.bankapi.persistence;
+
+import br.com.bank.bankapi.persistence.ReplicaRoutingDataSource.Replica;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+
+// Measures how far each replica is behind the primary and keeps in rotation only those within max-lag. A replica
+// that cannot be reached is taken out as well, and comes back on the first check that succeeds.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Seconds since the last replayed transaction, or 0 once everything received has been replayed (an idle primary
+    // writes nothing, so the replay timestamp alone would look like growing lag). That only holds while the WAL
+    // receiver is streaming: a disconnected replica has replayed all it received and would report 0 however far
+    // behind it is, so it answers NULL instead. Without pg_read_all_stats the receiver's status reads as NULL, and a
+    // running receiver process is taken as streaming. A server that is not in recovery is not a replica and has no lag
+    private static final String LAG = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                        WHERE COALESCE(status, 'streaming') = 'streaming') THEN NULL
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final List<Replica> replicas;
+    private final List<JdbcTemplate> probes;
+    private final double maxLagSeconds;
+
+    public ReplicaLagMonitor(List<Replica> replicas, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.probes = replicas.stream()
+                .map(replica -> {
+                    var probe = new JdbcTemplate(replica.dataSource());
+                    probe.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+                    return probe;
+                })
+                .toList();
+
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag", replica, Replica::lagSeconds)
+                    .tag("pool", replica.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.in.rotation", replica, r -> r.inRotation() ? 1 : 0)
+                    .tag("pool", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.datasource.replicas.lag-check-interval:1s}")
+    public void check() {
+        for (int i = 0; i < replicas.size(); i++) {
+            var replica = replicas.get(i);
+            boolean wasInRotation = replica.inRotation();
+            Double lag;
+            try {
+                lag = probes.get(i).queryForObject(LAG, Double.class);
+            } catch (RuntimeException e) {
+                replica.update(false, Double.NaN);
+                if (wasInRotation) {
+                    log.warn("Replica unreachable, taken out of rotation. pool={}", replica.name(), e);
+                }
+                continue;
+            }
+            if (lag == null) {
+                replica.update(false, Double.NaN);
+                if (wasInRotation) {
+                    log.warn("Replica not streaming from the primary, taken out of rotation. pool={}", replica.name());
+                }
+                continue;
+            }
+            boolean inRotation = lag <= maxLagSeconds;
+            replica.update(inRotation, lag);
+            if (inRotation != wasInRotation) {
+                log.info("Replica {} rotation. pool={}, lagSeconds={}", inRotation ? "back in" : "taken out of",
+                        replica.name(), lag);
+            }
+        }
+    }
+}
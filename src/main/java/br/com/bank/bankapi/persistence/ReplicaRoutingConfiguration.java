@@ -0,0 +1,84 @@
+package br.com.bank.bankapi.persistence;
+
+import br.com.bank.bankapi.persistence.ReplicaRoutingDataSource.Replica;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces the single auto-configured pool when api.datasource.replicas.urls is set. Connections are handed out lazily,
+// so the pool is chosen only once the transaction has marked the connection read-only: read-only transactions go to
+// the replicas, everything else to the primary. Every pool publishes its own hikaricp.* metrics, tagged by pool name.
+@Configuration
+@Conditional(ReplicasConfiguredCondition.class)
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                      DataSourceProperties properties,
+                                                      @Value("${api.datasource.replicas.urls}") String urls,
+                                                      @Value("${api.datasource.replicas.pool-size:10}") int poolSize,
+                                                      @Value("${api.datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+                                                      MeterRegistry meterRegistry) {
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(urls)) {
+            var config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(properties.determineUsername());
+            config.setPassword(properties.determinePassword());
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // A replica that is down must not prevent startup; the lag monitor keeps it out of rotation
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new Replica(config.getPoolName(), new HikariDataSource(config)));
+        }
+        return new ReplicaRoutingDataSource(primary, List.copyOf(replicas), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                    ReplicaRoutingDataSource replicaDataSource) {
+        var dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaDataSource,
+                                               @Value("${api.datasource.replicas.max-lag:1s}") Duration maxLag,
+                                               @Value("${api.datasource.replicas.lag-check-interval:1s}") Duration checkInterval,
+                                               MeterRegistry meterRegistry) {
+        var monitor = new ReplicaLagMonitor(replicaDataSource.getReplicas(), maxLag, checkInterval, meterRegistry);
+        // Replicas enter rotation only after a first successful check
+        monitor.check();
+        return monitor;
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.bank.bankapi.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Target of read-only connections: round-robins over the replicas currently in rotation and falls back to the primary
+// when none is, or when the calling thread is pinned to the primary for read-your-writes. The lag monitor decides
+// which replicas are in rotation.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name(), replica.dataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        this.primaryReads = reads(meterRegistry, PRIMARY);
+        this.replicaReads = reads(meterRegistry, "replica");
+    }
+
+    // Runs the query with every read-only connection it opens taken from the primary
+    public static <T> T onPrimary(Supplier<T> query) {
+        if (Boolean.TRUE.equals(PRIMARY_PINNED.get())) {
+            return query.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!Boolean.TRUE.equals(PRIMARY_PINNED.get())) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                var replica = replicas.get((start + i) % size);
+                if (replica.inRotation()) {
+                    replicaReads.increment();
+                    return replica.name();
+                }
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    // Closes the replica pools; the primary pool is a bean of its own
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.read.routing")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    // One replica pool and what the lag monitor last measured on it
+    public static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean inRotation;
+        private volatile double lagSeconds = Double.NaN;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean inRotation() {
+            return inRotation;
+        }
+
+        public double lagSeconds() {
+            return lagSeconds;
+        }
+
+        void update(boolean inRotation, double lagSeconds) {
+            this.inRotation = inRotation;
+            this.lagSeconds = lagSeconds;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.bank.bankapi.persistence;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.StringUtils;
+
+// True when at least one replica URL is configured
+class ReplicasConfiguredCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        return StringUtils.hasText(context.getEnvironment().getProperty("api.datasource.replicas.urls"));
+    }
+}
@@ -1,6 +1,8 @@
 package br.com.bank.bankapi.user.exception;
 
-public class UserInactiveException extends RuntimeException {
+import br.com.bank.bankapi.exception.StacklessException;
+
+public class UserInactiveException extends StacklessException {
     public UserInactiveException(String message) {
         super(message);
     }
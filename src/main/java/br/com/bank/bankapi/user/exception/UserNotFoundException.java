@@ -1,6 +1,8 @@
 package br.com.bank.bankapi.user.exception;
 
-public class UserNotFoundException extends RuntimeException {
+import br.com.bank.bankapi.exception.StacklessException;
+
+public class UserNotFoundException extends StacklessException {
     public UserNotFoundException(String message) {
         super(message);
     }
@@ -1,11 +1,20 @@
 package br.com.bank.bankapi.user.model;
 
+import br.com.bank.bankapi.auth.security.PrincipalCacheInvalidationListener;
+import br.com.bank.bankapi.auth.security.UsernameFilterListener;
 import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.persistence.CacheRegions;
+import br.com.bank.bankapi.persistence.TimeOrderedUuidGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,12 +27,17 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
+@NaturalIdCache(region = CacheRegions.USERS_BY_USERNAME)
+@EntityListeners({PrincipalCacheInvalidationListener.class, UsernameFilterListener.class})
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
+    // Immutable business key: lookups by username resolve through the natural-id cache
+    @NaturalId
     @NotBlank
     @Size(min = 3, max = 50)
     @Column(nullable = false, length = 50, unique = true)
@@ -0,0 +1,28 @@
+package br.com.bank.bankapi.user.model;
+
+import br.com.bank.bankapi.user.enums.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Slim, immutable view of a user placed in the security context, without the password hash
+public record UserPrincipal(UUID id, String username, Role role, boolean active) {
+
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority(role.name())));
+        }
+    }
+
+    // Returns the authorities granted by the user's role, shared between all principals with the same role
+    public Collection<? extends GrantedAuthority> authorities() {
+        return AUTHORITIES.get(role);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.bank.bankapi.user.repository;
+
+import br.com.bank.bankapi.user.model.User;
+
+public interface UserLookupRepository {
+
+    // Loads the user by its natural id, served from the second-level cache when present; null when there is none
+    User findByUsername(String username);
+}
@@ -0,0 +1,23 @@
+package br.com.bank.bankapi.user.repository;
+
+import br.com.bank.bankapi.user.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+// A derived query would always go to the database; a natural-id load first resolves the username to an id through
+// the natural-id cache and then the entity through the entity cache, so a repeat lookup runs no SQL at all
+class UserLookupRepositoryImpl implements UserLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .load(username);
+    }
+}
@@ -1,11 +1,40 @@
 package br.com.bank.bankapi.user.repository;
 
 import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
-    UserDetails findByUsername(String username);
+// Lookups run in read-only transactions, which go to a replica when replicas are configured
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, UUID>, UserLookupRepository {
+    boolean existsByUsername(String username);
+
+    // Loads only the columns needed to authenticate a request, leaving the password hash in the database
+    @Query("""
+            select new br.com.bank.bankapi.user.model.UserPrincipal(u.id, u.username, u.role, u.active)
+            from User u
+            where u.username = :username
+            """)
+    UserPrincipal findPrincipalByUsername(String username);
+
+    // Returns which of the given usernames are already taken, in a single query bound as one array parameter
+    @Query(value = "select username from users where username = any(:usernames)", nativeQuery = true)
+    List<String> findExistingUsernames(String[] usernames);
+
+    // Pages through every username in index order, used to warm the username filter. The filter must not miss a row
+    // that a lagging replica has not replayed yet, so these two run on the primary
+    @Transactional
+    @Query("select u.username from User u where u.username > :after order by u.username")
+    List<String> findUsernamesAfter(String after, Limit limit);
+
+    @Transactional
+    @Query("select u.username from User u where u.createdAt >= :since")
+    List<String> findUsernamesCreatedSince(Instant since);
 }
@@ -0,0 +1,14 @@
+-- Idempotency keys sent by clients on mutating requests, scoped per user. A row without status_code is a request still
+-- being executed (locked_at tells when it started); once completed it holds the response replayed to retries.
+CREATE TABLE idempotency_keys (
+    scope_key VARCHAR(300) PRIMARY KEY,
+    fingerprint BYTEA NOT NULL,
+    status_code SMALLINT,
+    content_type VARCHAR(255),
+    body BYTEA,
+    locked_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+-- Purge of expired rows
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
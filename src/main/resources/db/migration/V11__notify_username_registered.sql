@@ -0,0 +1,12 @@
+-- Publishes every new username on the username_registered channel once its insert commits, whatever inserted it
+-- (registration, bulk registration, scripts), so every instance can add it to its username filter straight away
+CREATE FUNCTION notify_username_registered() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('username_registered', NEW.username);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_notify_username_registered
+    AFTER INSERT ON users
+    FOR EACH ROW EXECUTE FUNCTION notify_username_registered();
@@ -0,0 +1,10 @@
+-- document is already covered by the unique constraint created with the table
+
+CREATE INDEX idx_customers_user_id ON customers (user_id);
+
+-- Keyset pagination walks (created_at, id), alone or after an equality filter on status
+CREATE INDEX idx_customers_created_at_id ON customers (created_at, id);
+CREATE INDEX idx_customers_status_created_at_id ON customers (status, created_at, id);
+
+-- Case-insensitive name prefix search (lower(full_name) LIKE 'abc%')
+CREATE INDEX idx_customers_full_name_prefix ON customers (lower(full_name) text_pattern_ops);
@@ -0,0 +1,13 @@
+-- Tokens revoked before their expiry, identified by the jti claim. Rows are only needed until expires_at.
+CREATE TABLE revoked_tokens (
+    token_id UUID PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Purge of expired rows
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+-- Incremental sync of the in-memory revocation list between instances
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
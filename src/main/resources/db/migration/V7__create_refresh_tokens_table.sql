@@ -0,0 +1,19 @@
+-- Opaque refresh tokens, stored only as their SHA-256 hash. Every rotation inserts a new row in the same family;
+-- presenting a row that was already used revokes the whole family.
+CREATE TABLE refresh_tokens (
+    id UUID PRIMARY KEY,
+    token_hash BYTEA NOT NULL UNIQUE,
+    family_id UUID NOT NULL,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    used_at TIMESTAMPTZ,
+    revoked_at TIMESTAMPTZ
+);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- Purge of expired rows
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,37 @@
+-- Accounts hold balances in minor units (cents). CUSTOMER accounts belong to a customer and can never go negative;
+-- INTERNAL accounts (cash, settlement, fees) have no customer and may. The balance column is written only by the
+-- ledger, together with the postings that explain it.
+CREATE TABLE accounts (
+    id UUID PRIMARY KEY,
+    customer_id UUID REFERENCES customers (id),
+    type VARCHAR(15) NOT NULL,
+    balance BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT chk_accounts_customer CHECK ((type = 'CUSTOMER') = (customer_id IS NOT NULL)),
+    CONSTRAINT chk_accounts_balance CHECK (type <> 'CUSTOMER' OR balance >= 0)
+);
+
+CREATE INDEX idx_accounts_customer_id ON accounts (customer_id);
+
+-- One row per money movement; its postings always sum to zero
+CREATE TABLE transfers (
+    id UUID PRIMARY KEY,
+    debit_account_id UUID NOT NULL REFERENCES accounts (id),
+    credit_account_id UUID NOT NULL REFERENCES accounts (id),
+    amount BIGINT NOT NULL CHECK (amount > 0),
+    reference VARCHAR(140),
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+-- Double-entry postings: negative amounts debit the account, positive amounts credit it
+CREATE TABLE postings (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    transfer_id UUID NOT NULL REFERENCES transfers (id),
+    account_id UUID NOT NULL REFERENCES accounts (id),
+    amount BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+-- Account history in posting order
+CREATE INDEX idx_postings_account_id ON postings (account_id, id);
@@ -0,0 +1,25 @@
+-- Posting ids are allocated by the ledger writer in blocks, so it knows the last posting of every account it updates
+ALTER TABLE postings ALTER COLUMN id SET GENERATED BY DEFAULT;
+
+-- Balance projection bookkeeping: the last posting applied to the balance and how many came after the last snapshot
+ALTER TABLE accounts
+    ADD COLUMN last_posting_id BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN postings_since_snapshot INT NOT NULL DEFAULT 0;
+
+UPDATE accounts a
+SET last_posting_id = p.last_posting_id,
+    postings_since_snapshot = p.postings
+FROM (SELECT account_id, max(id) AS last_posting_id, count(*) AS postings FROM postings GROUP BY account_id) p
+WHERE p.account_id = a.id;
+
+-- Balance of an account right after posting_id, which was posted at posted_at. A balance as of any date is the
+-- latest snapshot before it plus the postings that follow, at most one snapshot interval of them.
+CREATE TABLE balance_snapshots (
+    account_id UUID NOT NULL REFERENCES accounts (id),
+    posting_id BIGINT NOT NULL,
+    balance BIGINT NOT NULL,
+    posted_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (account_id, posting_id)
+);
+
+CREATE INDEX idx_balance_snapshots_posted_at ON balance_snapshots (account_id, posted_at, posting_id);
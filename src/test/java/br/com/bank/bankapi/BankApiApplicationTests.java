@@ -2,10 +2,20 @@ package br.com.bank.bankapi;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
 
 @SpringBootTest
 class BankApiApplicationTests {
 
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) throws IOException {
+		registry.add("api.audit.directory", Files.createTempDirectory("audit-")::toString);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,244 @@
+package br.com.bank.bankapi.account;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+import br.com.bank.bankapi.account.exception.InsufficientFundsException;
+import br.com.bank.bankapi.account.exception.InvalidTransferException;
+import br.com.bank.bankapi.account.exception.LedgerUnavailableException;
+import br.com.bank.bankapi.account.ledger.LedgerAccount;
+import br.com.bank.bankapi.account.ledger.LedgerEngine;
+import br.com.bank.bankapi.account.ledger.LedgerStore;
+import br.com.bank.bankapi.account.ledger.PendingTransfer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerEngineTest {
+
+    InMemoryLedgerStore store;
+    LedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryLedgerStore();
+        engine = new LedgerEngine(store, 16, 1000, 100, 1, 1000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    // Should move the amount between the accounts and commit one transfer with balanced postings
+    @Test
+    public void transferMovesBalance() {
+        var cash = engine.account(store.add(AccountType.INTERNAL, 0));
+        var customer = engine.account(store.add(AccountType.CUSTOMER, 0));
+
+        var posted = engine.transfer(cash, customer, 1_500, "deposit");
+
+        assertEquals(-1_500, cash.balance());
+        assertEquals(1_500, customer.balance());
+        assertEquals(1, store.written.size());
+        assertEquals(posted.id(), store.written.get(0).id());
+        assertEquals(0, store.committedBalance(cash.id()) + store.committedBalance(customer.id()));
+    }
+
+    // Should report the commit time of the batch, which never goes backwards from one batch to the next
+    @Test
+    public void postedAtFollowsCommitOrder() {
+        var cash = engine.account(store.add(AccountType.INTERNAL, 0));
+        var customer = engine.account(store.add(AccountType.CUSTOMER, 0));
+
+        var first = engine.transfer(cash, customer, 1, null);
+        var second = engine.transfer(cash, customer, 1, null);
+
+        assertEquals(store.postedAt, List.of(first.createdAt(), second.createdAt()));
+        assertFalse(second.createdAt().isBefore(first.createdAt()));
+    }
+
+    // Should refuse to overdraw a customer account and leave both balances untouched
+    @Test
+    public void transferRejectsInsufficientFunds() {
+        var customer = engine.account(store.add(AccountType.CUSTOMER, 100));
+        var other = engine.account(store.add(AccountType.CUSTOMER, 0));
+
+        assertThrows(InsufficientFundsException.class, () -> engine.transfer(customer, other, 101, null));
+        assertEquals(100, customer.balance());
+        assertEquals(0, other.balance());
+        assertTrue(store.written.isEmpty());
+    }
+
+    // Should reject a transfer to the same account
+    @Test
+    public void transferRejectsSameAccount() {
+        var customer = engine.account(store.add(AccountType.CUSTOMER, 100));
+
+        assertThrows(InvalidTransferException.class, () -> engine.transfer(customer, customer, 10, null));
+    }
+
+    // Should fail the transfer and reload both accounts from the database when the batch cannot be committed
+    @Test
+    public void failedCommitReloadsAccounts() {
+        var customer = engine.account(store.add(AccountType.CUSTOMER, 100));
+        var other = engine.account(store.add(AccountType.CUSTOMER, 0));
+        store.failing = true;
+
+        assertThrows(LedgerUnavailableException.class, () -> engine.transfer(customer, other, 60, null));
+        assertEquals(100, engine.account(customer.id()).balance());
+        assertEquals(0, engine.account(other.id()).balance());
+    }
+
+    // Should fail only the transfer whose money another writer already moved, commit the rest of its batch and reload
+    // the stale account
+    @Test
+    public void refusedTransferFailsAloneAndReloadsAccount() throws Exception {
+        var cash = engine.account(store.add(AccountType.INTERNAL, 0));
+        var stale = engine.account(store.add(AccountType.CUSTOMER, 100));
+        var funded = engine.account(store.add(AccountType.CUSTOMER, 100));
+        var other = engine.account(store.add(AccountType.CUSTOMER, 0));
+        // Another instance spends 70 of the stale account's 100
+        store.balances.put(stale.id(), 30L);
+
+        // Holds the writer on a first transfer so the next two are committed as one batch
+        store.gate = new CountDownLatch(1);
+        var first = engine.submit(cash, other, 1, null);
+        var refused = engine.submit(stale, other, 60, null);
+        var accepted = engine.submit(funded, other, 10, null);
+        store.gate.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        var failure = assertThrows(ExecutionException.class, () -> refused.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientFundsException.class, failure.getCause());
+        assertEquals(funded.id(), accepted.get(5, TimeUnit.SECONDS).debitAccountId());
+        assertEquals(30, engine.account(stale.id()).balance());
+        assertEquals(11, engine.account(other.id()).balance());
+        assertEquals(90, store.committedBalance(funded.id()));
+    }
+
+    // Should not deadlock on transfers in opposite directions and never create or lose money
+    @Test
+    public void concurrentTransfersConserveMoney() throws Exception {
+        int accountCount = 8;
+        List<LedgerAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(engine.account(store.add(AccountType.CUSTOMER, 1_000)));
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    var from = accounts.get((seed + i) % accountCount);
+                    var to = accounts.get((seed + i * 3 + 1) % accountCount);
+                    if (from != to) {
+                        try {
+                            engine.transfer(from, to, 7, null);
+                        } catch (InsufficientFundsException ignored) {
+                            // expected once an account runs dry
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long inMemory = accounts.stream().mapToLong(LedgerAccount::balance).sum();
+        long committed = accounts.stream().mapToLong(account -> store.committedBalance(account.id())).sum();
+        assertEquals(accountCount * 1_000L, inMemory);
+        assertEquals(accountCount * 1_000L, committed);
+        for (LedgerAccount account : accounts) {
+            assertTrue(account.balance() >= 0);
+            assertEquals(store.committedBalance(account.id()), account.balance());
+        }
+    }
+
+    // Stands in for the database: keeps the committed balances and every written transfer
+    static class InMemoryLedgerStore implements LedgerStore {
+        final Map<UUID, LedgerAccount> accounts = new ConcurrentHashMap<>();
+        final Map<UUID, Long> balances = new ConcurrentHashMap<>();
+        final List<PendingTransfer> written = new ArrayList<>();
+        final List<Instant> postedAt = new ArrayList<>();
+        volatile boolean failing;
+        volatile CountDownLatch gate;
+
+        UUID add(AccountType type, long balance) {
+            var id = UUID.randomUUID();
+            accounts.put(id, new LedgerAccount(id, type, null, balance));
+            balances.put(id, balance);
+            return id;
+        }
+
+        long committedBalance(UUID id) {
+            return balances.get(id);
+        }
+
+        @Override
+        public Optional<LedgerAccount> loadAccount(UUID accountId) {
+            return Optional.ofNullable(accounts.get(accountId))
+                    .map(account -> new LedgerAccount(accountId, account.type(), null, balances.get(accountId)));
+        }
+
+        // Like the database, refuses the whole batch when any of its transfers leaves a customer account below zero
+        @Override
+        public synchronized Instant write(List<PendingTransfer> batch, Instant postedAt) {
+            awaitGate();
+            if (failing) {
+                throw new IllegalStateException("database down");
+            }
+            Map<UUID, Long> after = new HashMap<>(balances);
+            for (PendingTransfer transfer : batch) {
+                long debitBalance = after.merge(transfer.debit().id(), -transfer.amount(), Long::sum);
+                if (accounts.get(transfer.debit().id()).type() == AccountType.CUSTOMER && debitBalance < 0) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+                after.merge(transfer.credit().id(), transfer.amount(), Long::sum);
+            }
+            balances.putAll(after);
+            written.addAll(batch);
+            this.postedAt.add(postedAt);
+            return postedAt;
+        }
+
+        private void awaitGate() {
+            var latch = gate;
+            if (latch == null) {
+                return;
+            }
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
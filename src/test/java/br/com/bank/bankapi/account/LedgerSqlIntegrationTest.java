@@ -0,0 +1,220 @@
+package br.com.bank.bankapi.account;
+
+import br.com.bank.bankapi.account.enums.AccountType;
+import br.com.bank.bankapi.account.exception.InsufficientFundsException;
+import br.com.bank.bankapi.account.ledger.JdbcLedgerStore;
+import br.com.bank.bankapi.account.ledger.LedgerAccount;
+import br.com.bank.bankapi.account.ledger.PendingTransfer;
+import br.com.bank.bankapi.account.repository.AccountConsistency;
+import br.com.bank.bankapi.account.repository.BalanceRepository;
+import br.com.bank.bankapi.account.repository.RebuiltBalance;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Writes ledger batches to a local PostgreSQL with a snapshot every two postings, and checks the as-of, rebuild and
+// consistency SQL against what was written
+@ExtendWith(LedgerSqlIntegrationTest.StopDatabase.class)
+@SpringBootTest
+@DirtiesContext
+class LedgerSqlIntegrationTest {
+
+    static final EmbeddedPostgres database = start();
+
+    @Autowired
+    JdbcLedgerStore store;
+    @Autowired
+    BalanceRepository balanceRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    LedgerAccount source;
+    LedgerAccount target;
+    Instant start;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", () -> database.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("api.audit.directory", Files.createTempDirectory("audit-")::toString);
+        registry.add("api.ledger.snapshots.interval", () -> "2");
+    }
+
+    @BeforeEach
+    void setUp() {
+        source = account();
+        target = account();
+        // Later than anything a previous test posted, so the store never has to move these postings forward
+        start = jdbcTemplate.queryForObject("SELECT COALESCE(max(created_at), now()) FROM postings", Timestamp.class)
+                .toInstant()
+                .plus(1, ChronoUnit.HOURS)
+                .truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    // Should answer the balance at every posting time from the snapshots plus the postings that follow them
+    @Test
+    public void balanceAsOfEveryPostingTime() {
+        for (int i = 1; i <= 5; i++) {
+            store.write(List.of(transfer(source, target, i)), at(i));
+        }
+
+        assertEquals(2, snapshots(source));
+        assertEquals(0, balanceRepository.balanceAsOf(source.id(), at(0)));
+        long expected = 0;
+        for (int i = 1; i <= 5; i++) {
+            expected += i;
+            assertEquals(-expected, balanceRepository.balanceAsOf(source.id(), at(i)));
+            assertEquals(expected, balanceRepository.balanceAsOf(target.id(), at(i)));
+            assertEquals(-expected, balanceRepository.balanceAsOf(source.id(), at(i).plusMillis(500)));
+        }
+    }
+
+    // Should snapshot the balance after the last posting of a batch that moved the account twice
+    @Test
+    public void snapshotsTakeTheBatchBalance() {
+        store.write(List.of(transfer(source, target, 10), transfer(source, target, 20)), at(1));
+
+        assertEquals(-30, jdbcTemplate.queryForObject(
+                "SELECT balance FROM balance_snapshots WHERE account_id = ?", Long.class, source.id()));
+        assertEquals(-30, balanceRepository.balanceAsOf(source.id(), at(1)));
+    }
+
+    // Should post at the time of the latest posting when the caller's clock is behind it
+    @Test
+    public void neverPostsBeforeTheLatestPosting() {
+        store.write(List.of(transfer(source, target, 1)), at(10));
+
+        assertEquals(at(10), store.write(List.of(transfer(source, target, 2)), at(5)));
+        assertEquals(0, balanceRepository.balanceAsOf(source.id(), at(5)));
+        assertEquals(-3, balanceRepository.balanceAsOf(source.id(), at(10)));
+    }
+
+    // Should keep the highest posting id when a batch carrying older ids commits after a newer one
+    @Test
+    public void lastPostingIdNeverMovesBack() {
+        jdbcTemplate.update("UPDATE accounts SET last_posting_id = ? WHERE id = ?", Long.MAX_VALUE, source.id());
+
+        store.write(List.of(transfer(source, target, 1)), at(1));
+
+        assertEquals(Long.MAX_VALUE, jdbcTemplate.queryForObject(
+                "SELECT last_posting_id FROM accounts WHERE id = ?", Long.class, source.id()));
+    }
+
+    // Should refuse a batch whose debit is only covered by a credit later in the same batch, writing nothing
+    @Test
+    public void refusesBatchThatDipsBelowZero() {
+        var customer = customerAccount();
+        store.write(List.of(transfer(source, customer, 100)), at(1));
+
+        assertThrows(InsufficientFundsException.class, () -> store.write(
+                List.of(transfer(customer, target, 150), transfer(source, customer, 100)), at(2)));
+        assertEquals(100, balanceRepository.balanceAsOf(customer.id(), at(2)));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM postings WHERE account_id = ?", Integer.class, customer.id()));
+
+        store.write(List.of(transfer(source, customer, 100), transfer(customer, target, 150)), at(3));
+        assertEquals(50, balanceRepository.balanceAsOf(customer.id(), at(3)));
+    }
+
+    // Should report a projection and a snapshot that disagree with the postings, and leave both consistent once rebuilt
+    @Test
+    public void rebuildRepairsWhatCheckReports() {
+        for (int i = 1; i <= 5; i++) {
+            store.write(List.of(transfer(source, target, i)), at(i));
+        }
+        jdbcTemplate.update("UPDATE accounts SET balance = 999 WHERE id = ?", source.id());
+        jdbcTemplate.update("UPDATE balance_snapshots SET balance = balance + 1 WHERE account_id = ?", target.id());
+        jdbcTemplate.update("DELETE FROM balance_snapshots WHERE account_id = ?", source.id());
+
+        assertEquals(List.of(new AccountConsistency(source.id(), true, false)), check(source));
+        assertEquals(List.of(new AccountConsistency(target.id(), false, true)), check(target));
+
+        RebuiltBalance rebuilt = transactionTemplate.execute(status -> balanceRepository.rebuild(source.id(), 2));
+        transactionTemplate.executeWithoutResult(status -> balanceRepository.rebuild(target.id(), 2));
+
+        assertEquals(new RebuiltBalance(999, -15, 2), rebuilt);
+        assertEquals(List.of(new AccountConsistency(source.id(), false, false)), check(source));
+        assertEquals(List.of(new AccountConsistency(target.id(), false, false)), check(target));
+        assertEquals(2, snapshots(source));
+        assertEquals(-6, balanceRepository.balanceAsOf(source.id(), at(3)));
+        assertEquals(15, balanceRepository.balanceAsOf(target.id(), at(5)));
+    }
+
+    private List<AccountConsistency> check(LedgerAccount account) {
+        return balanceRepository.check(List.of(account.id()));
+    }
+
+    private int snapshots(LedgerAccount account) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM balance_snapshots WHERE account_id = ?", Integer.class, account.id());
+    }
+
+    private Instant at(int seconds) {
+        return start.plusSeconds(seconds);
+    }
+
+    private LedgerAccount account() {
+        var id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounts (id, type) VALUES (?, ?)", id, AccountType.INTERNAL.name());
+        return new LedgerAccount(id, AccountType.INTERNAL, null, 0);
+    }
+
+    private LedgerAccount customerAccount() {
+        var userId = UUID.randomUUID();
+        var customerId = UUID.randomUUID();
+        var id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role) VALUES (?, ?, ?, 'x', 'ROLE_CLIENT')",
+                userId, "ledger-" + userId, userId + "@test.com");
+        jdbcTemplate.update("INSERT INTO customers (id, full_name, document, status, user_id) VALUES (?, 'Ledger Customer', ?, 'ACTIVE', ?)",
+                customerId, "%011d".formatted(Math.floorMod(customerId.getMostSignificantBits(), 100_000_000_000L)), userId);
+        jdbcTemplate.update("INSERT INTO accounts (id, customer_id, type) VALUES (?, ?, ?)",
+                id, customerId, AccountType.CUSTOMER.name());
+        return new LedgerAccount(id, AccountType.CUSTOMER, userId, 0);
+    }
+
+    private static PendingTransfer transfer(LedgerAccount debit, LedgerAccount credit, long amount) {
+        return new PendingTransfer(UUID.randomUUID(), debit, credit, amount, "test", new CompletableFuture<>());
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Declared ahead of the Spring extension so that it runs after it, once the context is closed
+    static class StopDatabase implements AfterAllCallback {
+        @Override
+        public void afterAll(ExtensionContext context) throws IOException {
+            database.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.bank.bankapi.account.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementControllerTest {
+
+    // Should gzip when the client lists gzip or x-gzip with a positive or default quality
+    @Test
+    public void acceptsListedGzip() {
+        assertTrue(StatementController.acceptsGzip("gzip"));
+        assertTrue(StatementController.acceptsGzip("deflate, gzip;q=0.5"));
+        assertTrue(StatementController.acceptsGzip("br; q=1.0, GZIP ; Q=0.1"));
+        assertTrue(StatementController.acceptsGzip("x-gzip"));
+    }
+
+    // Should not gzip when the client refuses it, never mentions it, or sends no header
+    @Test
+    public void refusesGzipWithZeroQuality() {
+        assertFalse(StatementController.acceptsGzip(null));
+        assertFalse(StatementController.acceptsGzip(""));
+        assertFalse(StatementController.acceptsGzip("gzip;q=0"));
+        assertFalse(StatementController.acceptsGzip("gzip;q=0.000, deflate"));
+        assertFalse(StatementController.acceptsGzip("gzip;q=abc"));
+        assertFalse(StatementController.acceptsGzip("deflate, br"));
+        assertFalse(StatementController.acceptsGzip("identity"));
+    }
+
+    // Should let a wildcard allow gzip unless gzip itself is refused
+    @Test
+    public void wildcardYieldsToExplicitGzip() {
+        assertTrue(StatementController.acceptsGzip("*"));
+        assertFalse(StatementController.acceptsGzip("*;q=0"));
+        assertFalse(StatementController.acceptsGzip("*, gzip;q=0"));
+        assertTrue(StatementController.acceptsGzip("*;q=0, gzip"));
+    }
+}
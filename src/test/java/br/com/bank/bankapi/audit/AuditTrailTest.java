@@ -0,0 +1,140 @@
+package br.com.bank.bankapi.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AuditTrailTest {
+
+    @TempDir
+    Path directory;
+
+    // Should persist published events and replay them in order with consecutive sequence numbers
+    @Test
+    public void recordAndReplay() throws IOException {
+        var trail = trail(64, DataSize.ofMegabytes(1));
+        trail.start();
+        trail.record(AuditEventType.USER_REGISTERED, "leo", "ROLE_CLIENT");
+        trail.record(AuditEventType.LOGIN_FAILED, "leo", "INVALID_CREDENTIALS");
+        trail.record(AuditEventType.LOGIN_SUCCEEDED, "leo", "");
+        trail.stop();
+
+        List<AuditEvent> events = replay(0);
+
+        assertEquals(3, events.size());
+        assertEquals(AuditEventType.USER_REGISTERED, events.get(0).type());
+        assertEquals("INVALID_CREDENTIALS", events.get(1).detail());
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(AuditEvent::sequence).toList());
+    }
+
+    // Should rotate segments by size and keep numbering across them and across restarts
+    @Test
+    public void rotatesAndResumes() throws IOException {
+        var trail = trail(1024, DataSize.ofBytes(512));
+        trail.start();
+        for (int i = 0; i < 100; i++) {
+            trail.record(AuditEventType.LOGIN_SUCCEEDED, "user" + i, "");
+        }
+        trail.stop();
+
+        var restarted = trail(1024, DataSize.ofBytes(512));
+        restarted.start();
+        restarted.record(AuditEventType.LOGOUT, "user0", "");
+        restarted.stop();
+
+        assertTrue(AuditSegments.list(directory).size() > 1);
+        List<AuditEvent> events = replay(0);
+        assertEquals(101, events.size());
+        assertEquals(101, events.get(100).sequence());
+        assertEquals(List.of(51L), replay(51).stream().limit(1).map(AuditEvent::sequence).toList());
+    }
+
+    // Should ignore and cut off a torn record left at the end of the last segment
+    @Test
+    public void recoversFromTornTail() throws IOException {
+        var trail = trail(64, DataSize.ofMegabytes(1));
+        trail.start();
+        trail.record(AuditEventType.LOGIN_SUCCEEDED, "leo", "");
+        trail.stop();
+
+        Path segment = AuditSegments.list(directory).get(0);
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+        assertEquals(1, replay(0).size());
+
+        var restarted = trail(64, DataSize.ofMegabytes(1));
+        restarted.start();
+        restarted.record(AuditEventType.LOGOUT, "leo", "");
+        restarted.stop();
+
+        List<AuditEvent> events = replay(0);
+        assertEquals(2, events.size());
+        assertEquals(AuditEventType.LOGOUT, events.get(1).type());
+    }
+
+    // Should drop events when the buffer is full and record how many were lost
+    @Test
+    public void recordsDroppedEvents() throws IOException {
+        var trail = trail(4, DataSize.ofMegabytes(1));
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (trail.record(AuditEventType.LOGIN_FAILED, "attacker", "")) {
+                accepted++;
+            }
+        }
+        trail.start();
+        trail.stop();
+
+        List<AuditEvent> events = replay(0);
+        assertEquals(4, accepted);
+        assertEquals(5, events.size());
+        assertEquals(AuditEventType.EVENTS_DROPPED, events.get(4).type());
+        assertEquals("6", events.get(4).detail());
+    }
+
+    // Should count the events of a batch that could not be written as dropped and keep the writer running
+    @Test
+    public void countsEventsLostToWriteErrors() throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.exists(full));
+        Files.createSymbolicLink(AuditSegments.segmentPath(directory, 1), full);
+        var meterRegistry = new SimpleMeterRegistry();
+        var trail = trail(64, DataSize.ofMegabytes(1), meterRegistry);
+        trail.start();
+        trail.record(AuditEventType.LOGIN_SUCCEEDED, "leo", "");
+        trail.record(AuditEventType.LOGOUT, "leo", "");
+        trail.stop();
+
+        assertEquals(2.0, meterRegistry.get("audit.events.dropped").counter().count());
+        assertEquals(0.0, meterRegistry.get("audit.events.written").counter().count());
+        assertTrue(meterRegistry.get("audit.write.errors").counter().count() >= 1);
+    }
+
+    private AuditTrail trail(int bufferCapacity, DataSize segmentSize) {
+        return trail(bufferCapacity, segmentSize, new SimpleMeterRegistry());
+    }
+
+    private AuditTrail trail(int bufferCapacity, DataSize segmentSize, SimpleMeterRegistry meterRegistry) {
+        return new AuditTrail(directory, bufferCapacity, 256, segmentSize, false, Duration.ofMillis(1), meterRegistry);
+    }
+
+    private List<AuditEvent> replay(long fromSequence) throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        new AuditLogReader(directory).replay(fromSequence, events::add);
+        return events;
+    }
+}
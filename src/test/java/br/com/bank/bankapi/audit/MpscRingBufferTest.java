@@ -0,0 +1,62 @@
+package br.com.bank.bankapi.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    // Should hand elements out in publication order and refuse new ones while full
+    @Test
+    public void offerAndDrain() {
+        var buffer = new MpscRingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drain(drained::add, 3));
+        assertTrue(buffer.offer(5));
+        buffer.drain(drained::add, 10);
+
+        assertEquals(List.of(0, 1, 2, 3, 5), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    // Should deliver every element exactly once when many producers publish while the consumer drains
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        var buffer = new MpscRingBuffer<Long>(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            var thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Set<Long> received = new HashSet<>();
+        while (received.size() < producers * perProducer) {
+            buffer.drain(received::add, 256);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * perProducer, received.size());
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.bank.bankapi.customer;
+
+import br.com.bank.bankapi.customer.dto.CustomerPageDTO;
+import br.com.bank.bankapi.customer.dto.CustomerSearchFilter;
+import br.com.bank.bankapi.customer.dto.CustomerSummaryDTO;
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.customer.service.CustomerSearchService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pages through customers that share their creation time against a local PostgreSQL, where the (created_at, id)
+// keyset is what keeps pages from overlapping or skipping rows
+@ExtendWith(CustomerSearchIntegrationTest.StopDatabase.class)
+@SpringBootTest
+@DirtiesContext
+class CustomerSearchIntegrationTest {
+
+    static final EmbeddedPostgres database = start();
+
+    @Autowired
+    CustomerSearchService searchService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", () -> database.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("api.audit.directory", Files.createTempDirectory("audit-")::toString);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM customers");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'search-owner'");
+        jdbcTemplate.update("""
+                INSERT INTO users (id, username, email, password, role, active, created_at, updated_at)
+                VALUES (md5('search-owner')::uuid, 'search-owner', 'search-owner@test.com', 'x', 'ROLE_CLIENT', true, now(), now())
+                """);
+        // Seven customers created in the same microsecond, then three more, a few of them blocked
+        jdbcTemplate.update("""
+                INSERT INTO customers (full_name, document, status, user_id, created_at)
+                SELECT 'Customer ' || i, lpad(i::text, 11, '0'), CASE WHEN i % 3 = 0 THEN 'BLOCKED' ELSE 'ACTIVE' END,
+                       md5('search-owner')::uuid,
+                       CASE WHEN i <= 7 THEN timestamptz '2025-03-01 10:00:00+00' ELSE timestamptz '2025-03-01 11:00:00+00' END
+                FROM generate_series(1, 10) i
+                """);
+    }
+
+    // Should return every customer exactly once, in (created_at, id) order, whatever the page size
+    @Test
+    public void pagesNeitherOverlapNorSkipTiedRows() {
+        var expected = jdbcTemplate.queryForList("SELECT id FROM customers ORDER BY created_at, id", UUID.class);
+
+        for (int size = 1; size <= 4; size++) {
+            assertEquals(expected, ids(readAll(new CustomerSearchFilter(null, null, null, null), size)), "size " + size);
+        }
+    }
+
+    // Should keep seeking past tied rows when a filter leaves gaps between them
+    @Test
+    public void filteredPagesNeitherOverlapNorSkipTiedRows() {
+        var expected = jdbcTemplate.queryForList(
+                "SELECT id FROM customers WHERE status = 'ACTIVE' ORDER BY created_at, id", UUID.class);
+
+        var rows = readAll(new CustomerSearchFilter(CustomerStatus.ACTIVE, null, null, null), 2);
+
+        assertEquals(expected, ids(rows));
+        assertEquals(rows.size(), new HashSet<>(ids(rows)).size());
+    }
+
+    private List<CustomerSummaryDTO> readAll(CustomerSearchFilter filter, int size) {
+        List<CustomerSummaryDTO> rows = new ArrayList<>();
+        String cursor = null;
+        do {
+            CustomerPageDTO page = searchService.search(filter, cursor, size);
+            assertTrue(page.items().size() <= size);
+            rows.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return rows;
+    }
+
+    private static List<UUID> ids(List<CustomerSummaryDTO> rows) {
+        return rows.stream().map(CustomerSummaryDTO::id).toList();
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Declared ahead of the Spring extension so that it runs after it, once the context is closed
+    static class StopDatabase implements AfterAllCallback {
+        @Override
+        public void afterAll(ExtensionContext context) throws IOException {
+            database.close();
+        }
+    }
+}
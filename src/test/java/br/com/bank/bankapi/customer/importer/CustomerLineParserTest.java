@@ -0,0 +1,80 @@
+package br.com.bank.bankapi.customer.importer;
+
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerLineParserTest {
+
+    static final String USER_ID = "0190d5a8-6c1e-7000-8000-000000000001";
+
+    // Should parse a CSV row by header position, normalizing the CPF and defaulting the status
+    @Test
+    public void parsesCsvRow() {
+        var parser = CustomerLineParser.csv("\uFEFFUser_Id,Full_Name,Document");
+
+        var parsed = parser.parse(USER_ID + ",Maria Silva,529.982.247-25");
+
+        assertNull(parsed.error());
+        assertEquals(new CustomerImportRecord("Maria Silva", "52998224725", CustomerStatus.ACTIVE, UUID.fromString(USER_ID)),
+                parsed.record());
+    }
+
+    // Should keep commas and doubled quotes inside quoted fields
+    @Test
+    public void splitsQuotedFields() {
+        assertEquals(List.of("Silva, Maria \"Mia\"", "52998224725", ""),
+                CustomerLineParser.splitCsv("\"Silva, Maria \"\"Mia\"\"\",52998224725,"));
+    }
+
+    // Should refuse a header without the required columns
+    @Test
+    public void rejectsIncompleteHeader() {
+        assertThrows(IllegalArgumentException.class, () -> CustomerLineParser.csv("full_name,document"));
+    }
+
+    // Should reject a row with the wrong number of columns
+    @Test
+    public void rejectsMalformedCsvRow() {
+        var parser = CustomerLineParser.csv("full_name,document,user_id");
+
+        var parsed = parser.parse("Maria Silva,52998224725");
+
+        assertNull(parsed.record());
+        assertEquals("expected 3 columns", parsed.error());
+    }
+
+    // Should reject a row whose CPF verification digits do not match
+    @Test
+    public void rejectsInvalidCpf() {
+        var parser = CustomerLineParser.csv("full_name,document,user_id");
+
+        assertEquals("document: invalid CPF", parser.parse("Maria Silva,52998224726," + USER_ID).error());
+    }
+
+    // Should reject rows with a short name, an unknown status or a malformed user id
+    @Test
+    public void rejectsInvalidFields() {
+        var parser = CustomerLineParser.csv("full_name,document,status,user_id");
+
+        assertEquals("fullName: size must be between 3 and 120", parser.parse("Al,52998224725,ACTIVE," + USER_ID).error());
+        assertEquals("status: unknown value", parser.parse("Maria Silva,52998224725,GONE," + USER_ID).error());
+        assertEquals("userId: invalid UUID", parser.parse("Maria Silva,52998224725,ACTIVE,42").error());
+    }
+
+    // Should parse NDJSON lines and reject malformed JSON
+    @Test
+    public void parsesNdjson() {
+        var parser = CustomerLineParser.ndjson(JsonMapper.shared());
+
+        var parsed = parser.parse("{\"fullName\":\"Maria Silva\",\"document\":\"11144477735\",\"status\":\"BLOCKED\",\"userId\":\"" + USER_ID + "\"}");
+
+        assertEquals("11144477735", parsed.record().document());
+        assertEquals("malformed JSON", parser.parse("{\"fullName\":").error());
+    }
+}
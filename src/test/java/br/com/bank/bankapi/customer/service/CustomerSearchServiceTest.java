@@ -0,0 +1,118 @@
+package br.com.bank.bankapi.customer.service;
+
+import br.com.bank.bankapi.customer.controller.CustomerController;
+import br.com.bank.bankapi.customer.dto.CustomerSearchFilter;
+import br.com.bank.bankapi.customer.dto.CustomerSummaryDTO;
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.customer.exception.InvalidCursorException;
+import br.com.bank.bankapi.customer.repository.CustomerRepository;
+import br.com.bank.bankapi.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSearchServiceTest {
+
+    static final CustomerSearchFilter NO_FILTER = new CustomerSearchFilter(null, null, null, null);
+
+    @Mock
+    CustomerRepository repository;
+
+    @InjectMocks
+    CustomerSearchService service;
+
+    // Should decode a cursor back to the exact position it was made from, nanoseconds included
+    @Test
+    public void cursorRoundTrip() {
+        var createdAt = Instant.parse("2025-03-01T10:15:30.123456789Z");
+        var id = UUID.randomUUID();
+
+        var position = CustomerSearchService.decodeCursor(CustomerSearchService.encodeCursor(createdAt, id));
+
+        assertEquals(createdAt, position.createdAt());
+        assertEquals(id, position.id());
+    }
+
+    // Should reject anything that is not a cursor made by the service
+    @Test
+    public void rejectsMalformedCursors() {
+        for (String cursor : List.of("not base64!", encode("1:2"), encode("a:0:" + UUID.randomUUID()),
+                encode("1:0:not-a-uuid"), encode("1:0:" + UUID.randomUUID() + ":extra"),
+                encode(Long.MAX_VALUE + ":0:" + UUID.randomUUID()))) {
+            assertThrows(InvalidCursorException.class, () -> CustomerSearchService.decodeCursor(cursor), cursor);
+        }
+    }
+
+    // Should answer a malformed cursor with 400 before any query runs
+    @Test
+    public void malformedCursorIsBadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CustomerController(service))
+                .setControllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry()))
+                .build();
+
+        mockMvc.perform(get("/customers").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor"));
+
+        verifyNoInteractions(repository);
+    }
+
+    // Should seek after the cursor's position and hand out a cursor on the last row only when another row exists
+    @Test
+    public void nextCursorPointsAtLastRowOfPage() {
+        var createdAt = Instant.parse("2025-03-01T10:15:30Z");
+        var rows = List.of(row(createdAt), row(createdAt), row(createdAt));
+        when(repository.search(NO_FILTER, null, null, 3)).thenReturn(rows);
+
+        var first = service.search(NO_FILTER, null, 2);
+
+        assertEquals(rows.subList(0, 2), first.items());
+        var position = CustomerSearchService.decodeCursor(first.nextCursor());
+        assertEquals(new CustomerSearchService.CursorPosition(createdAt, rows.get(1).id()), position);
+
+        when(repository.search(NO_FILTER, createdAt, rows.get(1).id(), 3)).thenReturn(rows.subList(2, 3));
+
+        var second = service.search(NO_FILTER, first.nextCursor(), 2);
+
+        assertEquals(rows.subList(2, 3), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    // Should clamp the page size to the allowed range
+    @Test
+    public void clampsPageSize() {
+        when(repository.search(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        service.search(NO_FILTER, null, 0);
+        service.search(NO_FILTER, null, 10_000);
+
+        verify(repository).search(NO_FILTER, null, null, 2);
+        verify(repository).search(NO_FILTER, null, null, CustomerSearchService.MAX_PAGE_SIZE + 1);
+    }
+
+    private static CustomerSummaryDTO row(Instant createdAt) {
+        return new CustomerSummaryDTO(UUID.randomUUID(), "Customer", "12345678909", CustomerStatus.ACTIVE, createdAt);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.bank.bankapi.customer.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpfTest {
+
+    // Should accept CPFs whose two verification digits match
+    @Test
+    public void acceptsValidCheckDigits() {
+        assertTrue(Cpf.isValid("52998224725"));
+        assertTrue(Cpf.isValid("11144477735"));
+    }
+
+    // Should reject a CPF when either verification digit is wrong
+    @Test
+    public void rejectsWrongCheckDigits() {
+        assertFalse(Cpf.isValid("52998224715"));
+        assertFalse(Cpf.isValid("52998224726"));
+    }
+
+    // Should reject wrong lengths, missing values and repeated digits
+    @Test
+    public void rejectsMalformedValues() {
+        assertFalse(Cpf.isValid(null));
+        assertFalse(Cpf.isValid("5299822472"));
+        assertFalse(Cpf.isValid("529982247250"));
+        assertFalse(Cpf.isValid("11111111111"));
+    }
+
+    // Should strip dots, dashes and spaces but refuse any other character
+    @Test
+    public void normalizesPunctuation() {
+        assertEquals("52998224725", Cpf.normalize("529.982.247-25"));
+        assertEquals("52998224725", Cpf.normalize(" 529 982 247 25 "));
+        assertNull(Cpf.normalize("529/982/247-25"));
+        assertNull(Cpf.normalize(null));
+    }
+
+    // Should compute the verification digit, mapping a remainder of 10 to 0
+    @Test
+    public void computesCheckDigit() {
+        assertEquals(2, Cpf.checkDigit("529982247", 9));
+        assertEquals(5, Cpf.checkDigit("5299822472", 10));
+        assertEquals(0, Cpf.checkDigit("000000006", 9));
+    }
+}
@@ -0,0 +1,152 @@
+package br.com.bank.bankapi.exception;
+
+import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
+import br.com.bank.bankapi.auth.exception.InvalidCredentialsException;
+import br.com.bank.bankapi.auth.exception.PasswordHashingUnavailableException;
+import br.com.bank.bankapi.auth.exception.TooManyLoginAttemptsException;
+import br.com.bank.bankapi.user.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Valid;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class GlobalExceptionHandlerTest {
+
+    SimpleMeterRegistry meterRegistry;
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mockMvc = MockMvcBuilders.standaloneSetup(new FailingController())
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
+                .build();
+    }
+
+    // Should answer a failed login with the problem+json body and count the failure
+    @Test
+    public void invalidCredentialsAsProblemJson() throws Exception {
+        mockMvc.perform(post("/invalid-credentials"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(content().json("""
+                        {"type":"about:blank","title":"Unauthorized","status":401,"detail":"Invalid username or password"}
+                        """, JsonCompareMode.STRICT));
+
+        assertEquals(1.0, meterRegistry.get("auth.login.failures").tag("exception", "InvalidCredentialsException").counter().count());
+    }
+
+    // Should send the same body on every occurrence, whatever the request
+    @Test
+    public void userNotFoundBodyIsShared() throws Exception {
+        byte[] first = mockMvc.perform(post("/user-not-found"))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] second = mockMvc.perform(post("/user-not-found").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(first, second);
+    }
+
+    // Should answer a rate-limited login as problem+json, keeping each exception's own Retry-After
+    @Test
+    public void tooManyLoginAttemptsKeepsRetryAfter() throws Exception {
+        mockMvc.perform(post("/too-many-login-attempts"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "42"))
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(content().json("""
+                        {"type":"about:blank","title":"Too Many Requests","status":429,
+                         "detail":"Too many login attempts, try again later"}
+                        """, JsonCompareMode.STRICT));
+        mockMvc.perform(post("/too-many-login-attempts").param("retryAfter", "7"))
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    // Should answer a saturated password hashing pool as problem+json with Retry-After
+    @Test
+    public void passwordHashingUnavailableAsProblemJson() throws Exception {
+        mockMvc.perform(post("/password-hashing-unavailable"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(content().json("""
+                        {"type":"about:blank","title":"Service Unavailable","status":503,
+                         "detail":"Authentication service is busy, try again later"}
+                        """, JsonCompareMode.STRICT));
+    }
+
+    // Should report the first invalid field of an authentication request as problem+json
+    @Test
+    public void authValidationErrorAsProblemJson() throws Exception {
+        mockMvc.perform(post("/auth/validated").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"username":"leo","password":""}
+                        """))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.detail").value("password: must not be blank"));
+    }
+
+    // Should keep answering validation errors outside authentication in plain text
+    @Test
+    public void apiValidationErrorAsText() throws Exception {
+        mockMvc.perform(post("/validated").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"username":"leo","password":""}
+                        """))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("password: must not be blank"));
+    }
+
+    // Should not capture a stack trace for expected failures
+    @Test
+    public void authFailuresAreStackless() {
+        var exception = new InvalidCredentialsException("Invalid username or password");
+
+        assertEquals(0, exception.getStackTrace().length);
+        exception.addSuppressed(new IllegalStateException());
+        assertEquals(0, exception.getSuppressed().length);
+    }
+
+    @RestController
+    static class FailingController {
+
+        @PostMapping("/invalid-credentials")
+        void invalidCredentials() {
+            throw new InvalidCredentialsException("Invalid username or password");
+        }
+
+        @PostMapping("/user-not-found")
+        void userNotFound() {
+            throw new UserNotFoundException("User not found");
+        }
+
+        @PostMapping("/too-many-login-attempts")
+        void tooManyLoginAttempts(@RequestParam(defaultValue = "42") long retryAfter) {
+            throw new TooManyLoginAttemptsException("Too many login attempts, try again later", retryAfter);
+        }
+
+        @PostMapping("/password-hashing-unavailable")
+        void passwordHashingUnavailable() {
+            throw new PasswordHashingUnavailableException("Authentication service is busy, try again later", 1);
+        }
+
+        @PostMapping({"/auth/validated", "/validated"})
+        void validated(@Valid @RequestBody AuthenticationDTO data) {
+        }
+    }
+}
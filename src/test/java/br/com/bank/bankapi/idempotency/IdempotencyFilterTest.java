@@ -0,0 +1,118 @@
+package br.com.bank.bankapi.idempotency;
+
+import br.com.bank.bankapi.idempotency.IdempotencyService.Claim;
+import br.com.bank.bankapi.idempotency.IdempotencyService.Outcome;
+import jakarta.servlet.ReadListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock
+    IdempotencyService idempotencyService;
+
+    IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(idempotencyService, DataSize.ofBytes(16));
+    }
+
+    // Should leave credential endpoints alone however their URI is written
+    @Test
+    public void skipsExcludedPathsByServletPath() throws Exception {
+        var request = request("{}");
+        request.setContextPath("/bank");
+        request.setRequestURI("/bank/auth/login;jsessionid=x");
+        request.setServletPath("/auth/login");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verifyNoInteractions(idempotencyService);
+    }
+
+    // Should refuse a body above the limit, whether or not it declares its length, without claiming the key
+    @Test
+    public void rejectsOversizedBodies() throws Exception {
+        var declared = request("{\"name\":\"a long value\"}");
+        var chunked = request("{\"name\":\"a long value\"}", -1);
+
+        for (var request : List.of(declared, chunked)) {
+            var response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(413, response.getStatus());
+        }
+        verifyNoInteractions(idempotencyService);
+    }
+
+    // Should hand the controller the body it fingerprinted, also to a non-blocking reader
+    @Test
+    public void servesBufferedBodyToReadListener() throws Exception {
+        when(idempotencyService.claim(anyString(), any())).thenReturn(new Claim(Outcome.EXECUTE, null, null, null));
+        List<String> events = new ArrayList<>();
+        var received = new ByteArrayOutputStream();
+
+        filter.doFilter(request("{\"a\":1}"), new MockHttpServletResponse(), (request, response) -> {
+            var input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    while (input.isReady() && !input.isFinished()) {
+                        received.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals("{\"a\":1}", received.toString(StandardCharsets.UTF_8));
+        verify(idempotencyService).complete(anyString(), any(), any());
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        return request(body, body.length());
+    }
+
+    // A content length of -1 stands for a chunked body
+    private static MockHttpServletRequest request(String body, long contentLength) {
+        var request = new MockHttpServletRequest("POST", "/accounts") {
+            @Override
+            public long getContentLengthLong() {
+                return contentLength;
+            }
+        };
+        request.setServletPath("/accounts");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-1");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
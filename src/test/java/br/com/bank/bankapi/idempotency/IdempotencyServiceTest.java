@@ -0,0 +1,161 @@
+package br.com.bank.bankapi.idempotency;
+
+import br.com.bank.bankapi.idempotency.IdempotencyService.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    static final byte[] FINGERPRINT = {1, 2, 3};
+    static final StoredResponse CREATED = new StoredResponse(201, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+
+    @Mock
+    IdempotencyStore store;
+
+    IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(store, Duration.ofHours(24), 100, Duration.ofSeconds(5),
+                DataSize.ofKilobytes(64), 1000, new SimpleMeterRegistry());
+    }
+
+    // Should execute the first request and replay its response from memory afterwards, without a query
+    @Test
+    public void replaysCompletedResponseFromCache() {
+        when(store.tryLock(eq("u:k"), eq(FINGERPRINT), any(), any())).thenReturn(true);
+        when(store.complete(eq("u:k"), any(), eq(CREATED), any())).thenReturn(true);
+
+        var first = idempotencyService.claim("u:k", FINGERPRINT);
+        idempotencyService.complete("u:k", first, CREATED);
+        var retry = idempotencyService.claim("u:k", FINGERPRINT);
+
+        assertEquals(Outcome.EXECUTE, first.outcome());
+        assertEquals(Outcome.REPLAY, retry.outcome());
+        assertSame(CREATED, retry.response());
+        verify(store).complete(eq("u:k"), eq(first.lockedAt()), eq(CREATED), any());
+        verify(store, times(1)).tryLock(any(), any(), any(), any());
+    }
+
+    // Should reject a retry whose request differs from the one that used the key first
+    @Test
+    public void rejectsDifferentRequestWithSameKey() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(true);
+        when(store.complete(any(), any(), any(), any())).thenReturn(true);
+        var first = idempotencyService.claim("u:k", FINGERPRINT);
+        idempotencyService.complete("u:k", first, CREATED);
+
+        assertEquals(Outcome.MISMATCH, idempotencyService.claim("u:k", new byte[]{9}).outcome());
+    }
+
+    // Should make a duplicate wait for the request in flight and hand it the same response
+    @Test
+    public void coalescesDuplicateInFlight() throws Exception {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(true);
+        var first = idempotencyService.claim("u:k", FINGERPRINT);
+
+        var duplicate = CompletableFuture.supplyAsync(() -> idempotencyService.claim("u:k", FINGERPRINT));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        idempotencyService.complete("u:k", first, CREATED);
+
+        var claim = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(Outcome.REPLAY, claim.outcome());
+        assertSame(CREATED, claim.response());
+        verify(store, times(1)).tryLock(any(), any(), any(), any());
+    }
+
+    // Should replay a response stored by another instance and keep it in memory
+    @Test
+    public void replaysResponseStoredElsewhere() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(false);
+        when(store.find("u:k")).thenReturn(Optional.of(new IdempotencyEntry(FINGERPRINT, CREATED)));
+
+        assertEquals(Outcome.REPLAY, idempotencyService.claim("u:k", FINGERPRINT).outcome());
+        assertEquals(Outcome.REPLAY, idempotencyService.claim("u:k", FINGERPRINT).outcome());
+        verify(store, times(1)).find("u:k");
+    }
+
+    // Should answer in progress while another instance runs the request, before its lock times out
+    @Test
+    public void reportsInProgressElsewhere() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(false);
+        when(store.find("u:k")).thenReturn(Optional.of(new IdempotencyEntry(FINGERPRINT, null)));
+        when(store.takeOver(eq("u:k"), any(), any())).thenReturn(false);
+
+        assertEquals(Outcome.IN_PROGRESS, idempotencyService.claim("u:k", FINGERPRINT).outcome());
+    }
+
+    // Should reject a different request whose key is still in progress elsewhere, without trying to take it over
+    @Test
+    public void rejectsDifferentRequestInProgressElsewhere() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(false);
+        when(store.find("u:k")).thenReturn(Optional.of(new IdempotencyEntry(FINGERPRINT, null)));
+
+        assertEquals(Outcome.MISMATCH, idempotencyService.claim("u:k", new byte[]{9}).outcome());
+        verify(store, never()).takeOver(any(), any(), any());
+    }
+
+    // Should complete with the lock time the claim took, and not cache a response whose key was taken over meanwhile
+    @Test
+    public void fencesCompletionOnLockTime() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(true);
+        when(store.complete(any(), any(), any(), any())).thenReturn(false);
+        var first = idempotencyService.claim("u:k", FINGERPRINT);
+
+        idempotencyService.complete("u:k", first, CREATED);
+
+        var lockedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(store).tryLock(eq("u:k"), eq(FINGERPRINT), lockedAt.capture(), any());
+        assertEquals(lockedAt.getValue(), first.lockedAt());
+        verify(store).complete(eq("u:k"), eq(lockedAt.getValue()), eq(CREATED), any());
+        assertEquals(Outcome.EXECUTE, idempotencyService.claim("u:k", FINGERPRINT).outcome());
+        verify(store, times(2)).tryLock(any(), any(), any(), any());
+    }
+
+    // Should release only the lock the claim took over
+    @Test
+    public void fencesReleaseOnTakenOverLock() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(false);
+        when(store.find("u:k")).thenReturn(Optional.of(new IdempotencyEntry(FINGERPRINT, null)));
+        when(store.takeOver(eq("u:k"), any(), any())).thenReturn(true);
+        var claim = idempotencyService.claim("u:k", FINGERPRINT);
+
+        idempotencyService.fail("u:k", claim, new IllegalStateException());
+
+        var lockedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(store).takeOver(eq("u:k"), lockedAt.capture(), any());
+        verify(store).release("u:k", lockedAt.getValue());
+    }
+
+    // Should not store a server error, so that the next retry executes again
+    @Test
+    public void releasesKeyOnServerError() {
+        when(store.tryLock(any(), any(), any(), any())).thenReturn(true);
+        var first = idempotencyService.claim("u:k", FINGERPRINT);
+
+        idempotencyService.complete("u:k", first, new StoredResponse(503, null, new byte[0]));
+
+        verify(store).release("u:k", first.lockedAt());
+        verify(store, never()).complete(any(), any(), any(), any());
+        assertEquals(Outcome.EXECUTE, idempotencyService.claim("u:k", FINGERPRINT).outcome());
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.bank.bankapi.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    DataSource pool;
+    SimpleMeterRegistry meterRegistry;
+    ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConnectionLimitingDataSource(pool, "test", 2, Duration.ofMillis(50), meterRegistry);
+    }
+
+    // Should give up after the timeout once every permit is taken, and count the timeout
+    @Test
+    public void timesOutWhenAllConnectionsAreOpen() throws SQLException {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1.0, meterRegistry.get("datasource.connections.permit.timeouts").tag("pool", "test").counter().count());
+    }
+
+    // Should hand the permit to a waiting thread when a connection is closed, and only once per connection
+    @Test
+    public void closeReleasesPermitOnce() throws Exception {
+        var first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        var waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        first.close();
+        first.close();
+
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, meterRegistry.get("datasource.connections.permit.available").gauge().value());
+    }
+
+    // Should return the permit when the pool fails to open a connection
+    @Test
+    public void failedConnectionReleasesPermit() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(2.0, meterRegistry.get("datasource.connections.permit.available").gauge().value());
+    }
+}
@@ -0,0 +1,181 @@
+package br.com.bank.bankapi.persistence;
+
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.customer.model.Customer;
+import br.com.bank.bankapi.customer.repository.CustomerRepository;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against a local PostgreSQL and counts the statements Hibernate prepares, so a lookup served from the
+// second-level cache is one that leaves the count unchanged
+@ExtendWith(EntityCacheIntegrationTest.StopDatabase.class)
+@SpringBootTest
+@DirtiesContext
+class EntityCacheIntegrationTest {
+
+    static final EmbeddedPostgres database = start();
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CustomerRepository customerRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    SessionFactory sessionFactory;
+    Statistics statistics;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", () -> database.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("api.audit.directory", Files.createTempDirectory("audit-")::toString);
+        registry.add("api.entity-cache.users.ttl", () -> "1s");
+    }
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    // Should query the database for the first lookup by username only, and answer the repeat from the cache
+    @Test
+    public void repeatUsernameLookupRunsNoSql() {
+        userRepository.save(new User("cached", "cached@test.com", "x", Role.ROLE_CLIENT));
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+
+        assertEquals("cached", userRepository.findByUsername("cached").getUsername());
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(1, statements);
+
+        assertEquals("cached", userRepository.findByUsername("cached").getUsername());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(CacheRegions.USERS).getHitCount());
+    }
+
+    // Should serve a user registered through JPA from the cache right away, and never cache an unknown username
+    @Test
+    public void cachesInsertsButNotMisses() {
+        userRepository.save(new User("inserted", "inserted@test.com", "x", Role.ROLE_CLIENT));
+        statistics.clear();
+
+        assertNotNull(userRepository.findByUsername("inserted"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        assertNull(userRepository.findByUsername("unknown"));
+        assertNull(userRepository.findByUsername("unknown"));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // Should see a deactivation committed through JPA on the next cached lookup
+    @Test
+    public void userUpdateRefreshesCache() {
+        var user = userRepository.save(new User("deactivated", "deactivated@test.com", "x", Role.ROLE_CLIENT));
+        assertTrue(userRepository.findByUsername("deactivated").isEnabled());
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(user.getId()).orElseThrow().setActive(false));
+        statistics.clear();
+
+        assertFalse(userRepository.findByUsername("deactivated").isEnabled());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    // Should see a deactivation made with plain SQL once the cached user expires
+    @Test
+    public void userChangedOutsideJpaExpires() throws InterruptedException {
+        userRepository.save(new User("expiring", "expiring@test.com", "x", Role.ROLE_CLIENT));
+        assertTrue(userRepository.findByUsername("expiring").isEnabled());
+
+        jdbcTemplate.update("UPDATE users SET active = false WHERE username = 'expiring'");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (userRepository.findByUsername("expiring").isEnabled() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertFalse(userRepository.findByUsername("expiring").isEnabled());
+    }
+
+    // Should resolve customers by document from the cache and reflect a status change in both regions
+    @Test
+    public void customerUpdateRefreshesCache() {
+        var user = userRepository.save(new User("customer-owner", "owner@test.com", "x", Role.ROLE_CLIENT));
+        var customer = customerRepository.save(new Customer("Cached Customer", "52998224725", CustomerStatus.ACTIVE, user.getId()));
+        assertEquals(customer.getId(), customerRepository.findByDocument("52998224725").orElseThrow().getId());
+
+        transactionTemplate.executeWithoutResult(status ->
+                customerRepository.findById(customer.getId()).orElseThrow().setStatus(CustomerStatus.BLOCKED));
+        statistics.clear();
+
+        assertEquals(CustomerStatus.BLOCKED, customerRepository.findByDocument("52998224725").orElseThrow().getStatus());
+        assertEquals(CustomerStatus.BLOCKED, customerRepository.findById(customer.getId()).orElseThrow().getStatus());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    // Should publish hits and misses per region
+    @Test
+    public void publishesCacheMetrics() {
+        userRepository.save(new User("measured", "measured@test.com", "x", Role.ROLE_CLIENT));
+        userRepository.findByUsername("measured");
+
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", CacheRegions.USERS)
+                .tag("result", "hit")
+                .functionCounter());
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Declared ahead of the Spring extension so that it runs after it, once the context is closed, and no scheduled
+    // task or pool is left holding on to a stopped server
+    static class StopDatabase implements AfterAllCallback {
+        @Override
+        public void afterAll(ExtensionContext context) throws IOException {
+            database.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.bank.bankapi.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryProfilerTest {
+
+    static final String FIND_USER = "select u1_0.id,u1_0.username from users u1_0 where u1_0.username=?";
+    static final String FIND_CUSTOMER = "select c1_0.id from customers c1_0 where c1_0.user_id=?";
+
+    SimpleMeterRegistry meterRegistry;
+    QueryProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        profiler = new QueryProfiler(Duration.ofMillis(100), 10, 64, meterRegistry);
+    }
+
+    // Should time each statement under its operation and table
+    @Test
+    public void timesStatementsByOperationAndTable() {
+        execute(FIND_USER, Duration.ofMillis(2));
+        execute("insert into customers (id,document) values (?,?)", Duration.ofMillis(3));
+
+        assertEquals(1, meterRegistry.get("jdbc.statements").tags("operation", "select", "table", "users").timer().count());
+        assertEquals(1, meterRegistry.get("jdbc.statements").tags("operation", "insert", "table", "customers").timer().count());
+    }
+
+    // Should count the statements of a request and flag the one repeated past the threshold
+    @Test
+    public void countsStatementsPerRequestAndFlagsRepeatedOnes() {
+        profiler.beginRequest();
+        execute(FIND_USER, Duration.ofMillis(1));
+        for (int i = 0; i < 12; i++) {
+            execute(FIND_CUSTOMER, Duration.ofMillis(1));
+        }
+        profiler.endRequest("GET", "/customers");
+
+        var statements = meterRegistry.get("http.server.requests.statements").tags("method", "GET", "uri", "/customers").summary();
+        assertEquals(1, statements.count());
+        assertEquals(13, statements.totalAmount());
+        assertEquals(1.0, meterRegistry.get("jdbc.statements.repeated").tags("uri", "/customers").counter().count());
+    }
+
+    // Should not count statements run outside a request
+    @Test
+    public void ignoresStatementsOutsideRequests() {
+        execute(FIND_USER, Duration.ofMillis(1));
+        profiler.endRequest("GET", "/customers");
+
+        assertTrue(meterRegistry.find("http.server.requests.statements").summaries().isEmpty());
+    }
+
+    // Should report slow statements and describe their parameters without their values
+    @Test
+    public void reportsSlowStatementsWithParameterShapes() throws Exception {
+        var query = new QueryInfo(FIND_USER);
+        query.getParametersList().add(List.of(
+                parameter("setString", new Class<?>[]{int.class, String.class}, 1, "12345678901"),
+                parameter("setObject", new Class<?>[]{int.class, Object.class}, 2, UUID.randomUUID()),
+                parameter("setNull", new Class<?>[]{int.class, int.class}, 3, Types.VARCHAR)));
+
+        var execution = new ExecutionInfo();
+        execution.setElapsedTime(Duration.ofMillis(250).toNanos());
+        profiler.afterQuery(execution, List.of(query));
+        profiler.report();
+
+        assertEquals("[String(11), UUID, null]", QueryProfiler.parameterShapes(query));
+        assertEquals(1.0, meterRegistry.get("jdbc.statements.slow").counter().count());
+        assertEquals(0.0, meterRegistry.get("jdbc.profiler.reports.dropped").counter().count());
+    }
+
+    private void execute(String sql, Duration elapsed) {
+        var execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsed.toNanos());
+        profiler.afterQuery(execution, List.of(new QueryInfo(sql)));
+    }
+
+    private static ParameterSetOperation parameter(String method, Class<?>[] types, Object... args) throws Exception {
+        return new ParameterSetOperation(PreparedStatement.class.getMethod(method, types), args);
+    }
+}
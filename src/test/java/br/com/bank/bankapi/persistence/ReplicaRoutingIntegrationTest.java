@@ -0,0 +1,185 @@
+package br.com.bank.bankapi.persistence;
+
+import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
+import br.com.bank.bankapi.auth.dto.RegisterDTO;
+import br.com.bank.bankapi.auth.security.PrincipalCache;
+import br.com.bank.bankapi.auth.security.UsernameFilter;
+import br.com.bank.bankapi.auth.service.AuthorizationService;
+import br.com.bank.bankapi.auth.service.UserService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two independent local PostgreSQL servers stand in for a primary and its replica. Nothing replicates between them,
+// which makes every routing decision observable: a row written only to one of them is visible only through it, and
+// the replica behaves as one lagging forever behind the primary. The context is closed right after the class, and the
+// servers right after it.
+@ExtendWith(ReplicaRoutingIntegrationTest.StopDatabases.class)
+@SpringBootTest
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingIntegrationTest {
+
+    static final EmbeddedPostgres primary = start();
+    static final EmbeddedPostgres replica = start();
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserService userService;
+    @Autowired
+    AuthorizationService authorizationService;
+    @Autowired
+    PrincipalCache principalCache;
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    ReplicaRoutingDataSource replicaDataSource;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+    @Autowired
+    UsernameFilter usernameFilter;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        // The replica gets the schema the primary migrates itself to on startup
+        Flyway.configure().dataSource(replica.getPostgresDatabase()).load().migrate();
+
+        registry.add("spring.datasource.url", () -> primary.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("api.datasource.replicas.urls", () -> replica.getJdbcUrl("postgres", "postgres"));
+        registry.add("api.datasource.replicas.lag-check-interval", () -> "1h");
+        registry.add("api.security.username-filter.resync-interval", () -> "1h");
+        registry.add("api.audit.directory", Files.createTempDirectory("audit-")::toString);
+    }
+
+    // Should read inside read-only transactions from the replica and write to the primary
+    @Test
+    @Order(1)
+    public void routesReadsToReplicaAndWritesToPrimary() {
+        insertUser(replica, "replica-only");
+
+        assertNotNull(userRepository.findPrincipalByUsername("replica-only"));
+        assertTrue(userRepository.existsByUsername("replica-only"));
+
+        userRepository.save(new User("written", "written@test.com", "x", Role.ROLE_CLIENT));
+        assertEquals(1, countUsers(primary, "written"));
+        assertEquals(0, countUsers(replica, "written"));
+    }
+
+    // Should find a user right after registration although the replica has not caught up
+    @Test
+    @Order(2)
+    public void readsOwnWritesAfterRegister() {
+        userService.register(new RegisterDTO("fresh", "fresh@test.com", "12345678", Role.ROLE_CLIENT));
+
+        assertNull(userRepository.findPrincipalByUsername("fresh"), "replica must not have the row");
+        assertEquals("fresh", authorizationService.loadUserByUsername("fresh").getUsername());
+        assertNotNull(principalCache.get("fresh"));
+    }
+
+    // Should repeat a lookup on the primary when the replica does not know a user created by another instance
+    @Test
+    @Order(3)
+    public void fallsBackToPrimaryWhenReplicaMisses() {
+        insertUser(primary, "elsewhere");
+
+        assertNotNull(principalCache.get("elsewhere"));
+    }
+
+    // Should learn a user registered on another instance from its notification, long before the filter resyncs
+    @Test
+    @Order(4)
+    public void logsInUserRegisteredElsewhere() throws InterruptedException {
+        new JdbcTemplate(primary.getPostgresDatabase()).update(
+                "INSERT INTO users (id, username, email, password, role) VALUES (?, 'other-node', 'other@test.com', ?, 'ROLE_CLIENT')",
+                UUID.randomUUID(), passwordEncoder.encode("12345678"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!usernameFilter.mightContain("other-node") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(userService.login(new AuthenticationDTO("other-node", "12345678")).token());
+    }
+
+    // Should publish the metrics of every pool and of the routing decisions
+    @Test
+    @Order(5)
+    public void publishesPerPoolMetrics() {
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+        assertEquals(0.0, meterRegistry.get("datasource.replica.lag").tag("pool", "replica-1").gauge().value());
+        assertTrue(meterRegistry.get("datasource.read.routing").tag("target", "replica").counter().count() > 0);
+    }
+
+    // Should take an unreachable replica out of rotation and keep serving reads from the primary
+    @Test
+    @Order(6)
+    public void unreachableReplicaLeavesRotation() throws IOException {
+        assertTrue(replicaDataSource.getReplicas().get(0).inRotation());
+        replica.close();
+
+        replicaLagMonitor.check();
+
+        assertFalse(replicaDataSource.getReplicas().get(0).inRotation());
+        assertNotNull(userRepository.findPrincipalByUsername("written"));
+    }
+
+    private static void insertUser(EmbeddedPostgres database, String username) {
+        new JdbcTemplate(database.getPostgresDatabase()).update(
+                "INSERT INTO users (id, username, email, password, role) VALUES (?, ?, ?, 'x', 'ROLE_CLIENT')",
+                UUID.randomUUID(), username, username + "@test.com");
+    }
+
+    private static int countUsers(EmbeddedPostgres database, String username) {
+        return new JdbcTemplate(database.getPostgresDatabase())
+                .queryForObject("SELECT count(*) FROM users WHERE username = ?", Integer.class, username);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Declared ahead of the Spring extension so that it runs after it, once the context is closed, and no scheduled
+    // task or pool is left holding on to a stopped server
+    static class StopDatabases implements AfterAllCallback {
+        @Override
+        public void afterAll(ExtensionContext context) throws IOException {
+            primary.close();
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.bank.bankapi.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidGeneratorTest {
+
+    // Should set the version 7 and IETF variant bits and embed the current Unix time in milliseconds
+    @Test
+    public void generatesVersion7() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1);
+    }
+
+    // Should produce strictly increasing ids, also in the unsigned byte order used by PostgreSQL
+    @Test
+    public void isMonotonic() {
+        UUID previous = TimeOrderedUuidGenerator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuidGenerator.next();
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = next;
+        }
+    }
+
+    // Should never hand out the same id twice when called from many threads
+    @Test
+    public void isUniqueUnderConcurrency() throws InterruptedException {
+        int threads = 8;
+        int perThread = 20_000;
+        var start = new CountDownLatch(1);
+        var generated = new ConcurrentLinkedQueue<UUID>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            var worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    generated.add(TimeOrderedUuidGenerator.next());
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Set<Long> timestampsAndCounters = new HashSet<>();
+        for (UUID uuid : generated) {
+            assertTrue(timestampsAndCounters.add(uuid.getMostSignificantBits()));
+        }
+        assertEquals(threads * perThread, timestampsAndCounters.size());
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.security.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    AtomicLong clock;
+    SimpleMeterRegistry meterRegistry;
+    AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        meterRegistry = new SimpleMeterRegistry();
+        limit = new AdaptiveConcurrencyLimit("test", 20, 2, 100, 1.5, Duration.ofMillis(100), clock::get, meterRegistry);
+    }
+
+    // Should refuse requests above the limit and count them, and admit again once one completes
+    @Test
+    public void rejectsAboveLimit() {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permits.add(limit.tryAcquire());
+        }
+
+        assertNull(limit.tryAcquire());
+        assertEquals(20, limit.getInFlight());
+        assertEquals(1.0, meterRegistry.get("http.server.concurrency.rejected").tag("traffic", "test").counter().count());
+
+        limit.release(permits.getFirst(), true);
+        assertNotNull(limit.tryAcquire());
+    }
+
+    // Should raise the limit while the limit is in use and latency stays at its baseline
+    @Test
+    public void growsWhileLatencyIsSteady() {
+        runWindows(5, 20, 10);
+
+        assertTrue(limit.getLimit() > 20);
+        assertEquals(limit.getLimit(), meterRegistry.get("http.server.concurrency.limit").tag("traffic", "test").gauge().value());
+    }
+
+    // Should lower the limit when latency rises well above its baseline
+    @Test
+    public void shrinksWhenLatencyRises() {
+        runWindows(1, 20, 10);
+        int before = limit.getLimit();
+
+        runWindows(5, before, 50);
+
+        assertTrue(limit.getLimit() < before);
+    }
+
+    // Should leave the limit alone while most of it sits unused
+    @Test
+    public void doesNotGrowWhenUnderused() {
+        runWindows(5, 5, 10);
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    // Should ignore requests whose time does not reflect the work done for them
+    @Test
+    public void ignoresUnsampledRequests() {
+        for (int i = 0; i < 50; i++) {
+            var permit = limit.tryAcquire();
+            clock.addAndGet(Duration.ofMillis(10).toNanos());
+            limit.release(permit, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    // Sends rounds of concurrent requests that each take rttMillis, until the given number of windows has passed
+    private void runWindows(int windows, int concurrency, long rttMillis) {
+        long end = clock.get() + Duration.ofMillis(100).toNanos() * windows;
+        while (clock.get() < end) {
+            List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                var permit = limit.tryAcquire();
+                if (permit != null) {
+                    permits.add(permit);
+                }
+            }
+            clock.addAndGet(Duration.ofMillis(rttMillis).toNanos());
+            permits.forEach(permit -> limit.release(permit, true));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.exception.PasswordHashingUnavailableException;
+import br.com.bank.bankapi.auth.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    // Should delegate encode and matches to the wrapped encoder
+    @Test
+    public void delegatesToEncoder() {
+        var meterRegistry = new SimpleMeterRegistry();
+        try (var encoder = new BoundedPasswordEncoder(new PrefixEncoder(null), 1, 1, 1, meterRegistry)) {
+            assertEquals("hashed:secret", encoder.encode("secret"));
+            assertTrue(encoder.matches("secret", "hashed:secret"));
+            assertEquals(1, meterRegistry.get("security.password.hashing").tag("operation", "encode").timer().count());
+        }
+    }
+
+    // Should fail fast with Retry-After information when the pool and its queue are full
+    @Test
+    public void rejectsWhenSaturated() throws Exception {
+        var release = new CountDownLatch(1);
+        var meterRegistry = new SimpleMeterRegistry();
+        try (var encoder = new BoundedPasswordEncoder(new PrefixEncoder(release), 1, 1, 7, meterRegistry)) {
+            var running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            var queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            waitForQueueDepth(meterRegistry, 1);
+
+            var exception = assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("c"));
+            assertEquals(7, exception.getRetryAfterSeconds());
+            assertEquals(1.0, meterRegistry.get("security.password.hashing.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void waitForQueueDepth(SimpleMeterRegistry meterRegistry, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("security.password.hashing.queue").gauge().value() < depth) {
+            if (System.nanoTime() > deadline) {
+                fail("Hashing queue never reached depth " + depth);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    // Fake encoder that optionally blocks until released, to keep the hashing pool busy
+    private record PrefixEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+    }
+}
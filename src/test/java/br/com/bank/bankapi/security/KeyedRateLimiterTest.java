@@ -0,0 +1,41 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.security.KeyedRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedRateLimiterTest {
+
+    // Should allow a burst of capacity requests per key and then ask the caller to wait
+    @Test
+    public void rejectsAfterCapacity() {
+        var limiter = new KeyedRateLimiter(3, Duration.ofHours(1), 100);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+
+        long waitNanos = limiter.tryAcquire("10.0.0.1");
+        assertTrue(waitNanos > TimeUnit.MINUTES.toNanos(19) && waitNanos <= TimeUnit.MINUTES.toNanos(20));
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+    }
+
+    // Should hand out a new token once one emission interval has passed
+    @Test
+    public void refillsOverTime() throws InterruptedException {
+        var limiter = new KeyedRateLimiter(2, Duration.ofMillis(200), 100);
+
+        assertEquals(0, limiter.tryAcquire("leo"));
+        assertEquals(0, limiter.tryAcquire("leo"));
+        assertTrue(limiter.tryAcquire("leo") > 0);
+
+        Thread.sleep(150);
+
+        assertEquals(0, limiter.tryAcquire("leo"));
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.exception.TooManyLoginAttemptsException;
+import br.com.bank.bankapi.auth.security.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginRateLimiterTest {
+
+    SimpleMeterRegistry meterRegistry;
+    AuditTrail auditTrail;
+    LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditTrail = mock(AuditTrail.class);
+        limiter = new LoginRateLimiter(1, Duration.ofMillis(300), 1, Duration.ofMillis(300), 100, meterRegistry, auditTrail);
+    }
+
+    // Should count every rejected attempt but audit only the first one per client in a refill period
+    @Test
+    public void auditsFirstClientRejectionPerPeriod() throws InterruptedException {
+        limiter.checkClient("10.0.0.1");
+        for (int i = 0; i < 5; i++) {
+            assertThrows(TooManyLoginAttemptsException.class, () -> limiter.checkClient("10.0.0.1"));
+        }
+
+        verify(auditTrail, times(1)).record(AuditEventType.LOGIN_RATE_LIMITED, "", "client=10.0.0.1");
+        assertEquals(5.0, meterRegistry.get("security.login.rate-limited").tag("key", "client").counter().count());
+
+        Thread.sleep(350);
+        limiter.checkClient("10.0.0.1");
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.checkClient("10.0.0.1"));
+
+        verify(auditTrail, times(2)).record(AuditEventType.LOGIN_RATE_LIMITED, "", "client=10.0.0.1");
+    }
+
+    // Should audit each username once, treating case variations as the same key
+    @Test
+    public void auditsFirstUsernameRejectionPerPeriod() {
+        limiter.checkUsername("leo");
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.checkUsername("leo"));
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.checkUsername("LEO"));
+        limiter.checkUsername("ana");
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.checkUsername("ana"));
+
+        verify(auditTrail).record(AuditEventType.LOGIN_RATE_LIMITED, "leo", "username");
+        verify(auditTrail).record(AuditEventType.LOGIN_RATE_LIMITED, "ana", "username");
+        verifyNoMoreInteractions(auditTrail);
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.security.PrincipalCache;
+import br.com.bank.bankapi.persistence.ReadYourWrites;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+
+    @Mock
+    UserRepository repository;
+
+    PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(repository, 100, Duration.ofMinutes(5),
+                new ReadYourWrites("", Duration.ofSeconds(1), Duration.ofSeconds(1), 100), new SimpleMeterRegistry());
+    }
+
+    // Should query the database only once for repeated lookups of the same username
+    @Test
+    public void getLoadsOnce() {
+        var principal = new UserPrincipal(UUID.randomUUID(), "leo", Role.ROLE_CLIENT, true);
+        when(repository.findPrincipalByUsername("leo")).thenReturn(principal);
+
+        assertSame(principal, principalCache.get("leo"));
+        assertSame(principal, principalCache.get("leo"));
+
+        verify(repository, times(1)).findPrincipalByUsername("leo");
+    }
+
+    // Should not cache usernames that do not exist
+    @Test
+    public void getUnknownUserIsNotCached() {
+        when(repository.findPrincipalByUsername("ghost")).thenReturn(null);
+
+        assertNull(principalCache.get("ghost"));
+        assertNull(principalCache.get("ghost"));
+
+        verify(repository, times(2)).findPrincipalByUsername("ghost");
+    }
+
+    // Should reload the principal after it is invalidated by id, even when the username changed
+    @Test
+    public void invalidateById() {
+        var id = UUID.randomUUID();
+        var active = new UserPrincipal(id, "leo", Role.ROLE_CLIENT, true);
+        var inactive = new UserPrincipal(id, "leo", Role.ROLE_CLIENT, false);
+        when(repository.findPrincipalByUsername("leo")).thenReturn(active, inactive);
+
+        assertTrue(principalCache.get("leo").active());
+
+        principalCache.invalidate(id, "renamed");
+
+        assertFalse(principalCache.get("leo").active());
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.security.TokenRevocationList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    TokenRevocationList revocationList = new TokenRevocationList();
+
+    // Should report only the revoked token id as revoked
+    @Test
+    public void isRevoked() {
+        var expiresAt = Instant.now().plus(Duration.ofMinutes(20));
+        var revoked = UUID.randomUUID();
+
+        revocationList.add(revoked, expiresAt);
+
+        assertTrue(revocationList.isRevoked(revoked, expiresAt));
+        assertFalse(revocationList.isRevoked(UUID.randomUUID(), expiresAt));
+        assertFalse(revocationList.isRevoked(null, expiresAt));
+    }
+
+    // Should not keep revocations of tokens that have already expired
+    @Test
+    public void ignoresExpiredTokens() {
+        var revoked = UUID.randomUUID();
+        var expiresAt = Instant.now().minusSeconds(1);
+
+        revocationList.add(revoked, expiresAt);
+
+        assertEquals(0, revocationList.size());
+    }
+
+    // Should keep the buckets of tokens that are still in force when expired buckets are dropped
+    @Test
+    public void dropExpiredBucketsKeepsLiveRevocations() {
+        var live = UUID.randomUUID();
+        var liveExpiresAt = Instant.now().plus(Duration.ofMinutes(20));
+        revocationList.add(live, liveExpiresAt);
+
+        revocationList.dropExpiredBuckets();
+
+        assertTrue(revocationList.isRevoked(live, liveExpiresAt));
+        assertEquals(1, revocationList.size());
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    MeterRegistry meterRegistry;
+    TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenService = new TokenService("test-secret", 100, meterRegistry);
+    }
+
+    // Should return the subject of a token generated by the service
+    @Test
+    public void validateGeneratedToken() {
+        String token = tokenService.generateToken(new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT));
+
+        assertEquals("leo", tokenService.validateToken(token));
+    }
+
+    // Should give every generated token its own id and return it with the expiration date
+    @Test
+    public void verifyReturnsTokenId() {
+        var user = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+
+        var first = tokenService.verify(tokenService.generateToken(user));
+        var second = tokenService.verify(tokenService.generateToken(user));
+
+        assertNotNull(first.tokenId());
+        assertNotNull(first.expiresAt());
+        assertNotEquals(first.tokenId(), second.tokenId());
+    }
+
+    // Should serve repeated validations of the same token from the cache
+    @Test
+    public void validateTokenUsesCache() {
+        String token = tokenService.generateToken(new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT));
+
+        tokenService.validateToken(token);
+        tokenService.validateToken(token);
+        tokenService.validateToken(token);
+
+        assertEquals(1.0, cacheGets("miss"));
+        assertEquals(2.0, cacheGets("hit"));
+    }
+
+    // Should reject a token signed with another secret and never cache it
+    @Test
+    public void validateTokenWithWrongSignature() {
+        var otherService = new TokenService("other-secret", 100, new SimpleMeterRegistry());
+        String token = otherService.generateToken(new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT));
+
+        assertNull(tokenService.validateToken(token));
+        assertNull(tokenService.validateToken(token));
+        assertEquals(0.0, cacheGets("hit"));
+    }
+
+    // Should reject a malformed token
+    @Test
+    public void validateMalformedToken() {
+        assertNull(tokenService.validateToken("not-a-jwt"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwt.verified-tokens")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.bank.bankapi.security;
+
+import br.com.bank.bankapi.auth.security.UsernameFilter;
+import br.com.bank.bankapi.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UsernameFilterTest {
+
+    @Mock
+    UserRepository repository;
+
+    UsernameFilter usernameFilter;
+
+    @BeforeEach
+    void setUp() {
+        usernameFilter = new UsernameFilter(repository, 10_000, 0.01, new SimpleMeterRegistry());
+    }
+
+    // Should answer "maybe" for every username until the warm-up has loaded the existing ones
+    @Test
+    public void mightContainBeforeWarmUp() {
+        assertFalse(usernameFilter.isReady());
+        assertTrue(usernameFilter.mightContain("anyone"));
+    }
+
+    // Should contain every username loaded at warm-up or added later, and reject most unknown ones
+    @Test
+    public void warmUpAndPut() {
+        List<String> existing = IntStream.range(0, 5_000).mapToObj(i -> "user" + i).toList();
+        when(repository.findUsernamesAfter(eq(""), any(Limit.class))).thenReturn(existing);
+
+        usernameFilter.warmUp();
+        usernameFilter.put("late-user");
+
+        assertTrue(usernameFilter.isReady());
+        existing.forEach(username -> assertTrue(usernameFilter.mightContain(username)));
+        assertTrue(usernameFilter.mightContain("late-user"));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> usernameFilter.mightContain("unknown" + i))
+                .count();
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,157 @@
+package br.com.bank.bankapi.service;
+
+import br.com.bank.bankapi.audit.AuditEventType;
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.dto.BulkRegisterDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterResponseDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterResultDTO;
+import br.com.bank.bankapi.auth.dto.BulkRegisterStatus;
+import br.com.bank.bankapi.auth.dto.RegisterDTO;
+import br.com.bank.bankapi.auth.security.BoundedPasswordEncoder;
+import br.com.bank.bankapi.auth.service.BulkRegistrationService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import br.com.bank.bankapi.user.repository.UserRepository;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkRegistrationServiceTest {
+
+    @Mock
+    UserRepository repository;
+    @Mock
+    BoundedPasswordEncoder passwordEncoder;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Mock
+    AuditTrail auditTrail;
+
+    BulkRegistrationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkRegistrationService(repository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, 2, auditTrail);
+        lenient().when(passwordEncoder.encodeAll(anyList())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(password -> "hashed-" + password).toList());
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    // Should create the valid rows and report every invalid or empty row without inserting it
+    @Test
+    public void reportsInvalidRows() {
+        var response = register(row("ana"), new RegisterDTO("bob", "bob@email.com", "short", Role.ROLE_CLIENT), null);
+
+        assertEquals(1, response.created());
+        assertEquals(2, response.rejected());
+        assertEquals(BulkRegisterStatus.CREATED, response.results().get(0).status());
+        assertEquals(BulkRegisterStatus.INVALID, response.results().get(1).status());
+        assertTrue(response.results().get(1).message().startsWith("password: "));
+        assertEquals(new BulkRegisterResultDTO(2, null, BulkRegisterStatus.INVALID, "Empty row"), response.results().get(2));
+        verify(passwordEncoder).encodeAll(List.of("password-ana"));
+        verify(auditTrail).record(AuditEventType.USER_REGISTERED, "ana", Role.ROLE_CLIENT.name());
+    }
+
+    // Should keep the first occurrence of a username repeated inside the batch and reject the others
+    @Test
+    public void rejectsDuplicatesWithinBatch() {
+        var response = register(row("ana"), row("ana"), row("bob"));
+
+        assertEquals(new BulkRegisterResultDTO(1, "ana", BulkRegisterStatus.DUPLICATE, "Username repeated in batch"),
+                response.results().get(1));
+        verify(repository).findExistingUsernames(new String[]{"ana", "bob"});
+        assertEquals(List.of("ana", "bob"), savedUsernames());
+    }
+
+    // Should look up every candidate username in one query and skip the ones already taken, hashing no password for them
+    @Test
+    public void rejectsExistingUsernames() {
+        when(repository.findExistingUsernames(any())).thenReturn(List.of("bob"));
+
+        var response = register(row("ana"), row("bob"));
+
+        assertEquals(new BulkRegisterResultDTO(1, "bob", BulkRegisterStatus.DUPLICATE, "Username already in use"),
+                response.results().get(1));
+        verify(repository).findExistingUsernames(any());
+        verify(passwordEncoder).encodeAll(List.of("password-ana"));
+        assertEquals(List.of("ana"), savedUsernames());
+    }
+
+    // Should retry a chunk row by row when it hits a constraint, so only the conflicting row is rejected
+    @Test
+    public void fallsBackToRowByRowInserts() {
+        when(repository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getUsername().equals("bob")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return user;
+        });
+
+        var response = register(row("ana"), row("bob"));
+
+        assertEquals(BulkRegisterStatus.CREATED, response.results().get(0).status());
+        assertEquals(new BulkRegisterResultDTO(1, "bob", BulkRegisterStatus.DUPLICATE, "Username already in use"),
+                response.results().get(1));
+        verify(repository, times(2)).saveAndFlush(any());
+    }
+
+    // Should keep the chunks already committed and mark the failed chunk and every later row FAILED instead of throwing
+    @Test
+    public void marksRemainingRowsFailedWhenChunkFails() {
+        when(repository.saveAllAndFlush(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        var response = register(row("ana"), row("bob"), row("carl"), row("dan"), row("eve"));
+
+        assertEquals(2, response.created());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of(BulkRegisterStatus.CREATED, BulkRegisterStatus.CREATED, BulkRegisterStatus.FAILED,
+                        BulkRegisterStatus.FAILED, BulkRegisterStatus.FAILED),
+                response.results().stream().map(BulkRegisterResultDTO::status).toList());
+        verify(repository, times(2)).saveAllAndFlush(anyList());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    private BulkRegisterResponseDTO register(RegisterDTO... rows) {
+        return service.register(new BulkRegisterDTO(Arrays.asList(rows)));
+    }
+
+    private List<String> savedUsernames() {
+        List<String> usernames = new ArrayList<>();
+        mockingDetails(repository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("saveAllAndFlush"))
+                .forEach(invocation -> invocation.<List<User>>getArgument(0).forEach(user -> usernames.add(user.getUsername())));
+        return usernames;
+    }
+
+    private static RegisterDTO row(String username) {
+        return new RegisterDTO(username, username + "@email.com", "password-" + username, Role.ROLE_CLIENT);
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.bank.bankapi.service;
+
+import br.com.bank.bankapi.audit.AuditTrail;
+import br.com.bank.bankapi.auth.dto.LoginResponseDTO;
+import br.com.bank.bankapi.auth.exception.InvalidRefreshTokenException;
+import br.com.bank.bankapi.auth.model.RefreshToken;
+import br.com.bank.bankapi.auth.repository.RefreshTokenRepository;
+import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.auth.service.RefreshTokenService;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    RefreshTokenRepository repository;
+    @Mock
+    TokenService tokenService;
+    @Mock
+    AuditTrail auditTrail;
+
+    RefreshTokenService refreshTokenService;
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(repository, tokenService, Duration.ofDays(7), 1000, auditTrail);
+        user = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+    }
+
+    // Should store only the hash of a new token, never the token itself
+    @Test
+    public void issueStoresHash() throws Exception {
+        String rawToken = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(captor.capture());
+        assertNotNull(rawToken);
+        byte[] expectedHash = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(expectedHash, captor.getValue().getTokenHash());
+        assertFalse(Arrays.equals(rawToken.getBytes(StandardCharsets.UTF_8), captor.getValue().getTokenHash()));
+        assertEquals(user, captor.getValue().getUser());
+        assertTrue(captor.getValue().getExpiresAt().isAfter(Instant.now().plus(Duration.ofDays(6))));
+    }
+
+    // Should rotate a valid token into a new one of the same family together with a new access token
+    @Test
+    public void refreshRotatesToken() {
+        var stored = new RefreshToken(new byte[32], UUID.randomUUID(), user, Instant.now().plusSeconds(60));
+        when(repository.findWithUserByTokenHash(any())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(any(), any())).thenReturn(1);
+        when(tokenService.generateToken(user)).thenReturn("access-token");
+
+        LoginResponseDTO response = refreshTokenService.refresh("raw-token");
+
+        assertEquals("access-token", response.token());
+        assertNotNull(response.refreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(captor.capture());
+        assertEquals(stored.getFamilyId(), captor.getValue().getFamilyId());
+        verify(repository, never()).revokeFamily(any(), any());
+    }
+
+    // Should revoke the whole family when a token is presented again after another request rotated it
+    @Test
+    public void refreshReusedTokenRevokesFamily() {
+        var stored = new RefreshToken(new byte[32], UUID.randomUUID(), user, Instant.now().plusSeconds(60));
+        when(repository.findWithUserByTokenHash(any())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(any(), any())).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh("raw-token"));
+
+        verify(repository).revokeFamily(eq(stored.getFamilyId()), any());
+        verify(repository, never()).save(any());
+        verify(tokenService, never()).generateToken(any(User.class));
+    }
+
+    // Should reject a token that is not in the database
+    @Test
+    public void refreshUnknownToken() {
+        when(repository.findWithUserByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh("raw-token"));
+    }
+}
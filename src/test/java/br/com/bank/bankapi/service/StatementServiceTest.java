@@ -0,0 +1,124 @@
+package br.com.bank.bankapi.service;
+
+import br.com.bank.bankapi.account.dto.StatementLineDTO;
+import br.com.bank.bankapi.account.enums.StatementFormat;
+import br.com.bank.bankapi.account.exception.InvalidStatementPeriodException;
+import br.com.bank.bankapi.account.repository.AccountRepository;
+import br.com.bank.bankapi.account.repository.StatementRepository;
+import br.com.bank.bankapi.account.service.StatementService;
+import br.com.bank.bankapi.customer.enums.CustomerStatus;
+import br.com.bank.bankapi.customer.exception.CustomerNotFoundException;
+import br.com.bank.bankapi.customer.model.Customer;
+import br.com.bank.bankapi.customer.repository.CustomerRepository;
+import br.com.bank.bankapi.user.enums.Role;
+import br.com.bank.bankapi.user.model.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementServiceTest {
+
+    static final Instant FROM = Instant.parse("2026-01-01T00:00:00Z");
+    static final Instant TO = Instant.parse("2026-02-01T00:00:00Z");
+
+    @Mock
+    AccountRepository accountRepository;
+    @Mock
+    CustomerRepository customerRepository;
+    @Mock
+    StatementRepository statementRepository;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    StatementService statementService;
+    UUID accountId = UUID.randomUUID();
+    UUID counterpartyId = UUID.randomUUID();
+    UUID transferId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        statementService = new StatementService(accountRepository, customerRepository, statementRepository,
+                transactionManager, JsonMapper.builder().build(), 500);
+    }
+
+    // Should write a header and one quoted-when-needed row per posting
+    @Test
+    public void exportWritesCsv() throws Exception {
+        streamLines(new StatementLineDTO(accountId, 7, FROM, transferId, counterpartyId, 150, 1_150, "rent, \"march\""));
+
+        String csv = export(StatementFormat.CSV);
+
+        assertEquals("account_id,posting_id,posted_at,transfer_id,counterparty_account_id,amount,balance,reference\n"
+                + accountId + ",7,2026-01-01T00:00:00Z," + transferId + "," + counterpartyId
+                + ",150,1150,\"rent, \"\"march\"\"\"\n", csv);
+        verify(statementRepository).streamAccount(eq(accountId), eq(FROM), eq(TO), eq(500), any());
+    }
+
+    // Should write one JSON object per line, without a header
+    @Test
+    public void exportWritesNdjson() throws Exception {
+        streamLines(new StatementLineDTO(accountId, 7, FROM, transferId, counterpartyId, -150, 850, null),
+                new StatementLineDTO(accountId, 9, FROM, transferId, counterpartyId, 50, 900, null));
+
+        String[] lines = export(StatementFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"accountId\":\"" + accountId + "\""));
+        assertTrue(lines[1].contains("\"balance\":900"));
+    }
+
+    // Should report the customer of another client as missing
+    @Test
+    public void accountsHidesOtherClientsCustomer() {
+        var customer = new Customer("Leo", "52998224725", CustomerStatus.ACTIVE, UUID.randomUUID());
+        when(customerRepository.findById(any())).thenReturn(Optional.of(customer));
+        var caller = new UserPrincipal(UUID.randomUUID(), "other", Role.ROLE_CLIENT, true);
+
+        assertThrows(CustomerNotFoundException.class,
+                () -> statementService.accounts(UUID.randomUUID(), FROM, TO, caller));
+        verifyNoInteractions(accountRepository);
+    }
+
+    // Should reject a period that ends before it starts
+    @Test
+    public void accountsRejectsInvertedPeriod() {
+        var caller = new UserPrincipal(UUID.randomUUID(), "admin", Role.ROLE_ADMIN, true);
+
+        assertThrows(InvalidStatementPeriodException.class,
+                () -> statementService.accounts(UUID.randomUUID(), TO, FROM, caller));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamLines(StatementLineDTO... lines) {
+        doAnswer(invocation -> {
+            Consumer<StatementLineDTO> consumer = invocation.getArgument(4);
+            for (StatementLineDTO line : lines) {
+                consumer.accept(line);
+            }
+            return null;
+        }).when(statementRepository).streamAccount(any(), any(), any(), anyInt(), any());
+    }
+
+    private String export(StatementFormat format) throws Exception {
+        var out = new ByteArrayOutputStream();
+        statementService.export(List.of(accountId), FROM, TO, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
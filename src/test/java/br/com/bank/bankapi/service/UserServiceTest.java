@@ -1,8 +1,10 @@
 package br.com.bank.bankapi.service;
 
+import br.com.bank.bankapi.audit.AuditTrail;
 import br.com.bank.bankapi.auth.dto.AuthenticationDTO;
 import br.com.bank.bankapi.auth.dto.LoginResponseDTO;
 import br.com.bank.bankapi.auth.dto.RegisterDTO;
+import br.com.bank.bankapi.auth.service.RefreshTokenService;
 import br.com.bank.bankapi.auth.service.UserService;
 import br.com.bank.bankapi.user.enums.Role;
 import br.com.bank.bankapi.auth.exception.InvalidCredentialsException;
@@ -12,6 +14,8 @@ import br.com.bank.bankapi.user.exception.UserNotFoundException;
 import br.com.bank.bankapi.user.model.User;
 import br.com.bank.bankapi.user.repository.UserRepository;
 import br.com.bank.bankapi.auth.security.TokenService;
+import br.com.bank.bankapi.auth.security.UsernameFilter;
+import br.com.bank.bankapi.persistence.ReadYourWrites;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,15 +23,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -40,25 +45,31 @@ class UserServiceTest {
     @Mock
     PasswordEncoder passwordEncoder;
     @Mock
-    AuthenticationManager authenticationManager;
-    @Mock
     TokenService tokenService;
+    @Mock
+    UsernameFilter usernameFilter;
+    @Mock
+    RefreshTokenService refreshTokenService;
+    @Mock
+    AuditTrail auditTrail;
+    @Spy
+    ReadYourWrites readYourWrites = new ReadYourWrites("", Duration.ofSeconds(1), Duration.ofSeconds(1), 100);
 
     @InjectMocks
     UserService userService;
 
-    // Should register a user when the username does not exist
+    // Should register a user with a single insert when the username filter has never seen it
     @Test
     public void registerUser() {
         RegisterDTO dto = new RegisterDTO("leo", "leo@email.com", "12345678", Role.ROLE_CLIENT);
 
-        when(repository.findByUsername("leo")).thenReturn(null);
+        when(usernameFilter.mightContain("leo")).thenReturn(false);
         when(passwordEncoder.encode("12345678")).thenReturn("hashed");
 
         userService.register(dto);
 
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(repository).save(captor.capture());
+        verify(repository).saveAndFlush(captor.capture());
 
         User saved = captor.getValue();
         assertEquals("leo", saved.getUsername());
@@ -67,34 +78,29 @@ class UserServiceTest {
         assertEquals(Role.ROLE_CLIENT, saved.getRole());
 
         verify(passwordEncoder).encode("12345678");
-        verify(repository).findByUsername("leo");
+        verify(repository, never()).existsByUsername(anyString());
     }
 
-    // Should return a token when login is valid
+    // Should return a token when login is valid, loading the user only once
     @Test
     public void loginUser() {
         AuthenticationDTO dto = new AuthenticationDTO("leo", "12345678");
 
         User userFromRepo = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+        when(usernameFilter.mightContain("leo")).thenReturn(true);
         when(repository.findByUsername("leo")).thenReturn(userFromRepo);
-
-        Authentication auth = mock(Authentication.class);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(auth);
-
-        User principal = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
-        when(auth.getPrincipal()).thenReturn(principal);
-
-        when(tokenService.generateToken(principal)).thenReturn("fake-jwt-token");
+        when(passwordEncoder.matches("12345678", "hashed")).thenReturn(true);
+        when(tokenService.generateToken(userFromRepo)).thenReturn("fake-jwt-token");
+        when(refreshTokenService.issue(userFromRepo)).thenReturn("fake-refresh-token");
 
         LoginResponseDTO response = userService.login(dto);
 
         assertNotNull(response);
         assertEquals("fake-jwt-token", response.token());
+        assertEquals("fake-refresh-token", response.refreshToken());
 
-        verify(repository).findByUsername("leo");
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(tokenService).generateToken(principal);
+        verify(repository, times(1)).findByUsername("leo");
+        verify(tokenService).generateToken(userFromRepo);
     }
 
     // Should throw an exception when the username is already taken
@@ -102,45 +108,74 @@ class UserServiceTest {
     public void registerUserAlreadyExists() {
         RegisterDTO dto = new RegisterDTO("leo", "leo@email.com", "12345678", Role.ROLE_CLIENT);
 
-        when(repository.findByUsername("leo")).thenReturn(new User());
+        when(usernameFilter.mightContain("leo")).thenReturn(true);
+        when(repository.existsByUsername("leo")).thenReturn(true);
 
         assertThrows(UserAlreadyExistsException.class, () -> userService.register(dto));
 
-        verify(repository).findByUsername("leo");
+        verify(repository).existsByUsername("leo");
 
-        verify(repository, never()).save(any(User.class));
+        verify(repository, never()).saveAndFlush(any(User.class));
         verify(passwordEncoder, never()).encode(anyString());
     }
 
+    // Should map a unique constraint violation on insert to the username conflict
+    @Test
+    public void registerUserConcurrentDuplicate() {
+        RegisterDTO dto = new RegisterDTO("leo", "leo@email.com", "12345678", Role.ROLE_CLIENT);
+
+        when(usernameFilter.mightContain("leo")).thenReturn(false);
+        when(passwordEncoder.encode("12345678")).thenReturn("hashed");
+        var violation = new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"),
+                "insert", ConstraintViolationException.ConstraintKind.UNIQUE, "users_username_key");
+        when(repository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key", violation));
+
+        assertThrows(UserAlreadyExistsException.class, () -> userService.register(dto));
+    }
+
     // Should throw an exception when the user is not found during login
     @Test
     public void loginUserNotFound() {
         AuthenticationDTO dto = new AuthenticationDTO("nonexistentUser", "12345678");
 
+        when(usernameFilter.mightContain("nonexistentUser")).thenReturn(true);
         when(repository.findByUsername("nonexistentUser")).thenReturn(null);
 
         assertThrows(UserNotFoundException.class, () -> userService.login(dto));
 
         verify(repository).findByUsername("nonexistentUser");
 
-        verify(authenticationManager, never()).authenticate(any());
+        verify(passwordEncoder, never()).matches(any(), any());
         verify(tokenService, never()).generateToken(any());
     }
 
+    // Should reject a username the filter has never seen without querying the database
+    @Test
+    public void loginUnknownUsernameSkipsDatabase() {
+        AuthenticationDTO dto = new AuthenticationDTO("nonexistentUser", "12345678");
+
+        when(usernameFilter.mightContain("nonexistentUser")).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userService.login(dto));
+
+        verifyNoInteractions(repository, passwordEncoder, tokenService, refreshTokenService);
+    }
+
     // Should throw an exception when the user is inactive during login
     @Test
     public void loginUserInactive() {
         AuthenticationDTO dto = new AuthenticationDTO("leo", "12345678");
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetails.isEnabled()).thenReturn(false);
-        when(repository.findByUsername("leo")).thenReturn(userDetails);
+        User inactive = new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT);
+        inactive.setActive(false);
+        when(usernameFilter.mightContain("leo")).thenReturn(true);
+        when(repository.findByUsername("leo")).thenReturn(inactive);
 
         assertThrows(UserInactiveException.class, () -> userService.login(dto));
 
         verify(repository).findByUsername("leo");
 
-        verify(authenticationManager, never()).authenticate(any());
+        verify(passwordEncoder, never()).matches(any(), any());
         verify(tokenService, never()).generateToken(any());
     }
 
@@ -149,18 +184,15 @@ class UserServiceTest {
     public void loginUserInvalidCredentials() {
         AuthenticationDTO dto = new AuthenticationDTO("leo", "wrongPassword");
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetails.isEnabled()).thenReturn(true);
-        when(repository.findByUsername("leo")).thenReturn(userDetails);
-
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new BadCredentialsException("bad credentials"));
+        when(usernameFilter.mightContain("leo")).thenReturn(true);
+        when(repository.findByUsername("leo")).thenReturn(new User("leo", "leo@email.com", "hashed", Role.ROLE_CLIENT));
+        when(passwordEncoder.matches("wrongPassword", "hashed")).thenReturn(false);
 
         assertThrows(InvalidCredentialsException.class, () -> userService.login(dto));
 
         verify(repository).findByUsername("leo");
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordEncoder).matches("wrongPassword", "hashed");
 
         verify(tokenService, never()).generateToken(any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package br.com.bank.bankapi.threading;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    // Should count a virtual thread that sleeps while holding a monitor
+    @Test
+    public void reportsPinnedVirtualThread() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), meterRegistry);
+        monitor.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            // JFR delivers events in periodic flushes, so pin again until one arrives
+            while (meterRegistry.get("jvm.threads.virtual.pinned").timer().count() == 0) {
+                if (System.nanoTime() > deadline) {
+                    fail("No pinned virtual thread reported");
+                }
+                Thread.ofVirtual().start(() -> {
+                    synchronized (lock) {
+                        sleep(50);
+                    }
+                }).join();
+            }
+        } finally {
+            monitor.stop();
+        }
+        assertFalse(monitor.isRunning());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}